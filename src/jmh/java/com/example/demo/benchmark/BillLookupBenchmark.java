@@ -0,0 +1,48 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.models.Bill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link com.example.demo.service.BillService} lookups over {@value HotelBenchmarkState#BILLS} bills.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+public class BillLookupBenchmark {
+
+    @Benchmark
+    public Optional<Bill> findBillById(HotelBenchmarkState state){
+        return state.billService.findBillById(1L+ThreadLocalRandom.current().nextInt(HotelBenchmarkState.BILLS));
+    }
+
+    @Benchmark
+    public Bill getBookedRoomBillById(HotelBenchmarkState state){
+        return state.billService.getBookedRoomBillById(1L+ThreadLocalRandom.current().nextInt(HotelBenchmarkState.BOOKINGS));
+    }
+
+    @Benchmark
+    public Bill getBookedRoomBillByCustomerName(HotelBenchmarkState state){
+        int booking=1+ThreadLocalRandom.current().nextInt(HotelBenchmarkState.BOOKINGS);
+        return state.billService.getBookedRoomBillByCustomerName(HotelBenchmarkState.bookingCustomer(booking));
+    }
+
+    @Benchmark
+    public Bill getFoodOrderBillById(HotelBenchmarkState state){
+        return state.billService.getFoodOrderBillById(1L+ThreadLocalRandom.current().nextInt(HotelBenchmarkState.FOOD_ORDERS));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.request_dto.BookRoomRequestDTO;
+import com.example.demo.dto.response_dto.RoomBookingSuccessDTO;
+import com.example.demo.dto.response_dto.RoomDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.example.demo.service.BookRoomService#bookRoom} for bookings of one or two random
+ * room types out of {@value HotelBenchmarkState#ROOM_TYPES}, with and without stay dates.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+public class BookRoomBenchmark {
+
+    @Benchmark
+    public RoomBookingSuccessDTO bookRoom(HotelBenchmarkState state){
+        ThreadLocalRandom random=ThreadLocalRandom.current();
+        BookRoomRequestDTO request=new BookRoomRequestDTO("Benchmark Guest "+state.customerSequence.incrementAndGet(),
+                List.of(new RoomDTO(randomRoomType(random),1),new RoomDTO(randomRoomType(random),2)));
+        return state.bookRoomService.bookRoom(request);
+    }
+
+    @Benchmark
+    public RoomBookingSuccessDTO bookRoomForStay(HotelBenchmarkState state){
+        ThreadLocalRandom random=ThreadLocalRandom.current();
+        BookRoomRequestDTO request=new BookRoomRequestDTO("Benchmark Guest "+state.customerSequence.incrementAndGet(),
+                List.of(new RoomDTO(randomRoomType(random),1)));
+        LocalDate checkInDate=LocalDate.now().plusDays(random.nextInt(300));
+        request.setCheckInDate(checkInDate);
+        request.setCheckOutDate(checkInDate.plusDays(1+random.nextInt(14)));
+        return state.bookRoomService.bookRoom(request);
+    }
+
+    private String randomRoomType(ThreadLocalRandom random){
+        return HotelBenchmarkState.roomType(1+random.nextInt(HotelBenchmarkState.ROOM_TYPES));
+    }
+}
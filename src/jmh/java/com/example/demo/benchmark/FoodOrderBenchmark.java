@@ -0,0 +1,44 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.response_dto.FoodOrderAcceptedDTO;
+import com.example.demo.models.Food;
+import com.example.demo.models.FoodOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.example.demo.service.FoodOrderService#saveFood} for orders of three random items
+ * out of {@value HotelBenchmarkState#MENU_ITEMS} menu items.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+public class FoodOrderBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Benchmark
+    public FoodOrderAcceptedDTO saveFood(HotelBenchmarkState state){
+        ThreadLocalRandom random=ThreadLocalRandom.current();
+        List<Food> foods=new ArrayList<>();
+        for(int i=0;i<ITEMS_PER_ORDER;i++){
+            String itemName=HotelBenchmarkState.menuItem(1+random.nextInt(HotelBenchmarkState.MENU_ITEMS));
+            foods.add(new Food(null,itemName,1L+random.nextInt(3)));
+        }
+        return state.foodOrderService.saveFood(new FoodOrder(foods,"Benchmark Diner "+state.customerSequence.incrementAndGet(),null));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.HotelManagementApplication;
+import com.example.demo.exception_handler.GlobalExceptionHandler;
+import com.example.demo.models.NameNormalizer;
+import com.example.demo.service.BillService;
+import com.example.demo.service.BookRoomService;
+import com.example.demo.service.FoodOrderService;
+import com.example.demo.service.MenuService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the application against an embedded H2 database seeded with production-sized data and
+ * exposes the services measured by the benchmarks.
+ * <p>
+ * Rows are inserted with JDBC batches instead of through the services, so that seeding the million
+ * bills takes seconds and does not warm up the code paths being measured.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class HotelBenchmarkState {
+
+    public static final int ROOM_TYPES = 1_000;
+
+    public static final int MENU_ITEMS = 5_000;
+
+    public static final int BILLS = 1_000_000;
+
+    // Number of the seeded bills that belong to a room booking and to a food order
+    public static final int BOOKINGS = 10_000;
+
+    public static final int FOOD_ORDERS = 10_000;
+
+    // Rooms and menu items are seeded with enough stock that the benchmarks never run out
+    private static final int STOCK = 100_000_000;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    public BookRoomService bookRoomService;
+
+    public FoodOrderService foodOrderService;
+
+    public BillService billService;
+
+    public MenuService menuService;
+
+    public GlobalExceptionHandler exceptionHandler;
+
+    // Suffix making the customer name of every booking and order unique
+    public final AtomicLong customerSequence=new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        context=new SpringApplicationBuilder(HotelManagementApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--hotel.billing.journal-file=target/benchmark-billing-journal.log",
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        bookRoomService=context.getBean(BookRoomService.class);
+        foodOrderService=context.getBean(FoodOrderService.class);
+        billService=context.getBean(BillService.class);
+        menuService=context.getBean(MenuService.class);
+        exceptionHandler=context.getBean(GlobalExceptionHandler.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        context.close();
+    }
+
+    public static String roomType(int index){
+        return "Room Type "+index;
+    }
+
+    public static String menuItem(int index){
+        return "Menu Item "+index;
+    }
+
+    public static String bookingCustomer(int index){
+        return "Guest "+index;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate){
+        List<Object[]> rows=new ArrayList<>();
+        for(int i=1;i<=ROOM_TYPES;i++){
+            rows.add(new Object[]{i,roomType(i),true,1000+i%500,STOCK,STOCK});
+        }
+        insert(jdbcTemplate,"insert into room(id,type,available,price,available_count,total_count,version) values (?,?,?,?,?,?,0)",rows);
+        for(int i=1;i<=MENU_ITEMS;i++){
+            rows.add(new Object[]{i,menuItem(i),20+i%200,true,STOCK});
+        }
+        insert(jdbcTemplate,"insert into menu(id,item_name,price,available,available_count,version) values (?,?,?,?,?,0)",rows);
+        Timestamp now=Timestamp.valueOf(LocalDateTime.now());
+        //the first bills belong to the seeded bookings, the next ones to the seeded food orders
+        String insertBill="insert into bill(id,date,total_amount,source_type,source_id) values (?,?,?,?,?)";
+        for(int i=1;i<=BILLS;i++){
+            String sourceType=i<=BOOKINGS?"BOOK_ROOM":i<=BOOKINGS+FOOD_ORDERS?"FOOD_ORDER":null;
+            Integer sourceId=i<=BOOKINGS?Integer.valueOf(i):i<=BOOKINGS+FOOD_ORDERS?Integer.valueOf(i-BOOKINGS):null;
+            rows.add(new Object[]{i,now,100.0+i%5000,sourceType,sourceId});
+            if(rows.size()==BATCH_SIZE){
+                insert(jdbcTemplate,insertBill,rows);
+            }
+        }
+        insert(jdbcTemplate,insertBill,rows);
+        for(int i=1;i<=BOOKINGS;i++){
+            rows.add(new Object[]{i,bookingCustomer(i),NameNormalizer.normalize(bookingCustomer(i)),now,i});
+        }
+        insert(jdbcTemplate,"insert into book_room(id,customer_name,normalized_name,booking_date,room_bill_id) values (?,?,?,?,?)",rows);
+        for(int i=1;i<=FOOD_ORDERS;i++){
+            rows.add(new Object[]{i,"Diner "+i,NameNormalizer.normalize("Diner "+i),now,BOOKINGS+i});
+        }
+        insert(jdbcTemplate,"insert into food_order(id,customer_name,normalized_name,order_date,bill_id) values (?,?,?,?,?)",rows);
+        //move the id sequences past the seeded rows so that the services can insert new ones,
+        //a pooled-lo sequence value is the first id of the block of ids handed out by the next sequence call
+        restartSequence(jdbcTemplate,"room_seq",ROOM_TYPES);
+        restartSequence(jdbcTemplate,"menu_seq",MENU_ITEMS);
+        restartSequence(jdbcTemplate,"bill_seq",BILLS);
+        restartSequence(jdbcTemplate,"book_room_seq",BOOKINGS);
+        restartSequence(jdbcTemplate,"food_order_seq",FOOD_ORDERS);
+    }
+
+    private void insert(JdbcTemplate jdbcTemplate,String sql,List<Object[]> rows){
+        jdbcTemplate.batchUpdate(sql,rows);
+        rows.clear();
+    }
+
+    private void restartSequence(JdbcTemplate jdbcTemplate,String sequence,int seededRows){
+        jdbcTemplate.execute("alter sequence "+sequence+" restart with "+(seededRows+1));
+    }
+}
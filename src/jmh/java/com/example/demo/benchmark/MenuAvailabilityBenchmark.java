@@ -0,0 +1,33 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.response_dto.MenuAvailabilityDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link com.example.demo.service.MenuService#checkMenuAvailability} for random items
+ * out of {@value HotelBenchmarkState#MENU_ITEMS} menu items.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+public class MenuAvailabilityBenchmark {
+
+    @Benchmark
+    public MenuAvailabilityDTO checkMenuAvailability(HotelBenchmarkState state){
+        String itemName=HotelBenchmarkState.menuItem(1+ThreadLocalRandom.current().nextInt(HotelBenchmarkState.MENU_ITEMS));
+        return state.menuService.checkMenuAvailability(itemName);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.request_dto.BookRoomRequestDTO;
+import com.example.demo.dto.response_dto.ExceptionDTO;
+import com.example.demo.dto.response_dto.RoomDTO;
+import com.example.demo.exception_handler.book_room_exceptions.RoomNotAvailableException;
+import com.example.demo.exception_handler.food_exceptions.FoodItemNotAvailableException;
+import com.example.demo.exception_handler.menu_exceptions.MenuNotFoundException;
+import com.example.demo.models.Food;
+import com.example.demo.models.FoodOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rejection path of a sell-out rush, from the rejected booking or order to the error response built
+ * by the {@link com.example.demo.exception_handler.GlobalExceptionHandler}. Every request asks for more than the
+ * seeded stock, so nothing is ever booked or ordered.
+ * <p>
+ * {@code rejectMenuLookup} and {@code rejectMenuLookupWithStackTrace} isolate the cost of the exception and its
+ * body, once with the stackless domain exception and its cached body and once the way every rejection was
+ * answered before, with a stack trace and a new body per call. The stack trace is only as deep as the benchmark
+ * method here, below a servlet request it is several times deeper and costs accordingly more.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+public class RejectionBenchmark {
+
+    // More rooms or portions than any room type or menu item was seeded with
+    private static final int SOLD_OUT_COUNT = Integer.MAX_VALUE;
+
+    private static final String MENU_NOT_FOUND = "Menu Not Found";
+
+    @Benchmark
+    public ResponseEntity<Object> rejectSoldOutBooking(HotelBenchmarkState state){
+        BookRoomRequestDTO request=new BookRoomRequestDTO("Benchmark Guest",
+                List.of(new RoomDTO(randomRoomType(ThreadLocalRandom.current()),SOLD_OUT_COUNT)));
+        try{
+            state.bookRoomService.bookRoom(request);
+            throw new IllegalStateException("The booking was not rejected");
+        }catch (RoomNotAvailableException e){
+            return state.exceptionHandler.handleRoomNotAvailableException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> rejectOutOfStockOrder(HotelBenchmarkState state){
+        String itemName=HotelBenchmarkState.menuItem(1+ThreadLocalRandom.current().nextInt(HotelBenchmarkState.MENU_ITEMS));
+        FoodOrder foodOrder=new FoodOrder(List.of(new Food(null,itemName,(long) SOLD_OUT_COUNT)),"Benchmark Diner",null);
+        try{
+            state.foodOrderService.saveFood(foodOrder);
+            throw new IllegalStateException("The order was not rejected");
+        }catch (FoodItemNotAvailableException e){
+            return state.exceptionHandler.handleFoodItemNotAvailableException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> rejectMenuLookup(HotelBenchmarkState state){
+        try{
+            throw new MenuNotFoundException(MENU_NOT_FOUND);
+        }catch (MenuNotFoundException e){
+            return state.exceptionHandler.handleMenuNotFoundException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> rejectMenuLookupWithStackTrace(){
+        try{
+            throw new RuntimeException(MENU_NOT_FOUND);
+        }catch (RuntimeException e){
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+        }
+    }
+
+    private String randomRoomType(ThreadLocalRandom random){
+        return HotelBenchmarkState.roomType(1+random.nextInt(HotelBenchmarkState.ROOM_TYPES));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.HotelManagementApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends bursts of concurrent requests to a bill endpoint doing blocking JPA I/O, once with requests served by
+ * the Tomcat worker pool and once on virtual threads, both behind the database admission gate.
+ * <p>
+ * Virtual threads need Java 21, on Java 17 {@code spring.threads.virtual.enabled} is ignored and both runs use
+ * the worker pool. Run with {@code mvn -Pbenchmark,jdk21 test-compile exec:exec -Djmh.args=RequestLoadBenchmark}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RequestLoadBenchmark {
+
+    private static final int BILLS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class LoadState {
+
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        // Number of requests in flight at the same time, well above the 200 Tomcat workers
+        @Param("2000")
+        public int concurrentRequests;
+
+        private ConfigurableApplicationContext context;
+
+        private HttpClient httpClient;
+
+        private HttpRequest request;
+
+        @Setup(Level.Trial)
+        public void setUp(){
+            context=new SpringApplicationBuilder(HotelManagementApplication.class)
+                    .run("--server.port=0",
+                            "--spring.threads.virtual.enabled="+virtualThreads,
+                            "--hotel.admission.wait-ms=60000",
+                            "--hotel.billing.journal-file=target/load-billing-journal.log",
+                            "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                            "--spring.datasource.driver-class-name=org.h2.Driver",
+                            "--spring.datasource.username=sa",
+                            "--spring.datasource.password=",
+                            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                            "--spring.jpa.hibernate.ddl-auto=create-drop",
+                            "--logging.level.root=WARN");
+            seed(context.getBean(JdbcTemplate.class));
+            int port=((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            httpClient=HttpClient.newHttpClient();
+            request=HttpRequest.newBuilder(URI.create("http://localhost:"+port+"/bills/page?size=20"))
+                    .header("Authorization","Basic "+Base64.getEncoder().encodeToString("user:password".getBytes(StandardCharsets.UTF_8)))
+                    .GET()
+                    .build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown(){
+            context.close();
+        }
+
+        private void seed(JdbcTemplate jdbcTemplate){
+            Timestamp now=Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows=new ArrayList<>();
+            for(int i=1;i<=BILLS;i++){
+                rows.add(new Object[]{i,now,100.0+i});
+            }
+            jdbcTemplate.batchUpdate("insert into bill(id,date,total_amount) values (?,?,?)",rows);
+        }
+    }
+
+    @Benchmark
+    public int concurrentBillPages(LoadState state){
+        List<CompletableFuture<HttpResponse<Void>>> responses=new ArrayList<>(state.concurrentRequests);
+        for(int i=0;i<state.concurrentRequests;i++){
+            responses.add(state.httpClient.sendAsync(state.request,HttpResponse.BodyHandlers.discarding()));
+        }
+        int succeeded=0;
+        for(CompletableFuture<HttpResponse<Void>> response:responses){
+            if(response.join().statusCode()==200){
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+}
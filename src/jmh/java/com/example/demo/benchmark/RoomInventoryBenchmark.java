@@ -0,0 +1,63 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.models.Room;
+import com.example.demo.service.RoomInventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link RoomInventoryService#tryReserve} when 32 threads book the same two
+ * room types, the contention the in-memory inventory was built for. Every reservation is released again
+ * so that the stock never runs out. No Spring context or database is involved.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(32)
+public class RoomInventoryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class InventoryState {
+
+        private RoomInventoryService roomInventoryService;
+
+        private Room deluxe;
+
+        private Room suite;
+
+        @Setup(Level.Trial)
+        public void setUp(){
+            roomInventoryService=new RoomInventoryService();
+            deluxe=new Room(1L,"Deluxe",true,2000,5000);
+            suite=new Room(2L,"Suite",true,5000,2000);
+        }
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease(InventoryState state){
+        ThreadLocalRandom random=ThreadLocalRandom.current();
+        int deluxeCount=random.nextInt(1,4);
+        int suiteCount=random.nextInt(1,3);
+        boolean reserved=state.roomInventoryService.tryReserve(Map.of(state.deluxe,deluxeCount,state.suite,suiteCount));
+        if(reserved){
+            state.roomInventoryService.release(Map.of("Deluxe",deluxeCount,"Suite",suiteCount));
+        }
+        return reserved;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo;
+
+import com.example.demo.dto.response_dto.ExceptionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission gate in front of the controllers that lets at most {@code hotel.admission.max-concurrent} requests
+ * use the database at the same time, by default as many as the connection pool holds.
+ * <p>
+ * Requests beyond that wait for a permit instead of for a pooled connection. With virtual threads enabled a
+ * waiting request only parks its virtual thread, so thousands of requests can be in flight while the pool stays
+ * at its size. A request that gets no permit within {@code hotel.admission.wait-ms} is rejected with
+ * 503 SERVICE UNAVAILABLE and a {@code Retry-After} header. Handlers marked with {@link SkipDbAdmission}, which
+ * answer from memory, are not gated. A request whose body is written asynchronously, such as a streamed export,
+ * keeps its permit until the asynchronous processing completes, since it keeps its connection until then.
+ * </p>
+ */
+@Component
+public class DbAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    // Seconds a rejected client is asked to wait before retrying
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    // Body of every rejected request
+    private static final ExceptionDTO BUSY_BODY = new ExceptionDTO("Server is busy, Please try again later");
+
+    // Request attribute holding whether the permit of an admitted request is still held
+    private static final String PERMIT_ATTRIBUTE = DbAdmissionInterceptor.class.getName()+".PERMIT";
+
+    // Maximum time a request waits for a permit before it is rejected
+    @Value("${hotel.admission.wait-ms:2000}")
+    private long waitMs;
+
+    // Writes the body of rejected requests
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Permits of the requests currently using the database
+    private final Semaphore permits;
+
+    private final int maxConcurrent;
+
+    // Number of requests rejected because no permit became free in time
+    private final LongAdder rejections=new LongAdder();
+
+    public DbAdmissionInterceptor(@Value("${hotel.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent){
+        this.maxConcurrent=maxConcurrent;
+        this.permits=new Semaphore(maxConcurrent,true);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        //an asynchronous dispatch still holds the permit taken by its request
+        if(request.getDispatcherType()!=DispatcherType.REQUEST||!usesDatabase(handler)){
+            return true;
+        }
+        boolean admitted;
+        try{
+            admitted=permits.tryAcquire(waitMs,TimeUnit.MILLISECONDS);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            admitted=false;
+        }
+        if(!admitted){
+            rejections.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After",RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),BUSY_BODY);
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE,new AtomicBoolean(true));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AtomicBoolean permit=(AtomicBoolean) request.getAttribute(PERMIT_ATTRIBUTE);
+        if(permit==null){
+            return;
+        }
+        //released once the asynchronous processing completes, whether or not it is dispatched back
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                release(permit);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                release(permit);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        AtomicBoolean permit=(AtomicBoolean) request.getAttribute(PERMIT_ATTRIBUTE);
+        if(permit!=null){
+            release(permit);
+        }
+    }
+
+    private void release(AtomicBoolean permit){
+        if(permit.compareAndSet(true,false)){
+            permits.release();
+        }
+    }
+
+    private boolean usesDatabase(Object handler){
+        return handler instanceof HandlerMethod handlerMethod
+                &&!handlerMethod.hasMethodAnnotation(SkipDbAdmission.class)
+                &&!handlerMethod.getBeanType().isAnnotationPresent(SkipDbAdmission.class);
+    }
+
+    /**
+     * Returns the number of requests currently admitted to the database.
+     *
+     * @return the in-flight count.
+     */
+    public int getInFlightCount(){
+        return maxConcurrent-permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of requests rejected because no permit became free in time.
+     *
+     * @return the rejection count.
+     */
+    public long getRejectionCount(){
+        return rejections.sum();
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.demo;
+
+import com.example.demo.metrics.QueryCountInspector;
+import com.example.demo.service.AvailabilityStreamService;
+import com.example.demo.service.BillingJournal;
+import com.example.demo.service.BillingService;
+import com.example.demo.service.MenuIndexService;
+import com.example.demo.service.OptimisticRetryService;
+import com.example.demo.service.RoomInventoryService;
+import com.example.demo.service.RoomLedgerService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Registers the statement inspector counting the SQL statements of every request with Hibernate.
+     *
+     * @return A customizer adding the {@link QueryCountInspector} to the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+
+    /**
+     * Exposes the hit and miss counts of the menu index and the contention counters of the room inventory
+     * and the nightly room ledger. The counters are read from the services when the metrics are scraped,
+     * so recording them costs the services a single {@code LongAdder} increment.
+     *
+     * @param menuIndexService The menu index.
+     * @param roomInventoryService The room inventory.
+     * @param roomLedgerService The nightly room ledger.
+     * @return A binder registering the counters with the meter registry.
+     */
+    @Bean
+    public MeterBinder hotelCacheAndContentionMetrics(MenuIndexService menuIndexService,
+                                                      RoomInventoryService roomInventoryService,
+                                                      RoomLedgerService roomLedgerService) {
+        return registry -> {
+            FunctionCounter.builder("hotel.cache.lookups", menuIndexService, MenuIndexService::getHitCount)
+                    .description("Lookups served by an in-memory cache")
+                    .tag("cache", "menu_index").tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("hotel.cache.lookups", menuIndexService, MenuIndexService::getMissCount)
+                    .description("Lookups served by an in-memory cache")
+                    .tag("cache", "menu_index").tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("hotel.cache.hit.ratio", menuIndexService, MetricsConfig::hitRatio)
+                    .description("Share of lookups that found an entry since startup")
+                    .tag("cache", "menu_index")
+                    .register(registry);
+            FunctionCounter.builder("hotel.inventory.cas.retries", roomInventoryService, RoomInventoryService::getCasRetryCount)
+                    .description("Room reservations retried because of a concurrent reservation of the same room type")
+                    .register(registry);
+            FunctionCounter.builder("hotel.inventory.rejections", roomInventoryService, RoomInventoryService::getRejectionCount)
+                    .description("Room reservations rejected because not enough rooms were left")
+                    .register(registry);
+            FunctionCounter.builder("hotel.ledger.lock.contentions", roomLedgerService, RoomLedgerService::getLockContentionCount)
+                    .description("Room ledger lock requests that had to wait for another booking")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Exposes the number of requests currently admitted to the database by the {@link DbAdmissionInterceptor}
+     * and the number of requests it rejected.
+     *
+     * @param dbAdmissionInterceptor The admission gate in front of the controllers.
+     * @return A binder registering the gauge and the counter with the meter registry.
+     */
+    @Bean
+    public MeterBinder admissionMetrics(DbAdmissionInterceptor dbAdmissionInterceptor) {
+        return registry -> {
+            Gauge.builder("hotel.admission.in.flight", dbAdmissionInterceptor, DbAdmissionInterceptor::getInFlightCount)
+                    .description("Requests currently admitted to the database")
+                    .register(registry);
+            FunctionCounter.builder("hotel.admission.rejections", dbAdmissionInterceptor, DbAdmissionInterceptor::getRejectionCount)
+                    .description("Requests rejected because the database was busy for too long")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Exposes the number of bills recorded by bookings and food orders that are not written yet, the number of
+     * bills parked because they could not be written, and the number of group commits of the billing journal.
+     *
+     * @param billingService The write-behind billing stage.
+     * @param billingJournal The journal of the billing stage.
+     * @return A binder registering the gauges and the counter with the meter registry.
+     */
+    @Bean
+    public MeterBinder billingMetrics(BillingService billingService, BillingJournal billingJournal) {
+        return registry -> {
+            Gauge.builder("hotel.billing.pending", billingService, BillingService::getPendingCount)
+                    .description("Bills waiting to be written by the billing stage")
+                    .register(registry);
+            Gauge.builder("hotel.billing.parked", billingService, BillingService::getParkedCount)
+                    .description("Bills that could not be written while the rest of their batch was")
+                    .register(registry);
+            FunctionCounter.builder("hotel.billing.journal.batches", billingJournal, BillingJournal::getBatchWriteCount)
+                    .description("Batches of billing events written to the journal with a single fsync")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Exposes how often room and menu updates lost against a concurrent write, were retried and were given up.
+     *
+     * @param optimisticRetryService The retry policy of versioned updates.
+     * @return A binder registering the counters with the meter registry.
+     */
+    @Bean
+    public MeterBinder optimisticLockingMetrics(OptimisticRetryService optimisticRetryService) {
+        return registry -> {
+            FunctionCounter.builder("hotel.optimistic.conflicts", optimisticRetryService, OptimisticRetryService::getConflictCount)
+                    .description("Updates that lost against a concurrent write of the same row")
+                    .register(registry);
+            FunctionCounter.builder("hotel.optimistic.retries", optimisticRetryService, OptimisticRetryService::getRetryCount)
+                    .description("Updates started again after a conflict")
+                    .register(registry);
+            FunctionCounter.builder("hotel.optimistic.exhausted", optimisticRetryService, OptimisticRetryService::getExhaustedCount)
+                    .description("Updates given up after every attempt conflicted")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Exposes the number of screens subscribed to availability changes and how many were dropped for falling behind.
+     *
+     * @param availabilityStreamService The availability change stream.
+     * @return A binder registering the gauge and counter with the meter registry.
+     */
+    @Bean
+    public MeterBinder availabilityStreamMetrics(AvailabilityStreamService availabilityStreamService) {
+        return registry -> {
+            Gauge.builder("hotel.availability.stream.subscribers", availabilityStreamService, AvailabilityStreamService::getSubscriberCount)
+                    .description("Screens subscribed to availability changes")
+                    .register(registry);
+            FunctionCounter.builder("hotel.availability.stream.overflows", availabilityStreamService, AvailabilityStreamService::getOverflowCount)
+                    .description("Subscribers disconnected because their buffer of changes overflowed")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Exposes the hit and miss counts of the second-level cache regions of rooms and menu items and of the
+     * query cache, read from the Hibernate statistics when the metrics are scraped. Nothing is registered
+     * when the second-level cache is disabled.
+     *
+     * @param entityManagerFactory The entity manager factory owning the cache.
+     * @return A binder registering the counters with the meter registry.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        return registry -> {
+            if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+                return;
+            }
+            for (String region : List.of("room", "menu")) {
+                CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+                registerLookups(registry, region, regionStatistics, CacheRegionStatistics::getHitCount, CacheRegionStatistics::getMissCount);
+            }
+            registerLookups(registry, "query", statistics, Statistics::getQueryCacheHitCount, Statistics::getQueryCacheMissCount);
+        };
+    }
+
+    private static <T> void registerLookups(MeterRegistry registry, String cache, T source,
+                                            ToLongFunction<T> hits, ToLongFunction<T> misses) {
+        FunctionCounter.builder("hotel.cache.lookups", source, value -> hits.applyAsLong(value))
+                .description("Lookups served by an in-memory cache")
+                .tag("cache", cache).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hotel.cache.lookups", source, value -> misses.applyAsLong(value))
+                .description("Lookups served by an in-memory cache")
+                .tag("cache", cache).tag("result", "miss")
+                .register(registry);
+    }
+
+    private static double hitRatio(MenuIndexService menuIndexService) {
+        long hits = menuIndexService.getHitCount();
+        long lookups = hits + menuIndexService.getMissCount();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
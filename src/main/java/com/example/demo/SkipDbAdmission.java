@@ -0,0 +1,15 @@
+package com.example.demo;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method, or every method of a controller, that answers without using the database,
+ * so that the {@link DbAdmissionInterceptor} lets it through without a permit.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SkipDbAdmission {
+}
@@ -0,0 +1,25 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    // Admission gate in front of the controllers using the database
+    @Autowired
+    private DbAdmissionInterceptor dbAdmissionInterceptor;
+
+
+    /**
+     * Registers the admission gate for the controllers, actuator endpoints are not gated.
+     *
+     * @param registry The registry of the handler interceptors.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(dbAdmissionInterceptor).excludePathPatterns("/actuator/**");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.response_dto.DailyRevenueDTO;
+import com.example.demo.dto.response_dto.ItemSalesDTO;
+import com.example.demo.dto.response_dto.RoomOccupancyDTO;
+import com.example.demo.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+
+    // Injects the AnalyticsService to read the revenue rollups and the room ledger
+    @Autowired
+    private AnalyticsService analyticsService;
+
+
+    /**
+     * Retrieves the revenue of every day with bills, split by room bookings and food orders.
+     * @param from The first day, 30 days before the last day by default.
+     * @param to The last day, today by default.
+     * @return ResponseEntity containing the revenue of each day.
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<DailyRevenueDTO>> getDailyRevenue(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return ResponseEntity.ok(analyticsService.getDailyRevenue(from,to));
+    }
+
+    /**
+     * Retrieves the rooms booked and their revenue per day and room type.
+     * @param from The first day, 30 days before the last day by default.
+     * @param to The last day, today by default.
+     * @return ResponseEntity containing the sales of each room type and day.
+     */
+    @GetMapping("/rooms")
+    public ResponseEntity<List<ItemSalesDTO>> getRoomTypeSales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return ResponseEntity.ok(analyticsService.getRoomTypeSales(from,to));
+    }
+
+    /**
+     * Retrieves the menu items ordered and their revenue per day and menu item.
+     * @param from The first day, 30 days before the last day by default.
+     * @param to The last day, today by default.
+     * @return ResponseEntity containing the sales of each menu item and day.
+     */
+    @GetMapping("/menu")
+    public ResponseEntity<List<ItemSalesDTO>> getMenuItemSales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return ResponseEntity.ok(analyticsService.getMenuItemSales(from,to));
+    }
+
+    /**
+     * Retrieves the share of booked rooms per night and room type.
+     * @param from The first night, 30 days before the last night by default.
+     * @param to The last night, today by default.
+     * @return ResponseEntity containing the occupancy of each room type and night.
+     */
+    @GetMapping("/occupancy")
+    public ResponseEntity<List<RoomOccupancyDTO>> getOccupancy(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return ResponseEntity.ok(analyticsService.getOccupancy(from,to));
+    }
+}
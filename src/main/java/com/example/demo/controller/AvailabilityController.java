@@ -0,0 +1,32 @@
+package com.example.demo.controller;
+
+import com.example.demo.SkipDbAdmission;
+import com.example.demo.service.AvailabilityStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/availability")
+public class AvailabilityController {
+
+
+    // Injects the AvailabilityStreamService to push availability changes to connected screens
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
+
+
+    /**
+     * Subscribes to changes of room and menu availability as server-sent events named "room" or "menu".
+     * The current availability is read from /rooms/availability and /menu first, the stream only sends changes.
+     * @return The emitter sending the changes to the client.
+     */
+    @SkipDbAdmission
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(){
+        return availabilityStreamService.subscribe();
+    }
+}
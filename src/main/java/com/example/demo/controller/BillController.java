@@ -13,6 +13,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.example.demo.dto.response_dto.BillSummaryDTO;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.dto.response_dto.GuestFolioDTO;
+import com.example.demo.service.NdjsonStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.demo.models.Bill;
 import com.example.demo.service.BillService;
@@ -28,11 +35,36 @@ public class BillController {
 
     /**
      * Retrieves all bills.
-     * @return List of all Bill objects.
+     * @return List of all BillSummaryDTO objects.
      */
     @GetMapping
-    public List<Bill> getAllBills() {
-        return billService.findAllBills(); 
+    public List<BillSummaryDTO> getAllBills() {
+        return billService.findAllBillSummaries();
+    }
+
+
+    /**
+     * Retrieves one page of bills ordered by id.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of bills per page.
+     * @return ResponseEntity containing the page and the cursor of the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<Bill>> getBillPage(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(billService.findBillPage(cursor,size));
+    }
+
+
+    /**
+     * Streams all bills as newline-delimited JSON, one bill per line.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllBills() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonStreamService.NDJSON))
+                .body(billService.streamAllBills());
     }
 
 
@@ -118,6 +150,17 @@ public class BillController {
         return ResponseEntity.ok(bill);
     }
 
+    /**
+     * Retrieves the folio of a guest with the number and total of their room and food bills.
+     * @param name The name of the customer.
+     * @return The GuestFolioDTO with the totals computed by the database.
+     */
+    @GetMapping("/folio/customer_name/{name}")
+    public ResponseEntity<Object> getGuestFolioByCustomerName(@PathVariable String name){
+        GuestFolioDTO folio=billService.getGuestFolioByCustomerName(name);
+        return ResponseEntity.ok(folio);
+    }
+
     /**
      * Retrieves a booked room bill by the customer's name.
      * @param name The name of the customer.
@@ -129,4 +172,33 @@ public class BillController {
          return ResponseEntity.ok(bill);
     }
 
+    /**
+     * Searches the bills of food orders by the beginning of the customer name, ignoring case.
+     * @param name The prefix of the customer name.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of food order bills per page.
+     * @return ResponseEntity containing the page of matching food order bills and the cursor of the next page.
+     */
+    @GetMapping("/food_order/search")
+    public ResponseEntity<CursorPageDTO<Bill>> searchFoodOrderBills(@RequestParam String name,
+                                                              @RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(billService.searchFoodOrderBillsByCustomerName(name,cursor,size));
+    }
+
+
+    /**
+     * Searches the bills of booked rooms by the beginning of the customer name, ignoring case.
+     * @param name The prefix of the customer name.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of booked room bills per page.
+     * @return ResponseEntity containing the page of matching booked room bills and the cursor of the next page.
+     */
+    @GetMapping("/book_room/search")
+    public ResponseEntity<CursorPageDTO<Bill>> searchBookedRoomBills(@RequestParam String name,
+                                                              @RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(billService.searchBookedRoomBillsByCustomerName(name,cursor,size));
+    }
+
 }
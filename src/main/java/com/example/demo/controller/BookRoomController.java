@@ -1,12 +1,21 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.request_dto.BookRoomRequestDTO;
+import com.example.demo.dto.response_dto.BookedRoomSummaryDTO;
 import com.example.demo.dto.response_dto.RoomBookingSuccessDTO;
+import com.example.demo.dto.response_dto.RoomRangeAvailabilityDTO;
 import com.example.demo.models.BookRoom;
 import com.example.demo.service.BookRoomService;
+import com.example.demo.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.service.NdjsonStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,19 +27,63 @@ public class BookRoomController {
     @Autowired
     private BookRoomService bookRoomService;
 
+    // Injects the IdempotencyService to answer retried bookings with their original response
+    @Autowired
+    private IdempotencyService idempotencyService;
+
 
 
     /**
      * Retrieves all booked rooms.
-     * @return ResponseEntity containing a list of all BookRoom objects.
+     * @return ResponseEntity containing a list of all BookedRoomSummaryDTO objects.
      */
     @GetMapping
-    public ResponseEntity<List<BookRoom>> getAllBookedRooms(){
-        List<BookRoom> bookedRooms=bookRoomService.getAllBookedRooms();
+    public ResponseEntity<List<BookedRoomSummaryDTO>> getAllBookedRooms(){
+        List<BookedRoomSummaryDTO> bookedRooms=bookRoomService.getAllBookedRoomSummaries();
         return ResponseEntity.ok(bookedRooms);
     }
 
 
+    /**
+     * Retrieves one page of booked room summaries ordered by id.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of booked rooms per page.
+     * @return ResponseEntity containing the page and the cursor of the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<BookedRoomSummaryDTO>> getBookedRoomPage(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(bookRoomService.getBookedRoomPage(cursor,size));
+    }
+
+
+    /**
+     * Searches booked rooms by the beginning of the customer name, ignoring case.
+     * @param name The prefix of the customer name.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of booked rooms per page.
+     * @return ResponseEntity containing the page of matching booked rooms and the cursor of the next page.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<BookedRoomSummaryDTO>> searchBookedRooms(@RequestParam String name,
+                                                              @RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(bookRoomService.searchBookedRoomsByCustomerName(name,cursor,size));
+    }
+
+
+    /**
+     * Streams the summaries of all booked rooms as newline-delimited JSON, one booked room summary per line.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllBookedRooms() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonStreamService.NDJSON))
+                .body(bookRoomService.streamAllBookedRooms());
+    }
+
+
     /**
      * Retrieves a booked room by its ID.
      * @param id The ID of the booked room.
@@ -55,14 +108,35 @@ public class BookRoomController {
 
     }
 
+    /**
+     * Checks how many rooms of a type can be booked for a stay.
+     * @param roomType The type of the room.
+     * @param roomCount The number of rooms the customer wants to book.
+     * @param checkInDate The first night of the stay.
+     * @param checkOutDate The day the guest leaves.
+     * @return ResponseEntity containing the availability of the room type for every night of the stay.
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<Object> getRoomAvailability(@RequestParam String roomType,
+                                                      @RequestParam(required = false) Integer roomCount,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInDate,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOutDate){
+        RoomRangeAvailabilityDTO availabilityDTO=bookRoomService.checkRoomAvailability(roomType,roomCount,checkInDate,checkOutDate);
+        return ResponseEntity.ok(availabilityDTO);
+    }
+
     /**
      * Books a new room.
+     * A retry sent with the same Idempotency-Key header gets the original booking back without booking again,
+     * the same key sent with a different booking is rejected with 422 UNPROCESSABLE ENTITY.
      * @param roomRequestDTO The BookRoom object containing the booking details.
+     * @param idempotencyKey Optional key identifying retries of the same booking.
      * @return ResponseEntity containing the booked room details.
      */
     @PostMapping
-    public ResponseEntity<Object> bookRoom(@RequestBody BookRoomRequestDTO roomRequestDTO){
-        RoomBookingSuccessDTO successDTO=bookRoomService.bookRoom(roomRequestDTO);
+    public ResponseEntity<Object> bookRoom(@RequestBody BookRoomRequestDTO roomRequestDTO,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        RoomBookingSuccessDTO successDTO=idempotencyService.execute("book_room",idempotencyKey,roomRequestDTO,()->bookRoomService.bookRoom(roomRequestDTO));
         return ResponseEntity.ok(successDTO);
     }
 }
@@ -8,6 +8,11 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.service.NdjsonStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/complaints")
@@ -26,6 +31,31 @@ public class ComplaintController {
        return complaintService.findAllComplaints();
     }
 
+
+    /**
+     * Retrieves one page of complaints ordered by id.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of complaints per page.
+     * @return ResponseEntity containing the page and the cursor of the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<Complaint>> getComplaintPage(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(complaintService.findComplaintPage(cursor,size));
+    }
+
+
+    /**
+     * Streams all complaints as newline-delimited JSON, one complaint per line.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllComplaints() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonStreamService.NDJSON))
+                .body(complaintService.streamAllComplaints());
+    }
+
     /**
      * Retrieves a complaint by its ID.
      * @param id The ID of the complaint.
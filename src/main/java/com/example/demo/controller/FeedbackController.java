@@ -7,6 +7,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.service.NdjsonStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.demo.models.Feedback;
 import com.example.demo.service.FeedbackService;
@@ -31,6 +35,46 @@ public class FeedbackController {
     }
 
 
+    /**
+     * Retrieves one page of feedbacks ordered by id.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of feedbacks per page.
+     * @return ResponseEntity containing the page and the cursor of the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<Feedback>> getFeedbackPage(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(feedbackService.findFeedbackPage(cursor,size));
+    }
+
+
+    /**
+     * Searches feedbacks by the beginning of the name, ignoring case.
+     * @param name The prefix of the name.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of feedbacks per page.
+     * @return ResponseEntity containing the page of matching feedbacks and the cursor of the next page.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<Feedback>> searchFeedbacks(@RequestParam String name,
+                                                              @RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(feedbackService.searchFeedbacksByName(name,cursor,size));
+    }
+
+
+    /**
+     * Streams all feedbacks as newline-delimited JSON, one feedback per line.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllFeedbacks() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonStreamService.NDJSON))
+                .body(feedbackService.streamAllFeedbacks());
+    }
+
+
     /**
      * Creates a new feedback entry.
      * @param feedback The Feedback object to be created.
@@ -6,6 +6,7 @@ import java.util.Optional;
 import com.example.demo.dto.response_dto.FoodOrderAcceptedDTO;
 import com.example.demo.models.FoodOrder;
 import com.example.demo.service.FoodOrderService;
+import com.example.demo.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.http.HttpStatus;
@@ -15,8 +16,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.service.NdjsonStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @RestController
 @RequestMapping("/food_order")
@@ -26,6 +33,10 @@ public class FoodOrderController {
      @Autowired
     private FoodOrderService foodOrderService;
 
+    // Injects the IdempotencyService to answer retried orders with their original response
+    @Autowired
+    private IdempotencyService idempotencyService;
+
 
     /**
      * Retrieves a list of all food orders.
@@ -38,14 +49,58 @@ public class FoodOrderController {
     }
 
 
+    /**
+     * Retrieves one page of food orders ordered by id.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of food orders per page.
+     * @return ResponseEntity containing the page and the cursor of the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<FoodOrderAcceptedDTO>> getFoodOrderPage(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(foodOrderService.findFoodOrderPage(cursor,size));
+    }
+
+
+    /**
+     * Searches food orders by the beginning of the customer name, ignoring case.
+     * @param name The prefix of the customer name.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of food orders per page.
+     * @return ResponseEntity containing the page of matching food orders and the cursor of the next page.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<FoodOrderAcceptedDTO>> searchFoodOrders(@RequestParam String name,
+                                                              @RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(foodOrderService.searchFoodOrdersByCustomerName(name,cursor,size));
+    }
+
+
+    /**
+     * Streams all food orders as newline-delimited JSON, one food order per line.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllFoodOrders() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonStreamService.NDJSON))
+                .body(foodOrderService.streamAllFoodOrders());
+    }
+
+
     /**
      * Creates a new food order.
+     * A retry sent with the same Idempotency-Key header gets the original order back without ordering again,
+     * the same key sent with a different order is rejected with 422 UNPROCESSABLE ENTITY.
      * @param food The FoodOrder object to be created.
+     * @param idempotencyKey Optional key identifying retries of the same order.
      * @return The created FoodOrder object.
      */
     @PostMapping
-    public FoodOrderAcceptedDTO createFood(@RequestBody FoodOrder food) {
-        return foodOrderService.saveFood(food);
+    public FoodOrderAcceptedDTO createFood(@RequestBody FoodOrder food,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("food_order",idempotencyKey,food,()->foodOrderService.saveFood(food));
     }
 
 
@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.SkipDbAdmission;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -7,6 +8,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class HomeController {
    
+    @SkipDbAdmission
     @GetMapping("/")
     public String home(){
         return "{ 'key':'value' }";
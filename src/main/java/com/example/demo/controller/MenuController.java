@@ -4,10 +4,16 @@ import com.example.demo.dto.response_dto.MenuAvailabilityDTO;
 import com.example.demo.models.Menu;
 import com.example.demo.service.MenuService;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.example.demo.dto.response_dto.ImportReportDTO;
+import com.example.demo.service.CatalogTransferService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +26,10 @@ public class MenuController {
     @Autowired
     private MenuService menuService;
 
+    // Injects the CatalogTransferService to handle bulk imports and exports of menu items
+    @Autowired
+    private CatalogTransferService catalogTransferService;
+
 
     /**
      * Retrieves a specific menu item by its name.
@@ -77,9 +87,9 @@ public class MenuController {
 
     /**
      * Updates an existing menu item with a given ID.
-     * @param menu The updated Menu object.
+     * @param menu The fields of the menu item to change, optionally with the version of the menu item they are based on.
      * @param id The ID of the menu item to update.
-     * @return ResponseEntity containing the updated Menu object.
+     * @return ResponseEntity containing the updated Menu object, or 409 (CONFLICT) if the menu item was changed since it was read.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Menu> updateMenu(@RequestBody Menu menu,@PathVariable Long id){
@@ -87,5 +97,28 @@ public class MenuController {
             return ResponseEntity.ok(updatedMenu);
     }
 
+    /**
+     * Imports menu items in bulk from a CSV upload with a header row or from a JSON array.
+     * @param contentType The content type of the upload, text/csv or application/json.
+     * @param upload The uploaded rows, read while they are imported.
+     * @return ResponseEntity containing the import report listing every row that was not imported.
+     */
+    @PostMapping(value = "/import", consumes = {CatalogTransferService.CSV, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ImportReportDTO> importMenu(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream upload){
+            ImportReportDTO report=catalogTransferService.importMenu(upload,CatalogTransferService.Format.fromContentType(contentType));
+            return ResponseEntity.ok(report);
+    }
 
+    /**
+     * Exports all menu items in the format accepted by the import, streamed while they are read.
+     * @param format csv or json.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMenu(@RequestParam(defaultValue = "csv") String format){
+            CatalogTransferService.Format exportFormat=format.equalsIgnoreCase("json")?CatalogTransferService.Format.JSON:CatalogTransferService.Format.CSV;
+            return ResponseEntity.ok()
+                    .contentType(exportFormat==CatalogTransferService.Format.JSON?MediaType.APPLICATION_JSON:MediaType.parseMediaType(CatalogTransferService.CSV))
+                    .body(catalogTransferService.exportMenu(exportFormat));
+    }
 }
@@ -1,10 +1,22 @@
 package com.example.demo.controller;
+import com.example.demo.SkipDbAdmission;
+import com.example.demo.dto.response_dto.RoomSummaryDTO;
 import com.example.demo.models.Room;
+import java.io.InputStream;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.example.demo.dto.response_dto.ImportReportDTO;
+import com.example.demo.dto.response_dto.RoomAvailabilityDTO;
+import com.example.demo.exception_handler.room_exceptions.RoomNotFoundException;
+import com.example.demo.service.RoomAvailabilityViewService;
+import com.example.demo.service.CatalogTransferService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.demo.service.RoomService;
 
@@ -17,17 +29,62 @@ public class RoomController {
     @Autowired
     private RoomService roomService;
 
+    // Injects the RoomAvailabilityViewService serving the availability of room types from memory
+    @Autowired
+    private RoomAvailabilityViewService roomAvailabilityViewService;
+
+    // Injects the CatalogTransferService to handle bulk imports and exports of rooms
+    @Autowired
+    private CatalogTransferService catalogTransferService;
+
 
     /**
      * Retrieves a list of all rooms.
-     * @return ResponseEntity containing the list of all Room objects.
+     * @return ResponseEntity containing the list of all RoomSummaryDTO objects.
      */
     @GetMapping
-    public ResponseEntity<List<Room>> getAllRooms() {
-        List<Room> rooms=roomService.findAllRooms();
+    public ResponseEntity<List<RoomSummaryDTO>> getAllRooms() {
+        List<RoomSummaryDTO> rooms=roomService.findAllRoomSummaries();
         return ResponseEntity.ok(rooms);
     }
 
+    /**
+     * Retrieves the availability of all room types from the in-memory availability view.
+     * A poll sending the ETag of the last response in If-None-Match gets 304 Not Modified while nothing changed.
+     * @param request The request, used to evaluate If-None-Match.
+     * @return ResponseEntity containing the list of all RoomAvailabilityDTO objects, or null for 304 Not Modified.
+     */
+    @SkipDbAdmission
+    @GetMapping("/availability")
+    public ResponseEntity<List<RoomAvailabilityDTO>> getRoomAvailability(WebRequest request) {
+        RoomAvailabilityViewService.Snapshot snapshot=roomAvailabilityViewService.getSnapshot();
+        if(request.checkNotModified(snapshot.getETag())){
+            return null;
+        }
+        return ResponseEntity.ok().eTag(snapshot.getETag()).body(snapshot.getRooms());
+    }
+
+    /**
+     * Retrieves the availability of one room type from the in-memory availability view.
+     * A poll sending the ETag of the last response in If-None-Match gets 304 Not Modified while the type did not change.
+     * @param type The type of the room.
+     * @param request The request, used to evaluate If-None-Match.
+     * @return ResponseEntity containing the RoomAvailabilityDTO of the type, or null for 304 Not Modified.
+     */
+    @SkipDbAdmission
+    @GetMapping("/availability/{type}")
+    public ResponseEntity<RoomAvailabilityDTO> getRoomAvailabilityByType(@PathVariable String type, WebRequest request) {
+        RoomAvailabilityViewService.Snapshot snapshot=roomAvailabilityViewService.getSnapshot();
+        RoomAvailabilityDTO room=snapshot.getRoom(type);
+        if(room==null){
+            throw new RoomNotFoundException("Rooms Not Found with Type "+type);
+        }
+        if(request.checkNotModified(snapshot.getETag(type))){
+            return null;
+        }
+        return ResponseEntity.ok().eTag(snapshot.getETag(type)).body(room);
+    }
+
     /**
      * Retrieves a specific room by its ID.
      * @param id The ID of the room to retrieve.
@@ -65,8 +122,9 @@ public class RoomController {
     /**
      * Updates an existing room by its ID.
      * @param id The ID of the room to update.
-     * @param room The updated Room object.
-     * @return ResponseEntity containing the updated Room object with HTTP status 200 (OK).
+     * @param room The fields of the room to change, optionally with the version of the room they are based on.
+     * @return ResponseEntity containing the updated Room object with HTTP status 200 (OK),
+     * or 409 (CONFLICT) if the room was changed since it was read.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Room> updateRoom(@PathVariable Long id, @RequestBody Room room) {
@@ -85,5 +143,28 @@ public class RoomController {
             return ResponseEntity.ok("Room Deleted Successfully with Id "+id);
     }
 
+    /**
+     * Imports rooms in bulk from a CSV upload with a header row or from a JSON array.
+     * @param contentType The content type of the upload, text/csv or application/json.
+     * @param upload The uploaded rows, read while they are imported.
+     * @return ResponseEntity containing the import report listing every row that was not imported.
+     */
+    @PostMapping(value = "/import", consumes = {CatalogTransferService.CSV, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ImportReportDTO> importRooms(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream upload){
+            ImportReportDTO report=catalogTransferService.importRooms(upload,CatalogTransferService.Format.fromContentType(contentType));
+            return ResponseEntity.ok(report);
+    }
 
+    /**
+     * Exports all rooms in the format accepted by the import, streamed while they are read.
+     * @param format csv or json.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRooms(@RequestParam(defaultValue = "csv") String format){
+            CatalogTransferService.Format exportFormat=format.equalsIgnoreCase("json")?CatalogTransferService.Format.JSON:CatalogTransferService.Format.CSV;
+            return ResponseEntity.ok()
+                    .contentType(exportFormat==CatalogTransferService.Format.JSON?MediaType.APPLICATION_JSON:MediaType.parseMediaType(CatalogTransferService.CSV))
+                    .body(catalogTransferService.exportRooms(exportFormat));
+    }
 }
@@ -10,6 +10,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.service.NdjsonStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.example.demo.models.Suggestion;
 import com.example.demo.service.SuggestionService;
@@ -31,6 +37,31 @@ public class SuggestionController {
         return suggestionService.findAllSuggestions();
     }
 
+
+    /**
+     * Retrieves one page of suggestions ordered by id.
+     * @param cursor The next cursor returned with the previous page, omitted for the first page.
+     * @param size The number of suggestions per page.
+     * @return ResponseEntity containing the page and the cursor of the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<Suggestion>> getSuggestionPage(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(suggestionService.findSuggestionPage(cursor,size));
+    }
+
+
+    /**
+     * Streams all suggestions as newline-delimited JSON, one suggestion per line.
+     * @return ResponseEntity containing the streamed response body.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllSuggestions() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonStreamService.NDJSON))
+                .body(suggestionService.streamAllSuggestions());
+    }
+
     /**
      * Adds a new suggestion.
      * @param suggestion The Suggestion object to be added.
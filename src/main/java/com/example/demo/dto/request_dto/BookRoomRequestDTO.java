@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Setter
@@ -15,4 +16,11 @@ import java.util.List;
 public class BookRoomRequestDTO {
     private String customerName;
     private List<RoomDTO> rooms;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+
+    public BookRoomRequestDTO(String customerName, List<RoomDTO> rooms) {
+        this.customerName = customerName;
+        this.rooms = rooms;
+    }
 }
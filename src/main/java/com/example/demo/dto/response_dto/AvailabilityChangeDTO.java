@@ -0,0 +1,20 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChangeDTO {
+    // room or menu
+    private String kind;
+    // Room type or menu item name
+    private String name;
+    // Null when the room or menu item was deleted
+    private Integer availableCount;
+    private Boolean available;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import com.example.demo.models.BillingEvent;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillSummaryDTO {
+    private Long id;
+    private LocalDateTime date;
+    private double totalAmount;
+    private BillingEvent.SourceType sourceType;
+    private Long sourceId;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookedRoomSummaryDTO {
+    private Long id;
+    private String customerName;
+    private LocalDateTime bookingDate;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private List<String> roomTypes;
+    private Double totalAmount;
+}
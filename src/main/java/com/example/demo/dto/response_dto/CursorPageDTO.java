@@ -0,0 +1,53 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private List<T> items;
+    // Id of the last item of the page, to be sent as cursor for the next page, null on the last page
+    private Long nextCursor;
+
+    /**
+     * Builds a page from rows fetched with one row more than the page size.
+     *
+     * @param rows The fetched rows, ordered by id.
+     * @param size The page size.
+     * @param idOf Function returning the id of a row.
+     * @return The page holding at most size rows and the cursor of the next page.
+     */
+    public static <T> CursorPageDTO<T> of(List<T> rows, int size, Function<T,Long> idOf) {
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPageDTO<>(items, idOf.apply(items.get(size - 1)));
+    }
+
+    /**
+     * Clamps a requested page size to the range 1 - {@link #MAX_PAGE_SIZE}.
+     *
+     * @param size The requested page size, may be null.
+     * @return The page size to use.
+     */
+    public static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRevenueDTO {
+    private LocalDate date;
+    private double roomRevenue;
+    private double foodRevenue;
+    private double totalRevenue;
+    private long roomBills;
+    private long foodBills;
+}
@@ -2,13 +2,10 @@ package com.example.demo.dto.response_dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 
+// Immutable, the GlobalExceptionHandler shares one instance per message across responses
 @Getter
-@Setter
-@NoArgsConstructor
 @AllArgsConstructor
 public class ExceptionDTO {
-    private String message;
+    private final String message;
 }
@@ -0,0 +1,19 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestFolioDTO {
+    private String customerName;
+    private long roomBillCount;
+    private double roomTotal;
+    private long foodBillCount;
+    private double foodTotal;
+    private double total;
+}
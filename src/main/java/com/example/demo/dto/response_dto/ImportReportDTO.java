@@ -0,0 +1,30 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportReportDTO {
+    private int received;
+    private int imported;
+    private int rejected;
+    private List<ImportRowErrorDTO> errors=new ArrayList<>();
+
+    /**
+     * Records a row that was not imported.
+     *
+     * @param row The number of the row in the upload, starting at 1 for the first data row.
+     * @param key The item name or room type of the row, null if it could not be read.
+     * @param message Why the row was not imported.
+     */
+    public void reject(int row,String key,String message){
+        rejected++;
+        errors.add(new ImportRowErrorDTO(row,key,message));
+    }
+}
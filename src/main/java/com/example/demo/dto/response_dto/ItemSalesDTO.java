@@ -0,0 +1,20 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSalesDTO {
+    private LocalDate date;
+    private String name;
+    private long quantity;
+    private long units;
+    private double revenue;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto.response_dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"itemName","price","available","availableCount"})
+public class MenuRowDTO {
+    private String itemName;
+    private Integer price;
+    private Boolean available;
+    private Integer availableCount;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAvailabilityDTO {
+    private String type;
+    private Integer availableCount;
+    private Integer price;
+    private Boolean available;
+}
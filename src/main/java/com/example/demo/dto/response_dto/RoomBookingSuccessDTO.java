@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,4 +19,6 @@ public class RoomBookingSuccessDTO {
     private String customerName;
     private LocalDateTime bookingDate;
     private List<RoomDTO> bookedRooms;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
 }
@@ -0,0 +1,20 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomOccupancyDTO {
+    private LocalDate night;
+    private String roomType;
+    private Integer bookedCount;
+    private Integer totalCount;
+    private double occupancy;
+}
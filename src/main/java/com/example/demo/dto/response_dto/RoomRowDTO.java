@@ -0,0 +1,20 @@
+package com.example.demo.dto.response_dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"type","available","price","availableCount","totalCount"})
+public class RoomRowDTO {
+    private String type;
+    private Boolean available;
+    private Integer price;
+    private Integer availableCount;
+    private Integer totalCount;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto.response_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomSummaryDTO {
+    private Long id;
+    private String type;
+    private Boolean available;
+    private Integer price;
+    private Integer availableCount;
+    private Integer totalCount;
+}
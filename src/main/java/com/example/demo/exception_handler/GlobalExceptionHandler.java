@@ -3,33 +3,90 @@ package com.example.demo.exception_handler;
 import com.example.demo.dto.response_dto.ExceptionDTO;
 import com.example.demo.dto.response_dto.FoodNotAvailableExceptionDTO;
 import com.example.demo.dto.response_dto.RoomNotAvailableExceptionDTO;
+import com.example.demo.exception_handler.analytics_exceptions.InvalidDateRangeException;
 import com.example.demo.exception_handler.bill_exceptions.NoBillFoundException;
+import com.example.demo.exception_handler.book_room_exceptions.BookingConflictException;
 import com.example.demo.exception_handler.book_room_exceptions.NoBookedRoomFoundException;
 import com.example.demo.exception_handler.book_room_exceptions.RoomNotAvailableException;
 import com.example.demo.exception_handler.feedback_exceptions.FeedbackNotFoundException;
 import com.example.demo.exception_handler.feedback_exceptions.InvalidFeedbackException;
 import com.example.demo.exception_handler.food_exceptions.FoodItemNotAvailableException;
 import com.example.demo.exception_handler.food_exceptions.FoodNotFoundException;
+import com.example.demo.exception_handler.food_order_exceptions.FoodOrderConflictException;
 import com.example.demo.exception_handler.food_order_exceptions.FoodOrderNotFoundException;
 import com.example.demo.exception_handler.food_order_exceptions.InvalidFoodOrderException;
+import com.example.demo.exception_handler.idempotency_exceptions.IdempotencyKeyReusedException;
+import com.example.demo.exception_handler.idempotency_exceptions.IdempotentRequestInProgressException;
 import com.example.demo.exception_handler.menu_exceptions.InvalidMenuException;
 import com.example.demo.exception_handler.menu_exceptions.MenuAlreadyExistsException;
 import com.example.demo.exception_handler.menu_exceptions.MenuNotFoundException;
+import com.example.demo.exception_handler.menu_exceptions.MenuUpdateConflictException;
 import com.example.demo.exception_handler.room_exceptions.InvalidRoomException;
 import com.example.demo.exception_handler.room_exceptions.RoomAlreadyExistsException;
 import com.example.demo.exception_handler.room_exceptions.RoomNotFoundException;
+import com.example.demo.exception_handler.room_exceptions.RoomUpdateConflictException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 /**
  * Global exception handler for handling various exceptions thrown across the application.
  * Provides a centralized way to manage exceptions and return appropriate HTTP responses.
+ * <p>
+ * Most domain exceptions carry one of a few fixed messages, their immutable {@link ExceptionDTO} bodies are built
+ * once when the class is loaded. Messages naming ids or names come from the request, their body is built for
+ * every response so that requests can't fill the memory with bodies.
+ * </p>
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
+
+    // Bodies of the fixed messages of the domain exceptions, keyed by their message
+    private static final Map<String,ExceptionDTO> FIXED_BODIES=Stream.of(
+            "Customer Name and food Items Can't be null for Food Order",
+            "Customer Name can't be null for Order",
+            "Food Items Can't be null for Food Order",
+            "Food Name can't be null for Food Order",
+            "Food items are being ordered concurrently, try again",
+            "Invalid Customer Name ,Please provide valid customer name",
+            "Invalid Customer email provided, Please Enter Valid Customer email",
+            "Invalid Email Provided",
+            "Invalid Food Order Id, Please Enter valid food id",
+            "Invalid Menu name, Please Enter Valid Menu name",
+            "Invalid Room Data, Please Enter valid customer name and room type and room counts",
+            "Invalid Room Id,Enter valid Room Id",
+            "Invalid Room type, Please provide valid room type",
+            "Item Name field can't be null for Menu",
+            "ItemName ,Price and availability can;t be null to create menu",
+            "Menu availability count can't be null,And it must be >=0",
+            "Menu price can't be null and must be in range 1-10000",
+            "No Booked Rooms Found",
+            "No Feedbacks Found",
+            "No Food Orders Found",
+            "No Foods Found",
+            "No Menus Found",
+            "No Rooms Found",
+            "No feedback found with email provided",
+            "Price field can't be null for Menu",
+            "Room availability can't be null or empty",
+            "Room availability count can't be null, and it must be >=0",
+            "Room price can't be null, and must be in range 0-10L",
+            "Room type and customer can't be null",
+            "Room type can't be null or empty",
+            "Room type,availability and price can't be null",
+            "Rooms are being booked concurrently, try again",
+            "email can't be null",
+            "feedback and email can't be null",
+            "feedback can't be null or empty")
+            .collect(Collectors.toUnmodifiableMap(Function.identity(),ExceptionDTO::new));
+
     //Room related exceptions
 
     /**
@@ -40,7 +97,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(RoomNotFoundException.class)
     public ResponseEntity<Object> handleRoomNotFoundException(RoomNotFoundException e){
-      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody(e.getMessage()));
     }
 
     /**
@@ -51,7 +108,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(RoomAlreadyExistsException.class)
     public ResponseEntity<Object> handleRoomAlreadyExistsException(RoomAlreadyExistsException e){
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorBody(e.getMessage()));
     }
 
     /**
@@ -62,7 +119,18 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(InvalidRoomException.class)
     public ResponseEntity<Object> handleNoSuchCustomerExistsException(InvalidRoomException e){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorBody(e.getMessage()));
+    }
+
+    /**
+     * Handles exceptions when a room kept changing concurrently while it was updated.
+     *
+     * @param e The exception that was thrown.
+     * @return A ResponseEntity with a 409 CONFLICT status and the exception message.
+     */
+    @ExceptionHandler(RoomUpdateConflictException.class)
+    public ResponseEntity<Object> handleRoomUpdateConflictException(RoomUpdateConflictException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorBody(e.getMessage()));
     }
 
     /**
@@ -87,6 +155,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new RoomNotAvailableExceptionDTO(e.getMessage(),e.getRequestedRooms(),e.getAvailableRooms()));
     }
 
+    /**
+     * Handles exceptions when a booking kept conflicting with concurrent writes.
+     *
+     * @param e The exception that was thrown.
+     * @return A ResponseEntity with a 409 CONFLICT status and the exception message.
+     */
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<Object> handleBookingConflictException(BookingConflictException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorBody(e.getMessage()));
+    }
+
     /**
      * Handles exceptions when no booked room is found.
      *
@@ -95,7 +174,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(NoBookedRoomFoundException.class)
     public ResponseEntity<Object> handleNoBookedRoomFoundException(NoBookedRoomFoundException e){
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody(e.getMessage()));
     }
 
 
@@ -111,7 +190,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(NoBillFoundException.class)
     public ResponseEntity<Object> handleNoBillFoundException(NoBillFoundException e){
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody(e.getMessage()));
     }
 
 
@@ -126,7 +205,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(FoodOrderNotFoundException.class)
     public ResponseEntity<Object> handleFoodOrderNotFoundException(FoodOrderNotFoundException e){
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody(e.getMessage()));
     }
 
     /**
@@ -137,7 +216,18 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(InvalidFoodOrderException.class)
     public ResponseEntity<Object> handleInvalidFoodOrderException(InvalidFoodOrderException e){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorBody(e.getMessage()));
+    }
+
+    /**
+     * Handles exceptions when a food order kept conflicting with concurrent writes.
+     *
+     * @param e The exception that was thrown.
+     * @return A ResponseEntity with a 409 CONFLICT status and the exception message.
+     */
+    @ExceptionHandler(FoodOrderConflictException.class)
+    public ResponseEntity<Object> handleFoodOrderConflictException(FoodOrderConflictException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorBody(e.getMessage()));
     }
 
 
@@ -150,7 +240,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(FoodNotFoundException.class)
     public ResponseEntity<Object> handleFoodNotFoundException(FoodNotFoundException e){
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody(e.getMessage()));
     }
 
     /**
@@ -175,7 +265,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MenuNotFoundException.class)
     public ResponseEntity<Object> handleMenuNotFoundException(MenuNotFoundException e){
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody(e.getMessage()));
     }
 
     /**
@@ -186,7 +276,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(InvalidMenuException.class)
     public ResponseEntity<Object> handleInvalidMenuException(InvalidMenuException e){
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorBody(e.getMessage()));
     }
 
 
@@ -198,7 +288,18 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MenuAlreadyExistsException.class)
     public ResponseEntity<Object> handleMenuAlreadyExistsException(MenuAlreadyExistsException e){
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorBody(e.getMessage()));
+    }
+
+    /**
+     * Handles exceptions when a menu item kept changing concurrently while it was updated.
+     *
+     * @param e The exception that was thrown.
+     * @return A ResponseEntity with a 409 CONFLICT status and the exception message.
+     */
+    @ExceptionHandler(MenuUpdateConflictException.class)
+    public ResponseEntity<Object> handleMenuUpdateConflictException(MenuUpdateConflictException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorBody(e.getMessage()));
     }
 
 
@@ -211,7 +312,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(FeedbackNotFoundException.class)
     public ResponseEntity<Object> handleFeedbackNotFoundException(FeedbackNotFoundException e){
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ExceptionDTO(e.getMessage()));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorBody(e.getMessage()));
     }
 
 
@@ -220,6 +321,53 @@ public class GlobalExceptionHandler {
     public ResponseEntity<Object> handleInvalidFeedbackException(InvalidFeedbackException e){
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
-}
 
 
+    //Analytics Related Exceptions
+    /**
+     * Handles exceptions related to invalid analytics date ranges.
+     *
+     * @param e The exception that was thrown.
+     * @return A ResponseEntity with a 400 BAD REQUEST status and the exception message.
+     */
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ResponseEntity<Object> handleInvalidDateRangeException(InvalidDateRangeException e){
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorBody(e.getMessage()));
+    }
+
+
+    //Idempotency Related Exceptions
+    /**
+     * Handles exceptions when an idempotency key is reused for a request with a different body.
+     *
+     * @param e The exception that was thrown.
+     * @return A ResponseEntity with a 422 UNPROCESSABLE ENTITY status and the exception message.
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException e){
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorBody(e.getMessage()));
+    }
+
+    /**
+     * Handles exceptions when a retry gave up waiting for the original request sent with the same idempotency key.
+     *
+     * @param e The exception that was thrown.
+     * @return A ResponseEntity with a 409 CONFLICT status and the exception message.
+     */
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<Object> handleIdempotentRequestInProgressException(IdempotentRequestInProgressException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorBody(e.getMessage()));
+    }
+
+
+    /**
+     * Returns the error body of a message, shared between responses for the fixed messages of the domain exceptions.
+     *
+     * @param message The message of the exception.
+     * @return The immutable error body.
+     */
+    ExceptionDTO errorBody(String message){
+        ExceptionDTO body=message==null?null:FIXED_BODIES.get(message);
+        return body!=null?body:new ExceptionDTO(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.exception_handler;
+
+/**
+ * Base class of the domain exceptions answered by the {@link GlobalExceptionHandler}.
+ * <p>
+ * Domain exceptions report expected outcomes, such as sold-out rooms, out-of-stock menu items or unknown ids,
+ * and only their message is sent back. They therefore skip filling in the stack trace, which makes a rejection
+ * about as cheap as creating any other small object. A cause can still be set with {@link #initCause}.
+ * </p>
+ */
+public abstract class HotelDomainException extends RuntimeException {
+
+    protected HotelDomainException(){
+        this(null);
+    }
+
+    protected HotelDomainException(String message){
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace(){
+        return this;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.exception_handler;
+
+/**
+ * Outcome of a validation on a hot path, either the validated value or the {@link HotelDomainException}
+ * describing why it was rejected. Validations return the rejection instead of throwing it, so callers can
+ * decide whether to answer it, combine it with other checks, or throw it at the transaction boundary.
+ *
+ * @param <T> The type of the validated value.
+ */
+public final class ValidationResult<T> {
+
+    private final T value;
+
+    private final HotelDomainException rejection;
+
+    private ValidationResult(T value,HotelDomainException rejection){
+        this.value=value;
+        this.rejection=rejection;
+    }
+
+    /**
+     * Creates the result of a successful validation.
+     *
+     * @param value The validated value.
+     * @return The valid result.
+     */
+    public static <T> ValidationResult<T> valid(T value){
+        return new ValidationResult<>(value,null);
+    }
+
+    /**
+     * Creates the result of a failed validation.
+     *
+     * @param rejection The exception describing the failure.
+     * @return The rejected result.
+     */
+    public static <T> ValidationResult<T> rejected(HotelDomainException rejection){
+        return new ValidationResult<>(null,rejection);
+    }
+
+    public boolean isValid(){
+        return rejection==null;
+    }
+
+    public T getValue(){
+        return value;
+    }
+
+    public HotelDomainException getRejection(){
+        return rejection;
+    }
+
+    /**
+     * Returns the validated value or throws the rejection.
+     *
+     * @return The validated value.
+     * @throws HotelDomainException If the validation failed.
+     */
+    public T orElseThrow(){
+        if(rejection!=null){
+            throw rejection;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.exception_handler.analytics_exceptions;
+
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class InvalidDateRangeException extends HotelDomainException{
+    public InvalidDateRangeException(String message){
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.bill_exceptions;
 
-public class NoBillFoundException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class NoBillFoundException extends HotelDomainException{
     public NoBillFoundException(String message){
         super(message);
     }
@@ -0,0 +1,9 @@
+package com.example.demo.exception_handler.book_room_exceptions;
+
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class BookingConflictException extends HotelDomainException{
+    public BookingConflictException(String message){
+        super(message);
+    }
+}
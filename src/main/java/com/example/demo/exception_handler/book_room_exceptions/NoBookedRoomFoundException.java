@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.book_room_exceptions;
 
-public class NoBookedRoomFoundException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class NoBookedRoomFoundException extends HotelDomainException{
     public NoBookedRoomFoundException(String message){
         super(message);
     }
@@ -1,5 +1,6 @@
 package com.example.demo.exception_handler.book_room_exceptions;
 
+import com.example.demo.exception_handler.HotelDomainException;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -9,7 +10,7 @@ import java.util.HashMap;
 @Getter
 @Setter
 @NoArgsConstructor
-public class RoomNotAvailableException extends  RuntimeException{
+public class RoomNotAvailableException extends HotelDomainException{
     private HashMap<String,Integer> requestedRooms;
     private HashMap<String,Integer> availableRooms;
     public RoomNotAvailableException(String message,HashMap<String,Integer> requestedRooms,HashMap<String,Integer> availableRooms){
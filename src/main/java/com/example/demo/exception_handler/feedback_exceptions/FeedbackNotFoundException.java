@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.feedback_exceptions;
 
-public class FeedbackNotFoundException extends RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class FeedbackNotFoundException extends HotelDomainException{
     public FeedbackNotFoundException(String message){
         super(message);
     }
@@ -1,7 +1,9 @@
 package com.example.demo.exception_handler.feedback_exceptions;
 
+import com.example.demo.exception_handler.HotelDomainException;
 
-public class InvalidFeedbackException extends  RuntimeException{
+
+public class InvalidFeedbackException extends HotelDomainException{
     public InvalidFeedbackException(String message){
         super(message);
     }
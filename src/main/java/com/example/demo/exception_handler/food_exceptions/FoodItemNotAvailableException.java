@@ -1,11 +1,12 @@
 package com.example.demo.exception_handler.food_exceptions;
 
+import com.example.demo.exception_handler.HotelDomainException;
 import lombok.Getter;
 
 import java.util.HashMap;
 
 @Getter
-public class FoodItemNotAvailableException extends  RuntimeException{
+public class FoodItemNotAvailableException extends HotelDomainException{
     private HashMap<String,Integer> orderedFoodItems;
     private HashMap<String,Integer> availableFoodItems;
     public FoodItemNotAvailableException(String message,HashMap<String,Integer> orderedFoodItems,HashMap<String,Integer> availableFoodItems){
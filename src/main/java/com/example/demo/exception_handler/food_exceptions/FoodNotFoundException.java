@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.food_exceptions;
 
-public class FoodNotFoundException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class FoodNotFoundException extends HotelDomainException{
     public FoodNotFoundException(String message){
         super(message);
     }
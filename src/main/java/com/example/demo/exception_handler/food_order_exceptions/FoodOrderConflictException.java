@@ -0,0 +1,9 @@
+package com.example.demo.exception_handler.food_order_exceptions;
+
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class FoodOrderConflictException extends HotelDomainException{
+    public FoodOrderConflictException(String message){
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.food_order_exceptions;
 
-public class FoodOrderNotFoundException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class FoodOrderNotFoundException extends HotelDomainException{
 
     public FoodOrderNotFoundException(String message){
         super(message);
@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.food_order_exceptions;
 
-public class InvalidFoodOrderException extends RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class InvalidFoodOrderException extends HotelDomainException{
     public InvalidFoodOrderException(String message){
         super(message);
     }
@@ -0,0 +1,9 @@
+package com.example.demo.exception_handler.idempotency_exceptions;
+
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class IdempotencyKeyReusedException extends HotelDomainException{
+    public IdempotencyKeyReusedException(String message){
+        super(message);
+    }
+}
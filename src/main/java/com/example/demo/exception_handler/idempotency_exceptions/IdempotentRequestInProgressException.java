@@ -0,0 +1,9 @@
+package com.example.demo.exception_handler.idempotency_exceptions;
+
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class IdempotentRequestInProgressException extends HotelDomainException{
+    public IdempotentRequestInProgressException(String message){
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.menu_exceptions;
 
-public class InvalidMenuException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class InvalidMenuException extends HotelDomainException{
     public InvalidMenuException(String message){
         super(message);
     }
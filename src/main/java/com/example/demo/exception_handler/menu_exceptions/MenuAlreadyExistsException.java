@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.menu_exceptions;
 
-public class MenuAlreadyExistsException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class MenuAlreadyExistsException extends HotelDomainException{
     public  MenuAlreadyExistsException(String message){
         super(message);
     }
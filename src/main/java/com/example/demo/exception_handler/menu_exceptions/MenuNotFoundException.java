@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.menu_exceptions;
 
-public class MenuNotFoundException extends RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class MenuNotFoundException extends HotelDomainException{
     public MenuNotFoundException(String message){
         super(message);
     }
@@ -0,0 +1,9 @@
+package com.example.demo.exception_handler.menu_exceptions;
+
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class MenuUpdateConflictException extends HotelDomainException{
+    public MenuUpdateConflictException(String message){
+        super(message);
+    }
+}
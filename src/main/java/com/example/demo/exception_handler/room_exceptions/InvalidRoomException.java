@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.room_exceptions;
 
-public class InvalidRoomException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class InvalidRoomException extends HotelDomainException{
     public InvalidRoomException(String message){
         super(message);
     }
@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.room_exceptions;
 
-public class RoomAlreadyExistsException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class RoomAlreadyExistsException extends HotelDomainException{
     public RoomAlreadyExistsException(String  message){
         super(message);
     }
@@ -1,6 +1,8 @@
 package com.example.demo.exception_handler.room_exceptions;
 
-public class RoomNotFoundException extends  RuntimeException{
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class RoomNotFoundException extends HotelDomainException{
 
     public RoomNotFoundException(String message){
            super(message);
@@ -0,0 +1,10 @@
+package com.example.demo.exception_handler.room_exceptions;
+
+import com.example.demo.exception_handler.HotelDomainException;
+
+public class RoomUpdateConflictException extends HotelDomainException{
+
+    public RoomUpdateConflictException(String message){
+           super(message);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the number of SQL statements every request ran in a {@value #QUERY_SUMMARY} distribution summary
+ * tagged by HTTP method and URI pattern.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_SUMMARY = "hotel.db.queries";
+
+    // Registry the query count summaries are registered with
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Query count summary of every endpoint keyed by HTTP method and URI pattern
+    private final ConcurrentHashMap<String,DistributionSummary> summaries=new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        QueryCountInspector.reset();
+        try{
+            filterChain.doFilter(request,response);
+        }finally {
+            Object pattern=request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri=pattern==null?"UNKNOWN":pattern.toString();
+            summaryFor(request.getMethod(),uri).record(QueryCountInspector.getQueryCount());
+        }
+    }
+
+    private DistributionSummary summaryFor(String method,String uri){
+        String key=method+" "+uri;
+        DistributionSummary summary=summaries.get(key);
+        if(summary!=null){
+            return summary;
+        }
+        return summaries.computeIfAbsent(key,k->DistributionSummary.builder(QUERY_SUMMARY)
+                .description("Number of SQL statements run per request")
+                .baseUnit("queries")
+                .tag("method",method)
+                .tag("uri",uri)
+                .register(meterRegistry));
+    }
+}
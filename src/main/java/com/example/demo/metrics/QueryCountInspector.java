@@ -0,0 +1,38 @@
+package com.example.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * <p>
+ * The count lives in a per-thread {@code int[]}, so counting a statement neither locks nor allocates.
+ * {@link QueryCountFilter} resets it when a request starts and records it when the request completes.
+ * Statements run through plain JDBC are not counted.
+ * </p>
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> QUERY_COUNT=ThreadLocal.withInitial(()->new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        QUERY_COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Resets the statement count of the current thread.
+     */
+    public static void reset(){
+        QUERY_COUNT.get()[0]=0;
+    }
+
+    /**
+     * Returns the number of statements prepared on the current thread since the last reset.
+     *
+     * @return The statement count.
+     */
+    public static int getQueryCount(){
+        return QUERY_COUNT.get()[0];
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the services in {@code com.example.demo.service} with a
+ * {@value #SERVICE_TIMER} timer tagged by class, method and outcome.
+ * <p>
+ * The timers of a method are created on its first call and cached, so recording a call only reads
+ * the clock twice and updates the histogram of an existing timer. Calls a service makes to its own
+ * methods don't pass through the proxy and are part of the caller's timing.
+ * </p>
+ */
+@Aspect
+@Component
+public class ServiceTimingAspect {
+
+    public static final String SERVICE_TIMER = "hotel.service.calls";
+
+    private static final int SUCCESS = 0;
+
+    private static final int ERROR = 1;
+
+    // Registry the service timers are registered with
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Success and error timer of every service method called so far
+    private final ConcurrentHashMap<Method,Timer[]> timers=new ConcurrentHashMap<>();
+
+    /**
+     * Records the duration of a service method call.
+     *
+     * @param joinPoint The intercepted service method call.
+     * @return The result of the service method.
+     * @throws Throwable Any exception thrown by the service method, after the call has been recorded.
+     */
+    @Around("execution(public * com.example.demo.service..*(..)) && !execution(* com.example.demo.service..*.get*Count())")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable{
+        Method method=((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer[] methodTimers=timers.get(method);
+        if(methodTimers==null){
+            methodTimers=timers.computeIfAbsent(method,this::createTimers);
+        }
+        long start=System.nanoTime();
+        try{
+            Object result=joinPoint.proceed();
+            methodTimers[SUCCESS].record(System.nanoTime()-start,TimeUnit.NANOSECONDS);
+            return result;
+        }catch (Throwable e){
+            methodTimers[ERROR].record(System.nanoTime()-start,TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer[] createTimers(Method method){
+        Timer[] methodTimers=new Timer[2];
+        methodTimers[SUCCESS]=createTimer(method,"success");
+        methodTimers[ERROR]=createTimer(method,"error");
+        return methodTimers;
+    }
+
+    private Timer createTimer(Method method,String outcome){
+        return Timer.builder(SERVICE_TIMER)
+                .description("Duration of service method calls")
+                .tag("class",method.getDeclaringClass().getSimpleName())
+                .tag("method",method.getName())
+                .tag("outcome",outcome)
+                .register(meterRegistry);
+    }
+}
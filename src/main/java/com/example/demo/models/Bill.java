@@ -1,7 +1,6 @@
 package com.example.demo.models;
 import java.time.LocalDateTime;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -10,24 +9,26 @@ import lombok.Setter;
 @Setter
 @Getter
 @Entity
+@Table(indexes = @Index(name = "idx_bill_source", columnList = "source_type, source_id"))
 @NoArgsConstructor
 public class Bill {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the bill.
     private Long id;
     // The date and time when the bill was created.
     private LocalDateTime date;
     // The total amount for the bill.
     private double totalAmount;
-
-    @OneToOne(mappedBy = "bill")
-    // Prevents infinite recursion during JSON serialization.
-    @JsonBackReference
-    // The associated food order for which this bill was created.
-    private FoodOrder foodOrder;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_type", length = 20)
+    // Whether the bill was written for a room booking or a food order.
+    private BillingEvent.SourceType sourceType;
+    @Column(name = "source_id")
+    // Id of the booking or order the bill was written for, read without loading the booking or order.
+    private Long sourceId;
 
 
     /**
@@ -0,0 +1,64 @@
+package com.example.demo.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Compact record of a bill that still has to be written, created when a room is booked or food is ordered.
+ */
+@Getter
+@AllArgsConstructor
+public class BillingEvent {
+
+    // Booking or order the bill is written for
+    public enum SourceType {
+        BOOK_ROOM,
+        FOOD_ORDER
+    }
+
+    // Position of the event in the billing journal.
+    private long sequence;
+    // Whether the bill belongs to a room booking or a food order.
+    private SourceType sourceType;
+    // Id of the booking or order.
+    private Long sourceId;
+    // The total amount of the bill.
+    private double totalAmount;
+    // The date and time the booking or order was made, used as the bill date.
+    private LocalDateTime date;
+    // What was sold, the booked room types or the ordered menu items, rolled up for the analytics.
+    private List<Line> lines;
+
+    /**
+     * One booked room type or ordered menu item of a bill.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+
+        // Type of the room or name of the menu item.
+        private String name;
+        // Number of rooms booked or menu items ordered.
+        private long quantity;
+        // Number of room-nights booked, equal to the quantity for menu items.
+        private long units;
+        // The amount charged for the line.
+        private double amount;
+    }
+
+    /**
+     * Creates the bill described by this event, without an id as long as it has not been written.
+     *
+     * @return The bill.
+     */
+    public Bill toBill() {
+        Bill bill = new Bill(totalAmount);
+        bill.setDate(date);
+        bill.setSourceType(sourceType);
+        bill.setSourceId(sourceId);
+        return bill;
+    }
+}
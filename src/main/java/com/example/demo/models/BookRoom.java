@@ -1,40 +1,45 @@
 package com.example.demo.models;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 @Setter
 @Getter
 @Entity
+@Table(indexes = @Index(name = "idx_book_room_normalized_name", columnList = "normalized_name, id"))
 @NoArgsConstructor
 public class BookRoom {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the booking.
     private Long id;
     // Name of the customer who made the booking.
     private String customerName;
+    @Column(name = "normalized_name")
+    @JsonIgnore
+    // Trimmed, lower case customer name, kept in sync on every save and used for indexed name lookups.
+    private String normalizedName;
     // The date and time when the booking was made.
     private LocalDateTime bookingDate;
+    // The date of the first night of the stay, null for bookings without stay dates.
+    private LocalDate checkInDate;
+    // The date the guest leaves, the night before it is the last night of the stay.
+    private LocalDate checkOutDate;
 
-    @ManyToMany(cascade = CascadeType.ALL)
-    @JoinTable(
-            name="booking",
-            joinColumns = @JoinColumn(name="bookroom_id"),
-            inverseJoinColumns = @JoinColumn(name="room_id")
-    )
-    // The room associated with this booking.
-    private Set<Room> rooms;
+    @OneToMany(mappedBy = "bookRoom", cascade = CascadeType.ALL, orphanRemoval = true)
+    // The booked room types with the number of rooms and the price of each, inserted with the booking.
+    private List<BookingLine> bookingLines = new ArrayList<>();
 
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name="room_bill_id")
@@ -45,14 +50,27 @@ public class BookRoom {
      * Constructs a new BookRoom with the specified details and sets the booking date to the current time.
      *
      * @param customerName The name of the customer making the booking.
-     * @param rooms The room being booked.
      * @param bill The bill associated with this booking.
      */
-    public BookRoom(String customerName, Set<Room> rooms, Bill bill) {
+    public BookRoom(String customerName, Bill bill) {
         this.customerName = customerName;
         this.bookingDate = LocalDateTime.now();
-        this.rooms=rooms;
         this.bill=bill;
     }
 
+    /**
+     * Adds a booked room type to this booking.
+     *
+     * @param room The booked room type.
+     * @param roomCount The number of rooms of the type.
+     */
+    public void addBookingLine(Room room, Integer roomCount) {
+        bookingLines.add(new BookingLine(this, room, roomCount));
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void normalizeName() {
+        this.normalizedName = NameNormalizer.normalize(customerName);
+    }
 }
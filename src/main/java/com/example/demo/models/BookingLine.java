@@ -0,0 +1,57 @@
+package com.example.demo.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_booking_line_book_room", columnList = "book_room_id"),
+        @Index(name = "idx_booking_line_room", columnList = "room_id")
+})
+public class BookingLine {
+
+    @Id
+    @PooledId
+    // Unique identifier for the booking line.
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_room_id", nullable = false)
+    @JsonIgnore
+    // The booking the line belongs to.
+    private BookRoom bookRoom;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "room_id", nullable = false)
+    @JsonIgnore
+    // The booked room type, only referenced, the room row is never written through the line.
+    private Room room;
+
+    // Type of the room when it was booked, so the booking history is read without the room rows.
+    private String roomType;
+    // Number of rooms of the type taken by the booking.
+    private Integer roomCount;
+    // Price of one room for one night when it was booked.
+    private Integer price;
+
+    /**
+     * Constructs a new line of a booking, taking the type and price of the room as they are now.
+     *
+     * @param bookRoom The booking the line belongs to.
+     * @param room The booked room type.
+     * @param roomCount The number of rooms of the type taken by the booking.
+     */
+    public BookingLine(BookRoom bookRoom, Room room, Integer roomCount) {
+        this.bookRoom = bookRoom;
+        this.room = room;
+        this.roomType = room.getType();
+        this.roomCount = roomCount;
+        this.price = room.getPrice();
+    }
+}
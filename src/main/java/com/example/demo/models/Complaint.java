@@ -2,8 +2,6 @@
 package com.example.demo.models;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,7 +15,7 @@ public class Complaint {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the complaint.
     private Long id;
     // Name of the person submitting the complaint.
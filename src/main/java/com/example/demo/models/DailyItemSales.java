@@ -0,0 +1,47 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_daily_item_sales_date_source_name", columnNames = {"salesDate","sourceType","name"}))
+public class DailyItemSales {
+
+    @Id
+    @PooledId
+    // Unique identifier for the rollup row.
+    private Long id;
+    // The day the bookings or orders were made.
+    private LocalDate salesDate;
+    // Whether the row sums up a room type or a menu item.
+    @Enumerated(EnumType.STRING)
+    private BillingEvent.SourceType sourceType;
+    // Type of the room or name of the menu item.
+    private String name;
+    // Number of rooms booked or menu items ordered on the day.
+    private long quantity;
+    // Number of room-nights booked on the day, equal to the quantity for menu items.
+    private long units;
+    // Amount charged for the room type or menu item on the day.
+    private double revenue;
+
+    /**
+     * Constructs an empty rollup row of a room type or menu item for a day.
+     *
+     * @param salesDate The day the bookings or orders were made.
+     * @param sourceType Whether the row sums up a room type or a menu item.
+     * @param name The type of the room or name of the menu item.
+     */
+    public DailyItemSales(LocalDate salesDate, BillingEvent.SourceType sourceType, String name) {
+        this.salesDate = salesDate;
+        this.sourceType = sourceType;
+        this.name = name;
+    }
+}
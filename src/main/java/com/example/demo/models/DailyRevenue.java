@@ -0,0 +1,41 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_daily_revenue_date_source", columnNames = {"salesDate","sourceType"}))
+public class DailyRevenue {
+
+    @Id
+    @PooledId
+    // Unique identifier for the rollup row.
+    private Long id;
+    // The day the bookings or orders were made.
+    private LocalDate salesDate;
+    // Whether the row sums up room bookings or food orders.
+    @Enumerated(EnumType.STRING)
+    private BillingEvent.SourceType sourceType;
+    // Number of bills written for the day.
+    private long billCount;
+    // Total amount of the bills written for the day.
+    private double revenue;
+
+    /**
+     * Constructs an empty rollup row of a day.
+     *
+     * @param salesDate The day the bookings or orders were made.
+     * @param sourceType Whether the row sums up room bookings or food orders.
+     */
+    public DailyRevenue(LocalDate salesDate, BillingEvent.SourceType sourceType) {
+        this.salesDate = salesDate;
+        this.sourceType = sourceType;
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.demo.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -11,14 +15,22 @@ import lombok.Setter;
 @Setter
 @Getter
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_feedback_normalized_name", columnList = "normalized_name, id"),
+        @Index(name = "idx_feedback_email", columnList = "email, id")
+})
 @NoArgsConstructor
 public class Feedback {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the feedback.
     private Long id;
     // Name of the person submitting the feedback.
     private String name;
+    @Column(name = "normalized_name")
+    @JsonIgnore
+    // Trimmed, lower case name, kept in sync on every save and used for indexed name lookups.
+    private String normalizedName;
     // The content or description of the feedback.
     private String feedback;
     // Email of the person submitting the feedback.
@@ -39,4 +51,9 @@ public class Feedback {
         this.feedback = feedback;
     }
 
+    @PrePersist
+    @PreUpdate
+    private void normalizeName() {
+        this.normalizedName = NameNormalizer.normalize(name);
+    }
 }
@@ -12,7 +12,7 @@ import lombok.Setter;
 public class Food {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the food item.
     private Long id;
     // Quantity of the food item ordered.
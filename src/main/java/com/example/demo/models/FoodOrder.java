@@ -1,37 +1,46 @@
 package com.example.demo.models;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Setter
 @Getter
 @Entity
+@Table(indexes = @Index(name = "idx_food_order_normalized_name", columnList = "normalized_name, id"))
 @NoArgsConstructor
 public class FoodOrder {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the food order.
     private Long id;
     // Name of the customer who made the order.
     private String customerName;
+    @Column(name = "normalized_name")
+    @JsonIgnore
+    // Trimmed, lower case customer name, kept in sync on every save and used for indexed name lookups.
+    private String normalizedName;
+    // The date and time when the order was placed.
+    private LocalDateTime orderDate;
     @OneToMany(cascade = CascadeType.ALL)
-    @JoinColumn(name = "food_order_id")
-    // List of food items included in the order.
+    @JoinColumn(name = "food_order_id", nullable = false, updatable = false)
+    @BatchSize(size = 100)
+    // List of food items included in the order, loaded for up to 100 orders of the persistence context at once.
     private List<Food> foodItems;
 
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name="bill_id")
-    @JsonManagedReference
     // Bill associated with the food order.
     private Bill bill;
 
     /**
-     * Constructs a new FoodOrder with the specified details.
+     * Constructs a new FoodOrder with the specified details and sets the order date to the current time.
      *
      * @param foodItems The list of food items included in the order.
      * @param customerName The name of the customer who made the order.
@@ -40,7 +49,13 @@ public class FoodOrder {
     public FoodOrder( List<Food> foodItems,String customerName,Bill bill) {
         this.foodItems = foodItems;
         this.customerName=customerName;
+        this.orderDate=LocalDateTime.now();
         this.bill=bill;
     }
 
+    @PrePersist
+    @PreUpdate
+    private void normalizeName() {
+        this.normalizedName = NameNormalizer.normalize(customerName);
+    }
 }
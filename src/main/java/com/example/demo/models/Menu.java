@@ -1,21 +1,25 @@
 package com.example.demo.models;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Setter
 @Entity
 @Getter
 @NoArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu")
 public class Menu {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the menu item.
     private Long id;
     // Name of the menu item.
@@ -26,6 +30,10 @@ public class Menu {
     private Boolean available;
     // Availability count of the menu item(if counts is < unavailable)
     private Integer availableCount;
+    // Optimistic lock version, incremented by every write so that an update based on a stale read is rejected,
+    // null in update requests that don't check it
+    @Version
+    private Long version;
 
     /**
      * Constructs a new Menu with the specified details.
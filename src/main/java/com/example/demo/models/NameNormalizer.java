@@ -0,0 +1,23 @@
+package com.example.demo.models;
+
+import java.util.Locale;
+
+/**
+ * Normalizes customer names into the form stored in the indexed {@code normalized_name} columns,
+ * so that name lookups are case-insensitive and can use an index.
+ */
+public final class NameNormalizer {
+
+    private NameNormalizer() {
+    }
+
+    /**
+     * Normalizes a name for an indexed lookup.
+     *
+     * @param name The name as entered by the customer or front desk.
+     * @return The trimmed, lower case name, or null if the name is null.
+     */
+    public static String normalize(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
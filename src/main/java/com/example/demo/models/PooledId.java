@@ -0,0 +1,18 @@
+package com.example.demo.models;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an id generated from the {@code <entity>_seq} sequence of its entity by {@link PooledSequenceGenerator},
+ * which hands out a whole block of ids per sequence call so that inserts of the entity can be batched.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledId {
+}
@@ -0,0 +1,37 @@
+package com.example.demo.models;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator of the {@link PooledId} ids. Every sequence call reserves {@code hotel.id.allocation_size}
+ * ids, which are then handed out in memory by the pooled-lo optimizer, so persisting a block of rows costs one
+ * sequence call instead of one per row. The sequence keeps the default {@code <entity>_seq} name, on MySQL it is
+ * the same table the ids were read from before. Moving from the pooled to the pooled-lo optimizer is safe, the
+ * next block starts above every id the pooled optimizer handed out.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE = "hotel.id.allocation_size";
+
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type,Properties parameters,ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize=serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE,StandardConverters.INTEGER,DEFAULT_ALLOCATION_SIZE);
+        if(allocationSize<1){
+            throw new MappingException(ALLOCATION_SIZE+" must be at least 1 but was "+allocationSize);
+        }
+        parameters.put(INCREMENT_PARAM,String.valueOf(allocationSize));
+        parameters.putIfAbsent(OPT_PARAM,StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type,parameters,serviceRegistry);
+    }
+}
@@ -1,23 +1,23 @@
 package com.example.demo.models;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.util.HashSet;
-import java.util.Set;
-
 
 @Setter
 @Entity
 @Getter
 @NoArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room")
 public class Room {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledId
     // Unique identifier for the room.
     private Long id;
     // Type or category of the room (e.g., single, double, suite).
@@ -28,12 +28,12 @@ public class Room {
     private Integer price;
     // Availability count of the room of given type
     private Integer availableCount;
-
-    // Mapped to rooms reference in BookRoom Entity to establish bidirectional relationship
-    //between room and BookRoom.
-    @ManyToMany(mappedBy = "rooms")
-    @JsonBackReference
-    private Set<BookRoom> bookRooms;
+    // Total number of rooms of given type, the capacity of every night in the room ledger
+    private Integer totalCount;
+    // Optimistic lock version, incremented by every write so that an update based on a stale read is rejected,
+    // null in update requests that don't check it
+    @Version
+    private Long version;
 
 
     /**
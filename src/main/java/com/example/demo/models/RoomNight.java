@@ -0,0 +1,44 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_room_night_room_night", columnNames = {"roomId","night"}))
+public class RoomNight {
+
+    @Id
+    @PooledId
+    // Unique identifier for the ledger entry.
+    private Long id;
+    // Id of the room booked for the night, the ledger follows the room when its type is renamed.
+    private Long roomId;
+    // Type of the room when the night was first booked.
+    private String roomType;
+    // The night the rooms are booked for, identified by its check-in date.
+    private LocalDate night;
+    // Number of rooms of the given type booked for the night.
+    private Integer bookedCount;
+
+    /**
+     * Constructs a new entry of the nightly room ledger.
+     *
+     * @param roomId The id of the room.
+     * @param roomType The type of the room.
+     * @param night The night the rooms are booked for.
+     * @param bookedCount The number of rooms booked for the night.
+     */
+    public RoomNight(Long roomId, String roomType, LocalDate night, Integer bookedCount) {
+        this.roomId = roomId;
+        this.roomType = roomType;
+        this.night = night;
+        this.bookedCount = bookedCount;
+    }
+}
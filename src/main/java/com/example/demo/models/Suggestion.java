@@ -1,8 +1,6 @@
 package com.example.demo.models;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,7 +12,7 @@ import lombok.Setter;
 @NoArgsConstructor
 public class Suggestion {
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @PooledId
     // Unique identifier for the suggestion.
     private Long id;
     // Name of the person providing the suggestion
@@ -1,8 +1,20 @@
 package com.example.demo.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import com.example.demo.dto.response_dto.BillSummaryDTO;
 import com.example.demo.models.Bill;
+import com.example.demo.models.BillingEvent;
+import org.springframework.data.jpa.repository.Modifying;
 
 /**
  * Repository interface for managing {@link Bill} entities.
@@ -11,5 +23,138 @@ import com.example.demo.models.Bill;
  * </p>
  */
 public interface BillRepository extends JpaRepository<Bill,Long> {
-    
+
+    // Number of rows fetched per round trip when streaming
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Retrieves the next page of {@link Bill} entities after the given id, ordered by id.
+     *
+     * @param id the id of the last Bill of the previous page, 0 for the first page.
+     * @param limit the maximum number of entities to return.
+     * @return a list of at most limit entities with an id greater than the given id.
+     */
+    List<Bill> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Retrieves the next page of bills of room bookings whose normalized customer name starts with the given prefix, ordered by id.
+     *
+     * @param prefix the normalized prefix of the customer name.
+     * @param id the id of the last Bill of the previous page, 0 for the first page.
+     * @param limit the maximum number of bills to return.
+     * @return a list of at most limit bills with an id greater than the given id.
+     */
+    @Query("select b.bill from BookRoom b where b.normalizedName like :#{escape(#prefix)}% escape :#{escapeCharacter()} and b.bill.id > :id order by b.bill.id")
+    List<Bill> findBookedRoomBillsByCustomerNamePrefix(@Param("prefix") String prefix, @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the next page of bills of food orders whose normalized customer name starts with the given prefix, ordered by id.
+     *
+     * @param prefix the normalized prefix of the customer name.
+     * @param id the id of the last Bill of the previous page, 0 for the first page.
+     * @param limit the maximum number of bills to return.
+     * @return a list of at most limit bills with an id greater than the given id.
+     */
+    @Query("select f.bill from FoodOrder f where f.normalizedName like :#{escape(#prefix)}% escape :#{escapeCharacter()} and f.bill.id > :id order by f.bill.id")
+    List<Bill> findFoodOrderBillsByCustomerNamePrefix(@Param("prefix") String prefix, @Param("id") Long id, Limit limit);
+
+    /**
+     * Streams all {@link Bill} entities ordered by id, fetching {@value #STREAM_FETCH_SIZE} rows per round trip.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream over all entities.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select b from Bill b order by b.id")
+    Stream<Bill> streamAllByOrderByIdAsc();
+
+    /**
+     * Retrieves the columns of all {@link Bill} entities shown by the bill list, ordered by id,
+     * without loading the entities.
+     *
+     * @return a list of bill summaries.
+     */
+    @Query("select new com.example.demo.dto.response_dto.BillSummaryDTO(b.id, b.date, b.totalAmount, b.sourceType, b.sourceId) from Bill b order by b.id")
+    List<BillSummaryDTO> findAllSummaries();
+
+    /**
+     * Finds the bill written for a booking or order through the source index.
+     *
+     * @param sourceType whether the bill belongs to a room booking or a food order.
+     * @param sourceId the id of the booking or order.
+     * @return an {@link Optional} containing the bill if it was written, otherwise empty
+     */
+    Optional<Bill> findFirstBySourceTypeAndSourceId(BillingEvent.SourceType sourceType, Long sourceId);
+
+    /**
+     * Fills the source of the bills of room bookings written before bills had a source.
+     *
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update Bill b set b.sourceType = com.example.demo.models.BillingEvent.SourceType.BOOK_ROOM, " +
+            "b.sourceId = (select r.id from BookRoom r where r.bill = b) " +
+            "where b.sourceType is null and exists (select r.id from BookRoom r where r.bill = b)")
+    int backfillBookedRoomSources();
+
+    /**
+     * Fills the source of the bills of food orders written before bills had a source.
+     *
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update Bill b set b.sourceType = com.example.demo.models.BillingEvent.SourceType.FOOD_ORDER, " +
+            "b.sourceId = (select f.id from FoodOrder f where f.bill = b) " +
+            "where b.sourceType is null and exists (select f.id from FoodOrder f where f.bill = b)")
+    int backfillFoodOrderSources();
+
+    /**
+     * Counts and sums the written bills of a guest per source, one row for room bookings and one for food orders.
+     * The totals are computed by the database from the bill and booking or order tables, no entity is loaded.
+     *
+     * @param normalizedName the normalized name of the customer.
+     * @return one row per source, with a count of 0 and a total of 0 if the guest has no bill of that source.
+     */
+    @Query(value = "select 'BOOK_ROOM' as source, count(b.id) as billCount, coalesce(sum(b.total_amount), 0) as totalAmount " +
+            "from book_room r join bill b on b.id = r.room_bill_id where r.normalized_name = :name " +
+            "union all " +
+            "select 'FOOD_ORDER' as source, count(b.id) as billCount, coalesce(sum(b.total_amount), 0) as totalAmount " +
+            "from food_order f join bill b on b.id = f.bill_id where f.normalized_name = :name",
+            nativeQuery = true)
+    List<FolioTotal> findFolioTotalsByNormalizedName(@Param("name") String normalizedName);
+
+    /**
+     * Finds the room bookings and food orders of a guest that have no written bill yet, whose bills may still be
+     * pending in the billing stage.
+     *
+     * @param normalizedName the normalized name of the customer.
+     * @return one row per booking or order without a bill.
+     */
+    @Query(value = "select 'BOOK_ROOM' as source, r.id as sourceId from book_room r where r.normalized_name = :name and r.room_bill_id is null " +
+            "union all " +
+            "select 'FOOD_ORDER' as source, f.id as sourceId from food_order f where f.normalized_name = :name and f.bill_id is null",
+            nativeQuery = true)
+    List<UnbilledSource> findUnbilledSourcesByNormalizedName(@Param("name") String normalizedName);
+
+    /**
+     * Number and total amount of the bills of a guest for one source.
+     */
+    interface FolioTotal {
+
+        String getSource();
+
+        long getBillCount();
+
+        double getTotalAmount();
+    }
+
+    /**
+     * Room booking or food order of a guest without a written bill.
+     */
+    interface UnbilledSource {
+
+        String getSource();
+
+        long getSourceId();
+    }
 }
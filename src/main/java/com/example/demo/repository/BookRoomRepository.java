@@ -2,6 +2,18 @@ package com.example.demo.repository;
 
 import com.example.demo.models.BookRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 import java.util.Optional;
 
@@ -14,11 +26,108 @@ import java.util.Optional;
  */
 public interface BookRoomRepository extends JpaRepository<BookRoom,Long> {
 
+    // Number of rows fetched per round trip when streaming
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Retrieves the latest {@link BookRoom} entity of a customer through the normalized name index.
+     *
+     * @param normalizedName the normalized name of the customer associated with the booked room.
+     * @return an {@link Optional} containing the latest {@link BookRoom} if found, or empty if no room is found.
+     */
+    Optional<BookRoom> findFirstByNormalizedNameOrderByIdDesc(String normalizedName);
+
+    /**
+     * Retrieves the ids of the next page of {@link BookRoom} entities whose normalized customer name starts with the given prefix, ordered by id.
+     *
+     * @param prefix the normalized prefix of the customer name.
+     * @param id the id of the last BookRoom of the previous page, 0 for the first page.
+     * @param limit the maximum number of ids to return.
+     * @return a list of at most limit ids of matching entities greater than the given id.
+     */
+    @Query("select b.id from BookRoom b where b.normalizedName like :#{escape(#prefix)}% escape :#{escapeCharacter()} and b.id > :id order by b.id")
+    List<Long> findIdsByCustomerNamePrefix(@Param("prefix") String prefix, @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the ids of the next page of {@link BookRoom} entities after the given id, ordered by id.
+     *
+     * @param id the id of the last BookRoom of the previous page, 0 for the first page.
+     * @param limit the maximum number of ids to return.
+     * @return a list of at most limit ids greater than the given id.
+     */
+    @Query("select b.id from BookRoom b where b.id > :id order by b.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Fills the normalized name of {@link BookRoom} rows saved before the column existed.
+     *
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update BookRoom b set b.normalizedName = lower(trim(b.customerName)) where b.normalizedName is null and b.customerName is not null")
+    int backfillNormalizedNames();
+
     /**
-     * Retrieves a {@link BookRoom} entity by the customer's name.
+     * Retrieves the ids of the given {@link BookRoom} entities that have no bill yet.
      *
-     * @param name the name of the customer associated with the booked room.
-     * @return an {@link Optional} containing the {@link BookRoom} if found, or empty if no room is found.
+     * @param ids the ids to check.
+     * @return the ids of the existing entities without a bill.
      */
-    Optional<BookRoom> getBookRoomByCustomerName(String name);
+    @Query("select b.id from BookRoom b where b.bill is null and b.id in :ids")
+    List<Long> findUnbilledIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the columns of all {@link BookRoom} entities shown by the booking list, one row per booked room type,
+     * ordered by booking id. Bookings without rooms are returned once with a null room type, bookings whose bill
+     * is not written yet with a null total amount.
+     *
+     * @return a list of booking rows.
+     */
+    @Query("select b.id as id, b.customerName as customerName, b.bookingDate as bookingDate, b.checkInDate as checkInDate, " +
+            "b.checkOutDate as checkOutDate, l.roomType as roomType, bill.totalAmount as totalAmount " +
+            "from BookRoom b left join b.bookingLines l left join b.bill bill order by b.id, l.id")
+    List<BookedRoomRow> findAllSummaryRows();
+
+    /**
+     * Streams the same rows as {@link #findAllSummaryRows()}, fetching {@value #STREAM_FETCH_SIZE} rows per round trip.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream over the booking rows.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select b.id as id, b.customerName as customerName, b.bookingDate as bookingDate, b.checkInDate as checkInDate, " +
+            "b.checkOutDate as checkOutDate, l.roomType as roomType, bill.totalAmount as totalAmount " +
+            "from BookRoom b left join b.bookingLines l left join b.bill bill order by b.id, l.id")
+    Stream<BookedRoomRow> streamAllSummaryRows();
+
+    /**
+     * Retrieves the same rows as {@link #findAllSummaryRows()} for the given {@link BookRoom} entities only.
+     *
+     * @param ids the ids of the bookings, such as the ids of one page.
+     * @return a list of the booking rows of the given bookings.
+     */
+    @Query("select b.id as id, b.customerName as customerName, b.bookingDate as bookingDate, b.checkInDate as checkInDate, " +
+            "b.checkOutDate as checkOutDate, l.roomType as roomType, bill.totalAmount as totalAmount " +
+            "from BookRoom b left join b.bookingLines l left join b.bill bill where b.id in :ids order by b.id, l.id")
+    List<BookedRoomRow> findSummaryRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * One booked room type of a booking, as selected by {@link #findAllSummaryRows()}.
+     */
+    interface BookedRoomRow {
+
+        Long getId();
+
+        String getCustomerName();
+
+        LocalDateTime getBookingDate();
+
+        LocalDate getCheckInDate();
+
+        LocalDate getCheckOutDate();
+
+        String getRoomType();
+
+        Double getTotalAmount();
+    }
 }
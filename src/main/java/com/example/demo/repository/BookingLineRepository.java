@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.models.BookingLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing {@link BookingLine} entities.
+ * <p>
+ * Extends {@link JpaRepository} to provide CRUD operations for the lines of the bookings. Lines are normally
+ * inserted together with their booking.
+ * </p>
+ */
+public interface BookingLineRepository extends JpaRepository<BookingLine,Long> {
+}
@@ -1,6 +1,13 @@
 package com.example.demo.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
+import java.util.stream.Stream;
 
 import com.example.demo.models.Complaint;
 
@@ -11,5 +18,26 @@ import com.example.demo.models.Complaint;
  * </p>
  */
 public interface ComplaintRepository extends JpaRepository<Complaint,Long> {
-    
+
+    // Number of rows fetched per round trip when streaming
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Retrieves the next page of {@link Complaint} entities after the given id, ordered by id.
+     *
+     * @param id the id of the last Complaint of the previous page, 0 for the first page.
+     * @param limit the maximum number of entities to return.
+     * @return a list of at most limit entities with an id greater than the given id.
+     */
+    List<Complaint> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Streams all {@link Complaint} entities ordered by id, fetching {@value #STREAM_FETCH_SIZE} rows per round trip.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream over all entities.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select c from Complaint c order by c.id")
+    Stream<Complaint> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,36 @@
+package com.example.demo.repository;
+
+import com.example.demo.models.BillingEvent;
+import com.example.demo.models.DailyItemSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link DailyItemSales} entities.
+ * <p>
+ * Extends {@link JpaRepository} to provide CRUD operations for the daily rollup of room types and menu items.
+ * </p>
+ */
+public interface DailyItemSalesRepository extends JpaRepository<DailyItemSales,Long> {
+
+    /**
+     * Retrieves the rollup rows of the given days, used to add a batch of bills to them.
+     *
+     * @param salesDates the days to retrieve.
+     * @return a list of the {@link DailyItemSales} rows of the days.
+     */
+    List<DailyItemSales> findBySalesDateIn(Collection<LocalDate> salesDates);
+
+    /**
+     * Retrieves the rollup rows of the room types or of the menu items for a range of days.
+     *
+     * @param sourceType {@code BOOK_ROOM} for room types, {@code FOOD_ORDER} for menu items.
+     * @param from the first day to retrieve.
+     * @param to the last day to retrieve.
+     * @return a list of the {@link DailyItemSales} rows of the range ordered by day and name.
+     */
+    List<DailyItemSales> findBySourceTypeAndSalesDateBetweenOrderBySalesDateAscNameAsc(BillingEvent.SourceType sourceType, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,34 @@
+package com.example.demo.repository;
+
+import com.example.demo.models.DailyRevenue;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link DailyRevenue} entities.
+ * <p>
+ * Extends {@link JpaRepository} to provide CRUD operations for the daily revenue rollup.
+ * </p>
+ */
+public interface DailyRevenueRepository extends JpaRepository<DailyRevenue,Long> {
+
+    /**
+     * Retrieves the rollup rows of the given days, used to add a batch of bills to them.
+     *
+     * @param salesDates the days to retrieve.
+     * @return a list of the {@link DailyRevenue} rows of the days, days without bills are missing.
+     */
+    List<DailyRevenue> findBySalesDateIn(Collection<LocalDate> salesDates);
+
+    /**
+     * Retrieves the rollup rows of a range of days.
+     *
+     * @param from the first day to retrieve.
+     * @param to the last day to retrieve.
+     * @return a list of the {@link DailyRevenue} rows of the range ordered by day.
+     */
+    List<DailyRevenue> findBySalesDateBetweenOrderBySalesDate(LocalDate from, LocalDate to);
+}
@@ -2,6 +2,14 @@ package com.example.demo.repository;
 
 import com.example.demo.models.BookRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
+import java.util.stream.Stream;
 
 import com.example.demo.models.Feedback;
 
@@ -15,19 +23,52 @@ import java.util.Optional;
  */
 public interface FeedbackRepository extends JpaRepository<Feedback,Long>{
 
+    // Number of rows fetched per round trip when streaming
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Retrieves the latest {@link Feedback} entity submitted with an email through the email index.
+     *
+     * @param email the email of the customer who submitted the feedback.
+     * @return an {@link Optional} containing the latest {@link Feedback} if found, or empty if no feedback is found.
+     */
+     Optional<Feedback> findFirstByEmailOrderByIdDesc(String email);
+
+    /**
+     * Retrieves the next page of {@link Feedback} entities whose normalized name starts with the given prefix, ordered by id.
+     *
+     * @param prefix the normalized prefix of the name.
+     * @param id the id of the last Feedback of the previous page, 0 for the first page.
+     * @param limit the maximum number of entities to return.
+     * @return a list of at most limit matching entities with an id greater than the given id.
+     */
+    List<Feedback> findByNormalizedNameStartingWithAndIdGreaterThanOrderByIdAsc(String prefix, Long id, Limit limit);
+
+    /**
+     * Retrieves the next page of {@link Feedback} entities after the given id, ordered by id.
+     *
+     * @param id the id of the last Feedback of the previous page, 0 for the first page.
+     * @param limit the maximum number of entities to return.
+     * @return a list of at most limit entities with an id greater than the given id.
+     */
+    List<Feedback> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
     /**
-     * Retrieves a {@link Feedback} entity by the customer's name.
+     * Streams all {@link Feedback} entities ordered by id, fetching {@value #STREAM_FETCH_SIZE} rows per round trip.
+     * The stream must be consumed and closed inside a transaction.
      *
-     * @param name the name of the customer associated with the booked room.
-     * @return an {@link Optional} containing the {@link Feedback} if found, or empty if no room is found.
+     * @return a stream over all entities.
      */
-     Optional<Feedback> getFeedbackByName(String name);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select f from Feedback f order by f.id")
+    Stream<Feedback> streamAllByOrderByIdAsc();
 
     /**
-     * Retrieves a {@link Feedback} entity by the customer's name.
+     * Fills the normalized name of {@link Feedback} rows saved before the column existed.
      *
-     * @param email the name of the customer associated with the booked room.
-     * @return an {@link Optional} containing the {@link Feedback} if found, or empty if no room is found.
+     * @return the number of updated rows.
      */
-     Optional<Feedback> getFeedbackByEmail(String email);
-}
\ No newline at end of file
+    @Modifying
+    @Query("update Feedback f set f.normalizedName = lower(trim(f.name)) where f.normalizedName is null and f.name is not null")
+    int backfillNormalizedNames();
+}
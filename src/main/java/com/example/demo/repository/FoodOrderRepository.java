@@ -1,6 +1,17 @@
 package com.example.demo.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 import com.example.demo.models.FoodOrder;
 
@@ -15,12 +26,109 @@ import java.util.Optional;
  */
 public interface FoodOrderRepository extends JpaRepository<FoodOrder,Long> {
 
+    // Number of rows fetched per round trip when streaming
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Finds the latest FoodOrder of a customer through the normalized name index.
+     *
+     * @param normalizedName the normalized name of the customer associated with the FoodOrder
+     * @return an {@link Optional} containing the latest FoodOrder if found, otherwise empty
+     */
+     Optional<FoodOrder> findFirstByNormalizedNameOrderByIdDesc(String normalizedName);
+
+    /**
+     * Retrieves the ids of the next page of {@link FoodOrder} entities whose normalized customer name starts with the given prefix, ordered by id.
+     *
+     * @param prefix the normalized prefix of the customer name.
+     * @param id the id of the last FoodOrder of the previous page, 0 for the first page.
+     * @param limit the maximum number of ids to return.
+     * @return a list of at most limit ids of matching entities greater than the given id.
+     */
+    @Query("select f.id from FoodOrder f where f.normalizedName like :#{escape(#prefix)}% escape :#{escapeCharacter()} and f.id > :id order by f.id")
+    List<Long> findIdsByCustomerNamePrefix(@Param("prefix") String prefix, @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the ids of the next page of {@link FoodOrder} entities after the given id, ordered by id.
+     *
+     * @param id the id of the last FoodOrder of the previous page, 0 for the first page.
+     * @param limit the maximum number of ids to return.
+     * @return a list of at most limit ids greater than the given id.
+     */
+    @Query("select f.id from FoodOrder f where f.id > :id order by f.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves one row per ordered food item of every {@link FoodOrder}, ordered by order and item id,
+     * with one row without a food item for orders without items. Neither orders nor items are loaded as entities.
+     *
+     * @return the food item rows of all orders.
+     */
+    @Query("select o.id as id, o.customerName as customerName, o.orderDate as orderDate, f.foodName as foodName, " +
+            "f.quantity as quantity from FoodOrder o left join o.foodItems f order by o.id, f.id")
+    List<FoodOrderItemRow> findAllItemRows();
+
+    /**
+     * Streams the same rows as {@link #findAllItemRows()}, fetching {@value #STREAM_FETCH_SIZE} rows per round trip.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream over the food item rows.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select o.id as id, o.customerName as customerName, o.orderDate as orderDate, f.foodName as foodName, " +
+            "f.quantity as quantity from FoodOrder o left join o.foodItems f order by o.id, f.id")
+    Stream<FoodOrderItemRow> streamAllItemRows();
+
+    /**
+     * Retrieves the same rows as {@link #findAllItemRows()} for the given {@link FoodOrder} entities only.
+     *
+     * @param ids the ids of the orders, such as the ids of one page.
+     * @return the food item rows of the given orders.
+     */
+    @Query("select o.id as id, o.customerName as customerName, o.orderDate as orderDate, f.foodName as foodName, " +
+            "f.quantity as quantity from FoodOrder o left join o.foodItems f where o.id in :ids order by o.id, f.id")
+    List<FoodOrderItemRow> findItemRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * One ordered food item of a food order, as selected by {@link #findAllItemRows()}.
+     */
+    interface FoodOrderItemRow {
+
+        Long getId();
+
+        String getCustomerName();
+
+        LocalDateTime getOrderDate();
+
+        String getFoodName();
+
+        Long getQuantity();
+    }
+
+    /**
+     * Fills the order date of {@link FoodOrder} rows saved before the column existed with the date of their bill.
+     *
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update FoodOrder f set f.orderDate = (select b.date from Bill b where b = f.bill) where f.orderDate is null and f.bill is not null")
+    int backfillOrderDates();
+
+    /**
+     * Fills the normalized name of {@link FoodOrder} rows saved before the column existed.
+     *
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update FoodOrder f set f.normalizedName = lower(trim(f.customerName)) where f.normalizedName is null and f.customerName is not null")
+    int backfillNormalizedNames();
+
     /**
-     * Finds a FoodOrder by the customer's name.
+     * Retrieves the ids of the given {@link FoodOrder} entities that have no bill yet.
      *
-     * @param customerName the name of the customer associated with the FoodOrder
-     * @return an {@link Optional} containing the FoodOrder if found, otherwise empty
+     * @param ids the ids to check.
+     * @return the ids of the existing entities without a bill.
      */
-     Optional<FoodOrder> getFoodOrderByCustomerName(String customerName);
-    
+    @Query("select f.id from FoodOrder f where f.bill is null and f.id in :ids")
+    List<Long> findUnbilledIds(@Param("ids") Collection<Long> ids);
 }
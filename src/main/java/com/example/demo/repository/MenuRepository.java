@@ -1,17 +1,41 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.response_dto.MenuRowDTO;
 import com.example.demo.models.Menu;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Menu} entities.
  * <p>
- * Extends {@link JpaRepository} to provide CRUD operations for Menu entities.
+ * Extends {@link JpaRepository} to provide CRUD operations for Menu entities. Menu items are kept in the
+ * second-level cache and the results of the menu lookups in the query cache, the stock decrement evicts the
+ * menu items it updates.
  * </p>
  */
-public interface MenuRepository extends JpaRepository<Menu,Long> {
+public interface MenuRepository extends JpaRepository<Menu,Long>, MenuStockRepository {
+
+    // Number of rows fetched per round trip when streaming
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Retrieves all {@link Menu} entities, from the query cache once they were read.
+     *
+     * @return a list of all menu items.
+     */
+     @Override
+     @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+     List<Menu> findAll();
 
     /**
      * Retrieves a {@link Menu} entity by its item name.
@@ -19,6 +43,46 @@ public interface MenuRepository extends JpaRepository<Menu,Long> {
      * @param itemName the name of the menu item.
      * @return an {@link Optional} containing the {@link Menu} entity if found, otherwise empty.
      */
+     @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
      Optional<Menu> getMenuByItemName(String itemName);
 
+    /**
+     * Retrieves the stock of the given {@link Menu} entities from the database in a single query, bypassing the
+     * second-level cache, so the counts include the stock decrements of the current transaction.
+     *
+     * @param ids the ids of the menu items.
+     * @return a list of stock rows, unknown ids are simply missing.
+     */
+     @Query("select m.id as id, m.availableCount as availableCount, m.available as available from Menu m where m.id in :ids")
+     List<MenuStockRow> findStockRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the item names of all {@link Menu} entities, used to find duplicates of a bulk import with one query.
+     *
+     * @return a list of all item names.
+     */
+     @Query("select m.itemName from Menu m")
+     List<String> findAllItemNames();
+
+    /**
+     * Streams the columns of all {@link Menu} entities exported by the bulk export, ordered by id,
+     * fetching {@value #STREAM_FETCH_SIZE} rows per round trip. The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream over all menu rows.
+     */
+     @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+     @Query("select new com.example.demo.dto.response_dto.MenuRowDTO(m.itemName, m.price, m.available, m.availableCount) from Menu m order by m.id")
+     Stream<MenuRowDTO> streamAllRows();
+
+    /**
+     * The stock of one menu item, as selected by {@link #findStockRowsByIdIn(Collection)}.
+     */
+    interface MenuStockRow {
+
+        Long getId();
+
+        Integer getAvailableCount();
+
+        Boolean getAvailable();
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom repository fragment taking ordered quantities out of the menu stock with plain JDBC.
+ */
+public interface MenuStockRepository {
+
+    /**
+     * Decrements the available count of every menu item by its ordered quantity in a single JDBC batch.
+     * Every update is guarded by {@code available_count >= quantity}, so stock taken by a concurrent order
+     * is never driven below zero; such items are returned instead of being updated. The statements bypass
+     * Hibernate, so the decremented items are evicted from the second-level cache once the transaction completes.
+     *
+     * @param quantitiesByMenuId the ordered quantity keyed by the id of the menu item.
+     * @return the ids of the menu items that had not enough stock left, empty if all items were decremented.
+     */
+    List<Long> decrementAvailableCounts(Map<Long,Long> quantitiesByMenuId);
+}
@@ -0,0 +1,70 @@
+package com.example.demo.repository;
+
+import com.example.demo.models.Menu;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link MenuStockRepository}. The statements join the transaction of the caller.
+ */
+public class MenuStockRepositoryImpl implements MenuStockRepository {
+
+    // The availability flag is assigned first, so it is computed from the count before the decrement on every database
+    private static final String DECREMENT_SQL =
+            "update menu set available = (available_count > ?), available_count = available_count - ?, version = version + 1 where id = ? and available_count >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Second-level cache holding the menu items updated by the decrement
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<Long> decrementAvailableCounts(Map<Long,Long> quantitiesByMenuId) {
+        List<Long> menuIds=new ArrayList<>(quantitiesByMenuId.keySet());
+        List<Object[]> batchArgs=new ArrayList<>(menuIds.size());
+        for(Long menuId:menuIds){
+            Long quantity=quantitiesByMenuId.get(menuId);
+            batchArgs.add(new Object[]{quantity,quantity,menuId,quantity});
+        }
+        int[] updatedRows=jdbcTemplate.batchUpdate(DECREMENT_SQL,batchArgs);
+        List<Long> outOfStock=new ArrayList<>();
+        List<Long> decremented=new ArrayList<>();
+        for(int i=0;i<updatedRows.length;i++){
+            (updatedRows[i]==0?outOfStock:decremented).add(menuIds.get(i));
+        }
+        evictAfterCompletion(decremented);
+        return outOfStock;
+    }
+
+    private void evictAfterCompletion(List<Long> menuIds){
+        if(menuIds.isEmpty()){
+            return;
+        }
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            evict(menuIds);
+            return;
+        }
+        //evicting before the commit would let a concurrent read cache the old count again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(menuIds);
+            }
+        });
+    }
+
+    private void evict(List<Long> menuIds){
+        for(Long menuId:menuIds){
+            entityManagerFactory.getCache().evict(Menu.class,menuId);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.repository;
+
+import com.example.demo.models.RoomNight;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link RoomNight} entities.
+ * <p>
+ * Extends {@link JpaRepository} to provide CRUD operations for the nightly room ledger.
+ * </p>
+ */
+public interface RoomNightRepository extends JpaRepository<RoomNight,Long> {
+
+    /**
+     * Retrieves the ledger entries of a room starting from the given night.
+     *
+     * @param roomId the id of the room.
+     * @param night the first night to retrieve.
+     * @return a list of the {@link RoomNight} entries of the room from the given night onwards.
+     */
+    List<RoomNight> findByRoomIdAndNightGreaterThanEqual(Long roomId, LocalDate night);
+
+    /**
+     * Retrieves the ledger entries of several rooms starting from the given night.
+     *
+     * @param roomIds the ids of the rooms.
+     * @param night the first night to retrieve.
+     * @return a list of the {@link RoomNight} entries of the rooms from the given night onwards.
+     */
+    List<RoomNight> findByRoomIdInAndNightGreaterThanEqual(Collection<Long> roomIds, LocalDate night);
+
+    /**
+     * Retrieves the ledger entries of all rooms for a range of nights.
+     *
+     * @param from the first night to retrieve.
+     * @param to the last night to retrieve.
+     * @return a list of the {@link RoomNight} entries of the range ordered by night and room id.
+     */
+    List<RoomNight> findByNightBetweenOrderByNightAscRoomIdAsc(LocalDate from, LocalDate to);
+
+    /**
+     * Fills the room id of {@link RoomNight} rows saved before the column existed from the room with their type.
+     * Nights of rooms deleted since keep no room id and are ignored by the ledger.
+     *
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update RoomNight n set n.roomId = (select r.id from Room r where r.type = n.roomType) where n.roomId is null")
+    int backfillRoomIds();
+}
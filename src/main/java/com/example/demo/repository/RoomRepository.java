@@ -2,25 +2,112 @@ package com.example.demo.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import com.example.demo.dto.response_dto.RoomRowDTO;
+import com.example.demo.dto.response_dto.RoomSummaryDTO;
 import com.example.demo.models.Room;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Room} entities.
  * <p>
- * Extends {@link JpaRepository} to provide CRUD operations for Room entities.
+ * Extends {@link JpaRepository} to provide CRUD operations for Room entities. Rooms are kept in the second-level
+ * cache and the results of the room lookups in the query cache, both are invalidated by Hibernate when rooms are
+ * saved or their availability is updated.
  * </p>
  */
 public interface RoomRepository extends JpaRepository<Room,Long> {
 
+    // Number of rows fetched per round trip when streaming
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Retrieves all {@link Room} entities, from the query cache once they were read.
+     *
+     * @return a list of all rooms.
+     */
+     @Override
+     @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+     List<Room> findAll();
+
     /**
      * Retrieves a {@link Room} entity by its type.
      *
      * @param type the type of the room.
      * @return an {@link Optional} containing the {@link Room} entity if found, otherwise empty.
      */
+     @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
      Optional<Room> getRoomByType(String type);
-    
+
+    /**
+     * Retrieves all {@link Room} entities whose type is one of the given types in a single query.
+     *
+     * @param types the types of the rooms.
+     * @return a list of the {@link Room} entities found, rooms of unknown types are simply missing.
+     */
+     @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+     List<Room> findByTypeIn(Collection<String> types);
+
+    /**
+     * Overwrites the availability count and flag of the room with the given type.
+     * Used by the room inventory to write reserved counts back without loading the entity. The version is
+     * incremented, so an administrator update based on the row before the write-back is retried.
+     *
+     * @param type the type of the room.
+     * @param availableCount the new availability count of the room.
+     * @param available the new availability status of the room.
+     * @return the number of updated rows.
+     */
+     @Modifying
+     @Query("update Room r set r.availableCount = :availableCount, r.available = :available, r.version = r.version + 1 where r.type = :type")
+     int updateAvailabilityByType(@Param("type") String type,
+                                  @Param("availableCount") Integer availableCount,
+                                  @Param("available") Boolean available);
+
+    /**
+     * Fills the total count of {@link Room} rows saved before the column existed. Rooms taken by bookings without
+     * dates were subtracted from the availability count and are never given back, so they are added to it again.
+     *
+     * @return the number of updated rows.
+     */
+     @Modifying
+     @Query("update Room r set r.totalCount = r.availableCount + coalesce((select sum(l.roomCount) from BookingLine l where l.room = r and l.bookRoom.checkInDate is null), 0) where r.totalCount is null and r.availableCount is not null")
+     int backfillTotalCounts();
+
+    /**
+     * Retrieves the columns of all {@link Room} entities shown by the room list, ordered by id,
+     * without loading the entities or their bookings.
+     *
+     * @return a list of room summaries.
+     */
+     @Query("select new com.example.demo.dto.response_dto.RoomSummaryDTO(r.id, r.type, r.available, r.price, r.availableCount, r.totalCount) from Room r order by r.id")
+     List<RoomSummaryDTO> findAllSummaries();
+
+    /**
+     * Retrieves the types of all {@link Room} entities, used to find duplicates of a bulk import with one query.
+     *
+     * @return a list of all room types.
+     */
+     @Query("select r.type from Room r")
+     List<String> findAllTypes();
+
+    /**
+     * Streams the columns of all {@link Room} entities exported by the bulk export, ordered by id,
+     * fetching {@value #STREAM_FETCH_SIZE} rows per round trip. The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream over all room rows.
+     */
+     @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+     @Query("select new com.example.demo.dto.response_dto.RoomRowDTO(r.type, r.available, r.price, r.availableCount, r.totalCount) from Room r order by r.id")
+     Stream<RoomRowDTO> streamAllRows();
 }
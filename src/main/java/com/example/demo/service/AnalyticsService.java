@@ -0,0 +1,208 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.DailyRevenueDTO;
+import com.example.demo.dto.response_dto.ItemSalesDTO;
+import com.example.demo.dto.response_dto.RoomOccupancyDTO;
+import com.example.demo.exception_handler.analytics_exceptions.InvalidDateRangeException;
+import com.example.demo.models.BillingEvent;
+import com.example.demo.models.DailyItemSales;
+import com.example.demo.models.DailyRevenue;
+import com.example.demo.models.Room;
+import com.example.demo.models.RoomNight;
+import com.example.demo.repository.DailyItemSalesRepository;
+import com.example.demo.repository.DailyRevenueRepository;
+import com.example.demo.repository.RoomNightRepository;
+import com.example.demo.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Revenue and occupancy figures for the management dashboard.
+ * <p>
+ * Revenue is summed up per day and per room type or menu item in rollup tables that the billing stage updates
+ * in the transaction writing a batch of bills, so a dashboard reads one row per day and item instead of every bill.
+ * Bookings and orders count for the day they were made, stays for the day they were booked. Occupancy is read
+ * from the nightly room ledger, which already holds the booked rooms of every room type and night.
+ * </p>
+ */
+@Service
+public class AnalyticsService {
+
+    // Days shown when no range is requested
+    private static final int DEFAULT_DAYS = 30;
+
+    // Longest range a dashboard can request at once
+    @Value("${hotel.analytics.max-days:366}")
+    private int maxDays;
+
+    // Rollup of the bills per day
+    @Autowired
+    private DailyRevenueRepository dailyRevenueRepository;
+
+    // Rollup of the bills per day and room type or menu item
+    @Autowired
+    private DailyItemSalesRepository dailyItemSalesRepository;
+
+    // Nightly room ledger giving the booked rooms of every night
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    // Rooms giving the capacity of every room type
+    @Autowired
+    private RoomRepository roomRepository;
+
+    /**
+     * Adds a batch of written bills to the rollups. Runs in the transaction writing the bills, so a bill is
+     * counted exactly when it is written.
+     *
+     * @param events The events of the written bills.
+     */
+    public void rollUp(List<BillingEvent> events){
+        if(events.isEmpty()){
+            return;
+        }
+        Set<LocalDate> dates=new HashSet<>();
+        for(BillingEvent event:events){
+            dates.add(event.getDate().toLocalDate());
+        }
+        Map<String,DailyRevenue> revenues=new HashMap<>();
+        for(DailyRevenue revenue:dailyRevenueRepository.findBySalesDateIn(dates)){
+            revenues.put(keyOf(revenue.getSalesDate(),revenue.getSourceType(),null),revenue);
+        }
+        Map<String,DailyItemSales> sales=new HashMap<>();
+        for(DailyItemSales itemSales:dailyItemSalesRepository.findBySalesDateIn(dates)){
+            sales.put(keyOf(itemSales.getSalesDate(),itemSales.getSourceType(),itemSales.getName()),itemSales);
+        }
+        for(BillingEvent event:events){
+            LocalDate date=event.getDate().toLocalDate();
+            DailyRevenue revenue=revenues.computeIfAbsent(keyOf(date,event.getSourceType(),null),
+                    key->new DailyRevenue(date,event.getSourceType()));
+            revenue.setBillCount(revenue.getBillCount()+1);
+            revenue.setRevenue(revenue.getRevenue()+event.getTotalAmount());
+            for(BillingEvent.Line line:event.getLines()){
+                DailyItemSales itemSales=sales.computeIfAbsent(keyOf(date,event.getSourceType(),line.getName()),
+                        key->new DailyItemSales(date,event.getSourceType(),line.getName()));
+                itemSales.setQuantity(itemSales.getQuantity()+line.getQuantity());
+                itemSales.setUnits(itemSales.getUnits()+line.getUnits());
+                itemSales.setRevenue(itemSales.getRevenue()+line.getAmount());
+            }
+        }
+        dailyRevenueRepository.saveAll(revenues.values());
+        dailyItemSalesRepository.saveAll(sales.values());
+    }
+
+    /**
+     * Returns the revenue of every day of a range with bills, split by room bookings and food orders.
+     *
+     * @param from The first day, 30 days before the last day if null.
+     * @param to The last day, today if null.
+     * @return The revenue of the days with bills ordered by day.
+     */
+    public List<DailyRevenueDTO> getDailyRevenue(LocalDate from,LocalDate to){
+        LocalDate last=lastDay(to);
+        LocalDate first=firstDay(from,last);
+        Map<LocalDate,DailyRevenueDTO> days=new LinkedHashMap<>();
+        for(DailyRevenue revenue:dailyRevenueRepository.findBySalesDateBetweenOrderBySalesDate(first,last)){
+            DailyRevenueDTO day=days.computeIfAbsent(revenue.getSalesDate(),date->new DailyRevenueDTO(date,0,0,0,0,0));
+            if(revenue.getSourceType()==BillingEvent.SourceType.BOOK_ROOM){
+                day.setRoomRevenue(revenue.getRevenue());
+                day.setRoomBills(revenue.getBillCount());
+            }else{
+                day.setFoodRevenue(revenue.getRevenue());
+                day.setFoodBills(revenue.getBillCount());
+            }
+            day.setTotalRevenue(day.getRoomRevenue()+day.getFoodRevenue());
+        }
+        return new ArrayList<>(days.values());
+    }
+
+    /**
+     * Returns the rooms booked and their revenue per day and room type.
+     *
+     * @param from The first day, 30 days before the last day if null.
+     * @param to The last day, today if null.
+     * @return The sales of the room types ordered by day and type, the units are room-nights.
+     */
+    public List<ItemSalesDTO> getRoomTypeSales(LocalDate from,LocalDate to){
+        return getItemSales(BillingEvent.SourceType.BOOK_ROOM,from,to);
+    }
+
+    /**
+     * Returns the menu items ordered and their revenue per day and menu item.
+     *
+     * @param from The first day, 30 days before the last day if null.
+     * @param to The last day, today if null.
+     * @return The sales of the menu items ordered by day and name.
+     */
+    public List<ItemSalesDTO> getMenuItemSales(LocalDate from,LocalDate to){
+        return getItemSales(BillingEvent.SourceType.FOOD_ORDER,from,to);
+    }
+
+    /**
+     * Returns the share of rooms booked per night and room type for the nights of a range with bookings.
+     *
+     * @param from The first night, 30 days before the last night if null.
+     * @param to The last night, today if null.
+     * @return The occupancy of the rooms ordered by night and room id.
+     */
+    public List<RoomOccupancyDTO> getOccupancy(LocalDate from,LocalDate to){
+        LocalDate last=lastDay(to);
+        LocalDate first=firstDay(from,last);
+        Map<Long,Room> rooms=new HashMap<>();
+        for(Room room:roomRepository.findAll()){
+            rooms.put(room.getId(),room);
+        }
+        List<RoomOccupancyDTO> occupancy=new ArrayList<>();
+        for(RoomNight night:roomNightRepository.findByNightBetweenOrderByNightAscRoomIdAsc(first,last)){
+            Room room=rooms.get(night.getRoomId());
+            if(room==null){
+                //the room was deleted since
+                continue;
+            }
+            int capacity=room.getTotalCount()==null?0:room.getTotalCount();
+            double rate=capacity==0?0:(double) night.getBookedCount()/capacity;
+            occupancy.add(new RoomOccupancyDTO(night.getNight(),room.getType(),night.getBookedCount(),capacity,rate));
+        }
+        return occupancy;
+    }
+
+    private List<ItemSalesDTO> getItemSales(BillingEvent.SourceType sourceType,LocalDate from,LocalDate to){
+        LocalDate last=lastDay(to);
+        LocalDate first=firstDay(from,last);
+        List<ItemSalesDTO> sales=new ArrayList<>();
+        for(DailyItemSales itemSales:dailyItemSalesRepository.findBySourceTypeAndSalesDateBetweenOrderBySalesDateAscNameAsc(sourceType,first,last)){
+            sales.add(new ItemSalesDTO(itemSales.getSalesDate(),itemSales.getName(),itemSales.getQuantity(),itemSales.getUnits(),itemSales.getRevenue()));
+        }
+        return sales;
+    }
+
+    private LocalDate lastDay(LocalDate to){
+        return to==null?LocalDate.now():to;
+    }
+
+    private LocalDate firstDay(LocalDate from,LocalDate last){
+        LocalDate first=from==null?last.minusDays(DEFAULT_DAYS-1):from;
+        if(first.isAfter(last)){
+            throw new InvalidDateRangeException("Invalid date range, from "+first+" is after to "+last);
+        }
+        if(ChronoUnit.DAYS.between(first,last)>=maxDays){
+            throw new InvalidDateRangeException("Invalid date range, at most "+maxDays+" days can be requested at once");
+        }
+        return first;
+    }
+
+    private static String keyOf(LocalDate date,BillingEvent.SourceType sourceType,String name){
+        return date+":"+sourceType+(name==null?"":":"+name);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.AvailabilityChangeDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes changes of room and menu availability to connected screens as server-sent events.
+ * <p>
+ * A change is only put into a bounded buffer of every subscriber, keyed by room type or menu item, so rapid
+ * changes of the same item are coalesced into the latest one and publishing never waits for a client. The buffers
+ * are sent every {@code hotel.availability.stream.flush-interval-ms} by a small pool of sender threads with at most
+ * one send in flight per subscriber, a slow client only delays itself. A subscriber whose buffer overflows is
+ * disconnected and reloads the availability when it reconnects.
+ * </p>
+ */
+@Service
+public class AvailabilityStreamService {
+
+    public static final String ROOM = "room";
+
+    public static final String MENU = "menu";
+
+    // Maximum number of distinct rooms and menu items waiting to be sent to one subscriber
+    @Value("${hotel.availability.stream.buffer-size:256}")
+    private int bufferSize;
+
+    // How long a subscription stays open before the client has to reconnect
+    @Value("${hotel.availability.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // Connected subscribers
+    private final Map<Subscriber,Boolean> subscribers=new ConcurrentHashMap<>();
+
+    // Threads writing the events to the clients
+    private final ExecutorService senders;
+
+    // Number of subscribers disconnected because their buffer overflowed
+    private final LongAdder overflows=new LongAdder();
+
+    public AvailabilityStreamService(@Value("${hotel.availability.stream.sender-threads:4}") int senderThreads){
+        senders=Executors.newFixedThreadPool(senderThreads,runnable->{
+            Thread thread=new Thread(runnable,"availability-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a subscription to availability changes.
+     *
+     * @return The emitter of the subscription.
+     */
+    public SseEmitter subscribe(){
+        SseEmitter emitter=new SseEmitter(timeoutMs);
+        Subscriber subscriber=new Subscriber(emitter);
+        subscribers.put(subscriber,Boolean.TRUE);
+        emitter.onCompletion(()->subscribers.remove(subscriber));
+        emitter.onTimeout(()->subscribers.remove(subscriber));
+        emitter.onError(e->subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Publishes a change of availability to all subscribers without waiting for any of them.
+     *
+     * @param kind {@value #ROOM} or {@value #MENU}.
+     * @param name The room type or menu item name.
+     * @param availableCount The new availability count, null if the room or menu item was deleted.
+     * @param available The new availability status.
+     */
+    public void publish(String kind,String name,Integer availableCount,Boolean available){
+        if(subscribers.isEmpty()){
+            return;
+        }
+        AvailabilityChangeDTO change=new AvailabilityChangeDTO(kind,name,availableCount,available);
+        for(Subscriber subscriber:subscribers.keySet()){
+            if(!subscriber.offer(change)){
+                overflows.increment();
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Hands the buffered changes of every subscriber that is not busy with a previous send to the sender threads.
+     */
+    @Scheduled(fixedDelayString = "${hotel.availability.stream.flush-interval-ms:250}")
+    public void flush(){
+        for(Subscriber subscriber:subscribers.keySet()){
+            if(subscriber.hasPending()&&subscriber.sending.compareAndSet(false,true)){
+                senders.execute(()->send(subscriber));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of connected subscribers.
+     *
+     * @return The subscriber count.
+     */
+    public int getSubscriberCount(){
+        return subscribers.size();
+    }
+
+    /**
+     * Returns the number of subscribers disconnected because they could not keep up.
+     *
+     * @return The overflow count.
+     */
+    public long getOverflowCount(){
+        return overflows.sum();
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        senders.shutdownNow();
+        for(Subscriber subscriber:subscribers.keySet()){
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void send(Subscriber subscriber){
+        try{
+            for(AvailabilityChangeDTO change:subscriber.drain()){
+                subscriber.emitter.send(SseEmitter.event().name(change.getKind()).data(change));
+            }
+        }catch (IOException|IllegalStateException e){
+            //the client went away, the emitter reports the error to its callbacks
+            subscribers.remove(subscriber);
+        }finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    /**
+     * A connected client with its coalescing buffer of changes.
+     */
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Latest change of every room and menu item not sent yet, in the order the items first changed
+        private final LinkedHashMap<String,AvailabilityChangeDTO> pending=new LinkedHashMap<>();
+
+        // Whether a sender thread is writing to this client
+        private final AtomicBoolean sending=new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter){
+            this.emitter=emitter;
+        }
+
+        private synchronized boolean offer(AvailabilityChangeDTO change){
+            String key=change.getKind()+":"+change.getName();
+            if(pending.size()>=bufferSize&&!pending.containsKey(key)){
+                return false;
+            }
+            pending.put(key,change);
+            return true;
+        }
+
+        private synchronized boolean hasPending(){
+            return !pending.isEmpty();
+        }
+
+        private synchronized List<AvailabilityChangeDTO> drain(){
+            List<AvailabilityChangeDTO> changes=new ArrayList<>(pending.values());
+            pending.clear();
+            return changes;
+        }
+    }
+}
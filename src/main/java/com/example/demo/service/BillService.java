@@ -1,19 +1,28 @@
 package com.example.demo.service;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 
 import com.example.demo.exception_handler.bill_exceptions.NoBillFoundException;
+import com.example.demo.models.BillingEvent;
 import com.example.demo.models.BookRoom;
 import com.example.demo.models.FoodOrder;
 import com.example.demo.repository.BookRoomRepository;
 import com.example.demo.repository.FoodOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.example.demo.dto.response_dto.BillSummaryDTO;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.dto.response_dto.GuestFolioDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.function.Function;
 
 import com.example.demo.models.Bill;
+import com.example.demo.models.NameNormalizer;
 import com.example.demo.repository.BillRepository;
 @Service
 public class BillService {
@@ -22,6 +31,10 @@ public class BillService {
     @Autowired
     private BillRepository billRepository;
 
+    // Service writing the streamed bills as newline-delimited JSON
+    @Autowired
+    private NdjsonStreamService ndjsonStreamService;
+
     // Repository to perform CRUD operations on FoodOrder entities
     @Autowired
     private FoodOrderRepository foodOrderRepository;
@@ -30,14 +43,56 @@ public class BillService {
     @Autowired
     private BookRoomRepository bookRoomRepository;
 
+    // Billing stage holding the bills that are not written yet
+    @Autowired
+    private BillingService billingService;
+
 
     /**
-     * Retrieve all bills from the database.
+     * Retrieve all bills from the database, followed by the bills that are not written yet.
      *
      * @return a list of all bills
      */
     public List<Bill> findAllBills() {
-        return billRepository.findAll();
+        List<Bill> bills=new ArrayList<>(billRepository.findAll());
+        bills.addAll(billingService.getPendingBills());
+        return bills;
+    }
+
+    /**
+     * Retrieve the summaries of all bills ordered by id, selecting only the columns shown by the bill list,
+     * followed by the bills that are not written yet.
+     *
+     * @return a list of all bill summaries
+     */
+    public List<BillSummaryDTO> findAllBillSummaries() {
+        List<BillSummaryDTO> bills=new ArrayList<>(billRepository.findAllSummaries());
+        for(Bill bill:billingService.getPendingBills()){
+            bills.add(new BillSummaryDTO(null,bill.getDate(),bill.getTotalAmount(),bill.getSourceType(),bill.getSourceId()));
+        }
+        return bills;
+    }
+
+    /**
+     * Retrieves one page of bills ordered by id, starting after the given cursor.
+     *
+     * @param cursor The id of the last bill of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of bills and the cursor of the next page.
+     */
+    public CursorPageDTO<Bill> findBillPage(Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Bill> bills=billRepository.findByIdGreaterThanOrderByIdAsc(cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return CursorPageDTO.of(bills,pageSize,Bill::getId);
+    }
+
+    /**
+     * Streams all bills ordered by id as newline-delimited JSON.
+     *
+     * @return The response body writing one bill per line.
+     */
+    public StreamingResponseBody streamAllBills(){
+        return ndjsonStreamService.stream(billRepository::streamAllByOrderByIdAsc,Function.identity());
     }
 
 
@@ -75,62 +130,153 @@ public class BillService {
 
 
     /**
-     * Retrieve the bill associated with a specific food order by its ID.
+     * Retrieve the bill associated with a specific food order by its ID, read through the bill source index
+     * without loading the food order.
      *
      * @param orderId the ID of the food order
      * @return the bill associated with the food order
      * @throws NoBillFoundException if no bill is found for the given food order ID
      */
     public Bill getFoodOrderBillById(Long orderId){
-        Optional<FoodOrder> foodOrder=foodOrderRepository.findById(orderId);
-        if(foodOrder.isEmpty()){
+        Bill bill=billOf(BillingEvent.SourceType.FOOD_ORDER,orderId);
+        if(bill==null){
             throw new NoBillFoundException("No Bill Found for food Order with Id "+orderId);
         }
-        return foodOrder.get().getBill();
+        return bill;
     }
 
     /**
-     * Retrieve the bill associated with a specific booked room by its ID.
+     * Retrieve the bill associated with a specific booked room by its ID, read through the bill source index
+     * without loading the booking.
      *
      * @param bookedRoomId the ID of the booked room
      * @return the bill associated with the booked room
      * @throws NoBillFoundException if no bill is found for the given booked room ID
      */
     public Bill getBookedRoomBillById(Long bookedRoomId){
-        Optional<BookRoom> bookedRoom=bookRoomRepository.findById(bookedRoomId);
-        if(bookedRoom.isEmpty()){
+        Bill bill=billOf(BillingEvent.SourceType.BOOK_ROOM,bookedRoomId);
+        if(bill==null){
             throw new NoBillFoundException("No Bill Found for the Booked Room with Id "+bookedRoomId);
         }
-        return bookedRoom.get().getBill();
+        return bill;
     }
 
     /**
-     * Retrieve the bill associated with a food order by the customer's name.
+     * Retrieve the bill associated with the latest food order of a customer, ignoring the case of the name.
      *
      * @param name the name of the customer
-     * @return the bill associated with the customer's food order
+     * @return the bill associated with the customer's latest food order
      * @throws NoBillFoundException if no bill is found for the given customer name
      */
     public Bill getFoodOrderBillByCustomerName(String name){
-        Optional<FoodOrder> foodOrder=foodOrderRepository.getFoodOrderByCustomerName(name);
+        Optional<FoodOrder> foodOrder=foodOrderRepository.findFirstByNormalizedNameOrderByIdDesc(NameNormalizer.normalize(name));
         if(foodOrder.isEmpty()){
             throw new NoBillFoundException("No Bill Found for the Food Order with Customer name "+name);
         }
-        return foodOrder.get().getBill();
+        return billOf(foodOrder.get());
     }
 
     /**
-     * Retrieve the bill associated with a booked room by the customer's name.
+     * Retrieve the bill associated with the latest booked room of a customer, ignoring the case of the name.
      *
      * @param name the name of the customer
-     * @return the bill associated with the customer's booked room
+     * @return the bill associated with the customer's latest booked room
      * @throws NoBillFoundException if no bill is found for the given customer name
      */
     public Bill getBookedRoomBillByCustomerName(String name){
-        Optional<BookRoom> bookedRoom=bookRoomRepository.getBookRoomByCustomerName(name);
+        Optional<BookRoom> bookedRoom=bookRoomRepository.findFirstByNormalizedNameOrderByIdDesc(NameNormalizer.normalize(name));
         if(bookedRoom.isEmpty()){
             throw new NoBillFoundException("No Bill Found for the Booked Room with Customer Name "+name);
         }
-        return bookedRoom.get().getBill();
+        return billOf(bookedRoom.get());
+    }
+
+    /**
+     * Retrieve the folio of a guest, the number and total amount of all their room and food bills, ignoring the case of the name.
+     * The written bills are summed by a single aggregate query, the bills still pending in the billing stage are added
+     * for the bookings and orders of the guest that have no written bill yet. The bookings and orders without a bill
+     * are read before the written totals so that a bill written in between is counted at most once.
+     *
+     * @param name the name of the customer
+     * @return the folio of the guest
+     * @throws NoBillFoundException if the guest has no bill
+     */
+    public GuestFolioDTO getGuestFolioByCustomerName(String name){
+        GuestFolioDTO folio=new GuestFolioDTO();
+        folio.setCustomerName(name);
+        String normalizedName=NameNormalizer.normalize(name);
+        List<BillRepository.UnbilledSource> unbilledSources=billRepository.findUnbilledSourcesByNormalizedName(normalizedName);
+        for(BillRepository.FolioTotal total:billRepository.findFolioTotalsByNormalizedName(normalizedName)){
+            if(BillingEvent.SourceType.BOOK_ROOM.name().equals(total.getSource())){
+                folio.setRoomBillCount(total.getBillCount());
+                folio.setRoomTotal(total.getTotalAmount());
+            }else{
+                folio.setFoodBillCount(total.getBillCount());
+                folio.setFoodTotal(total.getTotalAmount());
+            }
+        }
+        for(BillRepository.UnbilledSource source:unbilledSources){
+            BillingEvent.SourceType sourceType=BillingEvent.SourceType.valueOf(source.getSource());
+            Bill pendingBill=billingService.getPendingBill(sourceType,source.getSourceId());
+            if(pendingBill==null){
+                continue;
+            }
+            if(sourceType==BillingEvent.SourceType.BOOK_ROOM){
+                folio.setRoomBillCount(folio.getRoomBillCount()+1);
+                folio.setRoomTotal(folio.getRoomTotal()+pendingBill.getTotalAmount());
+            }else{
+                folio.setFoodBillCount(folio.getFoodBillCount()+1);
+                folio.setFoodTotal(folio.getFoodTotal()+pendingBill.getTotalAmount());
+            }
+        }
+        if(folio.getRoomBillCount()==0&&folio.getFoodBillCount()==0){
+            throw new NoBillFoundException("No Bills Found for the Customer Name "+name);
+        }
+        folio.setTotal(folio.getRoomTotal()+folio.getFoodTotal());
+        return folio;
+    }
+
+    /**
+     * Retrieve one page of the bills of food orders whose customer name starts with the given prefix, ignoring case.
+     *
+     * @param namePrefix the prefix of the customer name
+     * @param cursor the id of the last bill of the previous page, null for the first page
+     * @param size the requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}
+     * @return the page of bills and the cursor of the next page
+     */
+    public CursorPageDTO<Bill> searchFoodOrderBillsByCustomerName(String namePrefix,Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Bill> bills=billRepository.findFoodOrderBillsByCustomerNamePrefix(
+                NameNormalizer.normalize(namePrefix),cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return CursorPageDTO.of(bills,pageSize,Bill::getId);
+    }
+
+    /**
+     * Retrieve one page of the bills of booked rooms whose customer name starts with the given prefix, ignoring case.
+     *
+     * @param namePrefix the prefix of the customer name
+     * @param cursor the id of the last bill of the previous page, null for the first page
+     * @param size the requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}
+     * @return the page of bills and the cursor of the next page
+     */
+    public CursorPageDTO<Bill> searchBookedRoomBillsByCustomerName(String namePrefix,Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Bill> bills=billRepository.findBookedRoomBillsByCustomerNamePrefix(
+                NameNormalizer.normalize(namePrefix),cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return CursorPageDTO.of(bills,pageSize,Bill::getId);
+    }
+
+    // The bill of a booking or order, the pending bill if the billing stage has not written it yet
+    private Bill billOf(BillingEvent.SourceType sourceType,Long sourceId){
+        return billRepository.findFirstBySourceTypeAndSourceId(sourceType,sourceId)
+                .orElseGet(()->billingService.getPendingBill(sourceType,sourceId));
+    }
+
+    private Bill billOf(BookRoom bookRoom){
+        return bookRoom.getBill()!=null?bookRoom.getBill():billingService.getPendingBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId());
+    }
+
+    private Bill billOf(FoodOrder foodOrder){
+        return foodOrder.getBill()!=null?foodOrder.getBill():billingService.getPendingBill(BillingEvent.SourceType.FOOD_ORDER,foodOrder.getId());
     }
 }
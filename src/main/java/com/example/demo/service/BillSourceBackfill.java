@@ -0,0 +1,28 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.BillRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills the source type and source id of bills written before bills had a source, from the booking or order
+ * linked to the bill, so that the bill lookups by booking or order id also find them.
+ * New bills get their source when the billing stage writes them.
+ */
+@Component
+public class BillSourceBackfill implements ApplicationRunner {
+
+    // Repository used to backfill the bills
+    @Autowired
+    private BillRepository billRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        billRepository.backfillBookedRoomSources();
+        billRepository.backfillFoodOrderSources();
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.demo.service;
+
+import com.example.demo.models.BillingEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only file journal of the billing events whose bills have not been written yet.
+ * <p>
+ * An event line is appended, and forced to disk, before the booking or order that created it commits, and a
+ * done line is appended once its bill is written. Concurrent appends are group committed: the event lines are
+ * collected in a batch, one appending thread writes and forces the whole batch with a single fsync while the
+ * others wait, and every waiting append returns once the batch holding its line is on disk. Done lines are only
+ * written, and the file only truncated, while no batch is being written. The events without a done line are the bills that were not
+ * written when the application stopped, they are returned by {@link #open()} on the next start. The file is
+ * truncated whenever no event is outstanding, so it only grows with the bills waiting to be written.
+ * </p>
+ */
+@Service
+public class BillingJournal {
+
+    private static final String EVENT = "E";
+
+    private static final String DONE = "D";
+
+    private static final String LINE_SEPARATOR = ";";
+
+    private static final String LINE_FIELD_SEPARATOR = ":";
+
+    // Location of the journal file
+    @Value("${hotel.billing.journal-file:billing-journal.log}")
+    private String journalFile;
+
+    // Whether every append is forced to disk before the request returns
+    @Value("${hotel.billing.fsync:true}")
+    private boolean fsync;
+
+    private FileChannel channel;
+
+    // Sequences of the appended events that are not done yet
+    private final Set<Long> outstanding=new HashSet<>();
+
+    // Event lines appended since the last batch was taken for writing
+    private Batch currentBatch=new Batch();
+
+    // Whether an appending thread is writing a batch
+    private boolean writingBatch;
+
+    // Number of batches written, each with a single fsync
+    private final LongAdder batchWrites=new LongAdder();
+
+    // Highest sequence found in the journal when it was opened
+    private long lastSequence;
+
+    /**
+     * Opens the journal for appending and reads the events that were appended but never marked as done.
+     *
+     * @return The outstanding events in the order they were appended.
+     */
+    public synchronized List<BillingEvent> open(){
+        Path path=Paths.get(journalFile);
+        Map<Long,BillingEvent> events=new LinkedHashMap<>();
+        try{
+            if(path.getParent()!=null){
+                Files.createDirectories(path.getParent());
+            }
+            if(Files.exists(path)){
+                for(String line:Files.readAllLines(path,StandardCharsets.UTF_8)){
+                    readLine(line,events);
+                }
+            }
+            channel=FileChannel.open(path,StandardOpenOption.CREATE,StandardOpenOption.WRITE,StandardOpenOption.APPEND);
+        }catch (IOException e){
+            throw new UncheckedIOException("Billing journal "+path+" can't be opened",e);
+        }
+        outstanding.addAll(events.keySet());
+        return new ArrayList<>(events.values());
+    }
+
+    /**
+     * Returns the highest sequence found in the journal when it was opened.
+     *
+     * @return The last sequence, 0 for an empty journal.
+     */
+    public synchronized long getLastSequence(){
+        return lastSequence;
+    }
+
+    /**
+     * Appends an event to the journal and returns once it is on disk, together with the events appended concurrently.
+     *
+     * @param event The billing event.
+     */
+    public void append(BillingEvent event){
+        String line=String.join(",",EVENT,String.valueOf(event.getSequence()),event.getSourceType().name(),
+                String.valueOf(event.getSourceId()),String.valueOf(event.getTotalAmount()),
+                String.valueOf(event.getDate().toInstant(ZoneOffset.UTC).toEpochMilli()),encodeLines(event.getLines()))+"\n";
+        Batch batch;
+        synchronized (this){
+            batch=currentBatch;
+            batch.lines.append(line);
+            batch.sequences.add(event.getSequence());
+            outstanding.add(event.getSequence());
+        }
+        awaitWritten(batch);
+    }
+
+    /**
+     * Returns the number of batches of appended events written to the journal, each forced to disk once.
+     *
+     * @return The batch write count.
+     */
+    public long getBatchWriteCount(){
+        return batchWrites.sum();
+    }
+
+    /**
+     * Marks events as done because their bills were written or their booking or order was rolled back.
+     * The done lines are written once no batch of event lines is being written, so that the lines never interleave
+     * and the truncation of the journal never cuts off a batch.
+     *
+     * @param sequences The sequences of the events.
+     */
+    public synchronized void markDone(Collection<Long> sequences){
+        if(sequences.isEmpty()){
+            return;
+        }
+        while(writingBatch){
+            try{
+                wait();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the billing journal",e);
+            }
+        }
+        StringBuilder lines=new StringBuilder();
+        for(Long sequence:sequences){
+            lines.append(DONE).append(',').append(sequence).append('\n');
+            outstanding.remove(sequence);
+        }
+        if(outstanding.isEmpty()){
+            truncate();
+        }else{
+            write(lines.toString());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if(channel!=null){
+            channel.close();
+        }
+    }
+
+    private void readLine(String line,Map<Long,BillingEvent> events){
+        String[] fields=line.split(",");
+        try{
+            //events journaled before the lines were added have six fields
+            if(fields[0].equals(EVENT)&&(fields.length==6||fields.length==7)){
+                long sequence=Long.parseLong(fields[1]);
+                LocalDateTime date=LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(fields[5])),ZoneOffset.UTC);
+                events.put(sequence,new BillingEvent(sequence,BillingEvent.SourceType.valueOf(fields[2]),
+                        Long.parseLong(fields[3]),Double.parseDouble(fields[4]),date,
+                        fields.length==7?decodeLines(fields[6]):List.of()));
+                lastSequence=Math.max(lastSequence,sequence);
+            }else if(fields[0].equals(DONE)&&fields.length==2){
+                events.remove(Long.parseLong(fields[1]));
+            }
+        }catch (IllegalArgumentException e){
+            //a line cut off by a crash while it was written is ignored, its request never returned
+        }
+    }
+
+    private static String encodeLines(List<BillingEvent.Line> lines){
+        StringBuilder encoded=new StringBuilder();
+        for(BillingEvent.Line line:lines){
+            if(encoded.length()>0){
+                encoded.append(LINE_SEPARATOR);
+            }
+            //names are URL encoded, so they contain none of the separators
+            encoded.append(URLEncoder.encode(line.getName(),StandardCharsets.UTF_8)).append(LINE_FIELD_SEPARATOR)
+                    .append(line.getQuantity()).append(LINE_FIELD_SEPARATOR)
+                    .append(line.getUnits()).append(LINE_FIELD_SEPARATOR)
+                    .append(line.getAmount());
+        }
+        return encoded.toString();
+    }
+
+    private static List<BillingEvent.Line> decodeLines(String encoded){
+        List<BillingEvent.Line> lines=new ArrayList<>();
+        for(String line:encoded.split(LINE_SEPARATOR)){
+            String[] fields=line.split(LINE_FIELD_SEPARATOR);
+            if(fields.length==4){
+                lines.add(new BillingEvent.Line(URLDecoder.decode(fields[0],StandardCharsets.UTF_8),
+                        Long.parseLong(fields[1]),Long.parseLong(fields[2]),Double.parseDouble(fields[3])));
+            }
+        }
+        return lines;
+    }
+
+    //waits until the batch is written, the first waiting thread finding no batch being written writes the current one
+    private void awaitWritten(Batch batch){
+        while(true){
+            Batch writing;
+            synchronized (this){
+                while(!batch.done&&writingBatch){
+                    try{
+                        wait();
+                    }catch (InterruptedException e){
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for the billing journal",e);
+                    }
+                }
+                if(batch.done){
+                    if(batch.failure!=null){
+                        throw batch.failure;
+                    }
+                    return;
+                }
+                //the batch is not done and not being written, so it is still the current one
+                writingBatch=true;
+                writing=currentBatch;
+                currentBatch=new Batch();
+            }
+            try{
+                write(writing.lines.toString());
+                batchWrites.increment();
+            }catch (RuntimeException e){
+                writing.failure=e;
+            }
+            synchronized (this){
+                if(writing.failure!=null){
+                    //the appends fail, so their bookings and orders roll back without marking them done
+                    outstanding.removeAll(writing.sequences);
+                }
+                writing.done=true;
+                writingBatch=false;
+                notifyAll();
+            }
+        }
+    }
+
+    private void write(String lines){
+        try{
+            ByteBuffer buffer=ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            if(fsync){
+                channel.force(false);
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException("Billing journal "+journalFile+" can't be written",e);
+        }
+    }
+
+    private void truncate(){
+        try{
+            channel.truncate(0);
+            if(fsync){
+                channel.force(false);
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException("Billing journal "+journalFile+" can't be truncated",e);
+        }
+    }
+
+    /**
+     * Event lines forced to disk together, guarded by the journal.
+     */
+    private static class Batch {
+
+        private final StringBuilder lines=new StringBuilder();
+
+        private final List<Long> sequences=new ArrayList<>();
+
+        private boolean done;
+
+        private RuntimeException failure;
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.demo.service;
+
+import com.example.demo.models.Bill;
+import com.example.demo.models.BillingEvent;
+import com.example.demo.repository.BillRepository;
+import com.example.demo.repository.BookRoomRepository;
+import com.example.demo.repository.FoodOrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind billing stage for room bookings and food orders.
+ * <p>
+ * Booking a room or ordering food only records a {@link BillingEvent} in the {@link BillingJournal}, the bills are
+ * written by {@link #flush()} in batches of {@code hotel.billing.batch-size} and linked to their booking or order
+ * with one JDBC batch per batch of bills. Bills that are not written yet are returned by {@link #getPendingBill}
+ * so that bill lookups still see them, and the events left in the journal are written after a restart. Every batch
+ * is added to the revenue rollups of the {@link AnalyticsService} in the same transaction.
+ * </p>
+ */
+@Service
+public class BillingService {
+
+    // Maximum number of bills written in one transaction
+    @Value("${hotel.billing.batch-size:500}")
+    private int batchSize;
+
+    // Journal keeping the events until their bills are written
+    @Autowired
+    private BillingJournal billingJournal;
+
+    // Repository used to insert the bills
+    @Autowired
+    private BillRepository billRepository;
+
+    // Repositories used to skip bookings and orders that were billed or deleted in the meantime
+    @Autowired
+    private BookRoomRepository bookRoomRepository;
+
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    // Links the written bills to their bookings and orders in JDBC batches
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Rollups of revenue per day, room type and menu item, updated with every batch of bills
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    // Transaction manager used to write a whole batch of bills in one transaction
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong sequence=new AtomicLong();
+
+    // Events of committed bookings and orders waiting to be written
+    private final ConcurrentLinkedQueue<BillingEvent> queue=new ConcurrentLinkedQueue<>();
+
+    // Events whose bill could not be written while the rest of their batch was, kept in the journal
+    private final ConcurrentLinkedQueue<BillingEvent> parked=new ConcurrentLinkedQueue<>();
+
+    // Events keyed by source until their bills are written, used by the bill lookups
+    private final ConcurrentHashMap<String,BillingEvent> pendingBySource=new ConcurrentHashMap<>();
+
+    /**
+     * Queues the events that were left in the journal when the application stopped.
+     */
+    @PostConstruct
+    public void replayJournal(){
+        for(BillingEvent event:billingJournal.open()){
+            enqueue(event);
+        }
+        sequence.set(billingJournal.getLastSequence());
+    }
+
+    /**
+     * Records the bill of a booking or order. The event is journaled right away and written as a bill once the
+     * surrounding transaction commits, it is dropped if the transaction rolls back.
+     *
+     * @param sourceType Whether the bill belongs to a room booking or a food order.
+     * @param sourceId The id of the saved booking or order.
+     * @param totalAmount The total amount of the bill.
+     */
+    public void recordBill(BillingEvent.SourceType sourceType,Long sourceId,double totalAmount){
+        recordBill(sourceType,sourceId,totalAmount,List.of());
+    }
+
+    /**
+     * Records the bill of a booking or order together with the room types or menu items it charges for,
+     * which are added to the revenue rollups when the bill is written. The bill is only returned as a pending
+     * bill once the surrounding transaction committed, so lookups never see the bill of a rolled back booking.
+     *
+     * @param sourceType Whether the bill belongs to a room booking or a food order.
+     * @param sourceId The id of the saved booking or order.
+     * @param totalAmount The total amount of the bill.
+     * @param lines The booked room types or ordered menu items.
+     */
+    public void recordBill(BillingEvent.SourceType sourceType,Long sourceId,double totalAmount,List<BillingEvent.Line> lines){
+        BillingEvent event=new BillingEvent(sequence.incrementAndGet(),sourceType,sourceId,totalAmount,LocalDateTime.now(),lines);
+        billingJournal.append(event);
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            enqueue(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if(status==STATUS_COMMITTED){
+                    enqueue(event);
+                }else{
+                    billingJournal.markDone(List.of(event.getSequence()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the bill of a booking or order that has not been written yet.
+     *
+     * @param sourceType Whether the bill belongs to a room booking or a food order.
+     * @param sourceId The id of the booking or order.
+     * @return The pending bill without an id, or null if there is none.
+     */
+    public Bill getPendingBill(BillingEvent.SourceType sourceType,Long sourceId){
+        BillingEvent event=pendingBySource.get(keyOf(sourceType,sourceId));
+        return event==null?null:event.toBill();
+    }
+
+    /**
+     * Returns all bills that have not been written yet.
+     *
+     * @return The pending bills without ids.
+     */
+    public List<Bill> getPendingBills(){
+        List<Bill> bills=new ArrayList<>();
+        for(BillingEvent event:pendingBySource.values()){
+            bills.add(event.toBill());
+        }
+        return bills;
+    }
+
+    /**
+     * Returns the number of bills that have not been written yet.
+     *
+     * @return the pending count.
+     */
+    public int getPendingCount(){
+        return pendingBySource.size();
+    }
+
+    /**
+     * Writes the bills of all queued events, one transaction per batch.
+     * A batch that fails is split in halves that are written on their own, down to single events, so that one
+     * event that can't be written does not hold back the others. Such an event is parked: its bill stays pending
+     * and in the journal, to be written again after a restart, and it is counted by {@link #getParkedCount()}.
+     * If no part of a batch can be written the database is taken to be unavailable, the batch is queued again
+     * and the failure is thrown.
+     */
+    @Scheduled(fixedDelayString = "${hotel.billing.flush-interval-ms:200}")
+    public void flush(){
+        while(!queue.isEmpty()){
+            List<BillingEvent> batch=new ArrayList<>();
+            BillingEvent event;
+            while(batch.size()<batchSize&&(event=queue.poll())!=null){
+                batch.add(event);
+            }
+            try{
+                writeBatch(batch);
+            }catch (RuntimeException e){
+                List<BillingEvent> failed=new ArrayList<>();
+                if(writeSplit(batch,failed)==0){
+                    queue.addAll(batch);
+                    throw e;
+                }
+                parked.addAll(failed);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events whose bill could not be written while the other bills of their batch were.
+     *
+     * @return the parked count.
+     */
+    public int getParkedCount(){
+        return parked.size();
+    }
+
+    /**
+     * Writes outstanding bills before the application shuts down.
+     */
+    @PreDestroy
+    public void flushOnShutdown(){
+        flush();
+    }
+
+    private void writeBatch(List<BillingEvent> batch){
+        new TransactionTemplate(transactionManager).executeWithoutResult(status->write(batch));
+        List<Long> sequences=new ArrayList<>();
+        for(BillingEvent written:batch){
+            sequences.add(written.getSequence());
+            pendingBySource.remove(keyOf(written.getSourceType(),written.getSourceId()),written);
+        }
+        billingJournal.markDone(sequences);
+    }
+
+    //writes both halves of a failed batch on their own, collecting the single events that fail, and returns the number written
+    private int writeSplit(List<BillingEvent> batch,List<BillingEvent> failed){
+        if(batch.size()==1){
+            failed.add(batch.get(0));
+            return 0;
+        }
+        int written=0;
+        for(List<BillingEvent> half:List.of(batch.subList(0,batch.size()/2),batch.subList(batch.size()/2,batch.size()))){
+            try{
+                writeBatch(half);
+                written+=half.size();
+            }catch (RuntimeException e){
+                written+=writeSplit(half,failed);
+            }
+        }
+        return written;
+    }
+
+    private void write(List<BillingEvent> batch){
+        List<Long> bookingIds=new ArrayList<>();
+        List<Long> orderIds=new ArrayList<>();
+        for(BillingEvent event:batch){
+            (event.getSourceType()==BillingEvent.SourceType.BOOK_ROOM?bookingIds:orderIds).add(event.getSourceId());
+        }
+        //events replayed after a crash may already have been written, and bookings or orders may have been deleted
+        Set<Long> unbilledBookings=bookingIds.isEmpty()?Set.of():new HashSet<>(bookRoomRepository.findUnbilledIds(bookingIds));
+        Set<Long> unbilledOrders=orderIds.isEmpty()?Set.of():new HashSet<>(foodOrderRepository.findUnbilledIds(orderIds));
+        List<BillingEvent> billedEvents=new ArrayList<>();
+        List<Bill> bills=new ArrayList<>();
+        for(BillingEvent event:batch){
+            Set<Long> unbilled=event.getSourceType()==BillingEvent.SourceType.BOOK_ROOM?unbilledBookings:unbilledOrders;
+            if(unbilled.remove(event.getSourceId())){
+                billedEvents.add(event);
+                bills.add(event.toBill());
+            }
+        }
+        billRepository.saveAllAndFlush(bills);
+        List<Object[]> bookingBills=new ArrayList<>();
+        List<Object[]> orderBills=new ArrayList<>();
+        for(int i=0;i<billedEvents.size();i++){
+            BillingEvent event=billedEvents.get(i);
+            (event.getSourceType()==BillingEvent.SourceType.BOOK_ROOM?bookingBills:orderBills)
+                    .add(new Object[]{bills.get(i).getId(),event.getSourceId()});
+        }
+        jdbcTemplate.batchUpdate("update book_room set room_bill_id=? where id=?",bookingBills);
+        jdbcTemplate.batchUpdate("update food_order set bill_id=? where id=?",orderBills);
+        analyticsService.rollUp(billedEvents);
+    }
+
+    private void enqueue(BillingEvent event){
+        pendingBySource.put(keyOf(event.getSourceType(),event.getSourceId()),event);
+        queue.add(event);
+    }
+
+    private static String keyOf(BillingEvent.SourceType sourceType,Long sourceId){
+        return sourceType.name()+":"+sourceId;
+    }
+}
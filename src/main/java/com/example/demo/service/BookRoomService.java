@@ -3,20 +3,34 @@ package com.example.demo.service;
 
 import com.example.demo.dto.request_dto.BookRoomRequestDTO;
 import com.example.demo.dto.response_dto.RoomBookingSuccessDTO;
+import com.example.demo.dto.response_dto.RoomRangeAvailabilityDTO;
 import com.example.demo.dto.response_dto.RoomDTO;
+import com.example.demo.exception_handler.book_room_exceptions.BookingConflictException;
 import com.example.demo.exception_handler.book_room_exceptions.NoBookedRoomFoundException;
+import com.example.demo.exception_handler.ValidationResult;
 import com.example.demo.exception_handler.book_room_exceptions.RoomNotAvailableException;
 import com.example.demo.exception_handler.room_exceptions.InvalidRoomException;
 import com.example.demo.models.Bill;
+import com.example.demo.models.BillingEvent;
 import com.example.demo.models.BookRoom;
+import com.example.demo.models.BookingLine;
 import com.example.demo.models.Room;
+import com.example.demo.models.NameNormalizer;
 import com.example.demo.repository.BillRepository;
 import com.example.demo.repository.BookRoomRepository;
 import com.example.demo.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.example.demo.dto.response_dto.BookedRoomSummaryDTO;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
@@ -26,6 +40,10 @@ public class BookRoomService {
     @Autowired
     private BookRoomRepository bookRoomRepository;
 
+    // Service writing the streamed booked rooms as newline-delimited JSON
+    @Autowired
+    private NdjsonStreamService ndjsonStreamService;
+
     // Repository to interact with Room entities
     @Autowired
     private RoomRepository roomRepository;
@@ -34,10 +52,30 @@ public class BookRoomService {
     @Autowired
     private BillRepository billRepository;
 
+    // Billing stage writing the bills of bookings after they are committed
+    @Autowired
+    private BillingService billingService;
+
     // Service to update Room availability when it's booked by customer
     @Autowired
     private RoomService roomService;
 
+    // Nightly room ledger used to book rooms for stays and to take rooms without dates out of the room inventory
+    @Autowired
+    private RoomLedgerService roomLedgerService;
+
+    // In-memory availability view that follows the rooms taken out of the room inventory
+    @Autowired
+    private RoomAvailabilityViewService roomAvailabilityViewService;
+
+    // Runs a booking again when its transaction lost against a concurrent write
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    // Transaction manager of the booking transactions
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
      * Retrieves a booked room by its ID. Throws an exception if the room is not found.
      *
@@ -51,16 +89,31 @@ public class BookRoomService {
     }
 
     /**
-     * Retrieves a booked room by the customer's name. Throws an exception if no room is found.
+     * Retrieves the latest booked room of a customer, ignoring the case of the name. Throws an exception if no room is found.
      *
      * @param name The name of the customer who booked the room.
-     * @return The booked room if found.
+     * @return The latest booked room if found.
      */
     public BookRoom getBookedRoomByCustomerName(String name){
-        Optional<BookRoom> bookedRoom=bookRoomRepository.getBookRoomByCustomerName(name);
+        Optional<BookRoom> bookedRoom=bookRoomRepository.findFirstByNormalizedNameOrderByIdDesc(NameNormalizer.normalize(name));
         return bookedRoom.orElseThrow(()->new NoBookedRoomFoundException("No room found booked by "+name));
     }
 
+    /**
+     * Retrieves one page of the booked rooms whose customer name starts with the given prefix, ignoring case.
+     *
+     * @param namePrefix The prefix of the customer name.
+     * @param cursor The id of the last booked room of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of booked room summaries and the cursor of the next page.
+     */
+    public CursorPageDTO<BookedRoomSummaryDTO> searchBookedRoomsByCustomerName(String namePrefix,Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Long> ids=bookRoomRepository.findIdsByCustomerNamePrefix(
+                NameNormalizer.normalize(namePrefix),cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return toSummaryPage(ids,pageSize);
+    }
+
     /**
      * Retrieves a list of all booked rooms. Throws an exception if no booked rooms are found.
      *
@@ -71,27 +124,137 @@ public class BookRoomService {
         if(bookedRooms.isEmpty()){
             throw new NoBookedRoomFoundException("No Booked Rooms Found");
         }
-        return bookRoomRepository.findAll();
+        return bookedRooms;
     }
 
     /**
-     * Books a room for a customer. Sets the room to unavailable and generates a bill for the booking.
+     * Retrieves the summaries of all booked rooms ordered by id, selecting only the columns shown by the booking list
+     * with one query instead of loading the bookings with their rooms and bills.
+     * Throws an exception if no booked rooms are found.
+     *
+     * @return A list of all booked room summaries.
+     */
+    public List<BookedRoomSummaryDTO> getAllBookedRoomSummaries(){
+        List<BookedRoomSummaryDTO> summaries=toBookedRoomSummaries(bookRoomRepository.findAllSummaryRows());
+        if(summaries.isEmpty()){
+            throw new NoBookedRoomFoundException("No Booked Rooms Found");
+        }
+        return summaries;
+    }
+
+    /**
+     * Retrieves one page of booked room summaries ordered by id, starting after the given cursor.
+     * The ids of the page are selected first and their summaries with the projection of the booking list,
+     * so neither the bookings nor their rooms are loaded as entities.
+     *
+     * @param cursor The id of the last booked room of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of booked room summaries and the cursor of the next page.
+     */
+    public CursorPageDTO<BookedRoomSummaryDTO> getBookedRoomPage(Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Long> ids=bookRoomRepository.findIdsAfter(cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return toSummaryPage(ids,pageSize);
+    }
+
+    /**
+     * Streams the summaries of all booked rooms ordered by id as newline-delimited JSON.
+     * The bookings are read with the projection of the booking list, one row per booked room type,
+     * so neither the bookings nor their rooms are loaded as entities.
+     *
+     * @return The response body writing one booked room summary per line.
+     */
+    public StreamingResponseBody streamAllBookedRooms(){
+        return ndjsonStreamService.streamGroups(bookRoomRepository::streamAllSummaryRows,BookRoomRepository.BookedRoomRow::getId,rows->{
+            BookedRoomSummaryDTO summary=toBookedRoomSummary(rows.get(0));
+            for(BookRoomRepository.BookedRoomRow row:rows){
+                if(row.getRoomType()!=null){
+                    summary.getRoomTypes().add(row.getRoomType());
+                }
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * Books a room for a customer. Sets the room to unavailable and records the bill of the booking with the billing stage.
+     * The requested rooms are reserved in the room inventory and given back if the booking can't be saved.
+     * A booking whose transaction loses against a concurrent write, e.g. a deadlock, is rolled back and run again
+     * by the {@link OptimisticRetryService}.
      *
      * @param roomRequestDTO The BookRoom object containing the booking details.
      * @return The newly booked room.
+     * @throws BookingConflictException If every attempt lost against a concurrent write.
      */
     public RoomBookingSuccessDTO bookRoom(BookRoomRequestDTO roomRequestDTO){
         validateBookRoom(roomRequestDTO);
-        BookRoom newBookedRoom=validateRoomsAvailability(roomRequestDTO);
+        TransactionTemplate transactionTemplate=new TransactionTemplate(transactionManager);
+        return optimisticRetryService.execute(()->transactionTemplate.execute(status->saveBooking(roomRequestDTO)),
+                ()->new BookingConflictException("Rooms are being booked concurrently, try again"));
+    }
+
+    private RoomBookingSuccessDTO saveBooking(BookRoomRequestDTO roomRequestDTO){
+        //a rejected booking is thrown here so that the transaction rolls back
+        BookRoom newBookedRoom=checkRoomsAvailability(roomRequestDTO).orElseThrow();
+        //the bill is written by the billing stage once the booking is committed
+        Bill bill=newBookedRoom.getBill();
+        newBookedRoom.setBill(null);
         bookRoomRepository.save(newBookedRoom);
+        billingService.recordBill(BillingEvent.SourceType.BOOK_ROOM,newBookedRoom.getId(),bill.getTotalAmount(),toBillLines(newBookedRoom));
+        if(newBookedRoom.getCheckInDate()==null){
+            //bookings without dates took their rooms out of the room inventory
+            List<String> bookedTypes=new ArrayList<>();
+            for(BookingLine line:newBookedRoom.getBookingLines()){
+                bookedTypes.add(line.getRoomType());
+            }
+            roomAvailabilityViewService.refreshCountsAfterCommit(bookedTypes);
+        }
         RoomBookingSuccessDTO successDTO=new RoomBookingSuccessDTO();
         successDTO.setId(newBookedRoom.getId());
         successDTO.setCustomerName(newBookedRoom.getCustomerName());
         successDTO.setBookedRooms(roomRequestDTO.getRooms());
         successDTO.setBookingDate(LocalDateTime.now());
+        successDTO.setCheckInDate(newBookedRoom.getCheckInDate());
+        successDTO.setCheckOutDate(newBookedRoom.getCheckOutDate());
         return successDTO;
     }
 
+    /**
+     * Lists the booked room types of a booking with their room and room-night counts for the revenue rollups.
+     *
+     * @param bookedRoom The saved booking.
+     * @return One line per booked room type.
+     */
+    private List<BillingEvent.Line> toBillLines(BookRoom bookedRoom){
+        long nights=bookedRoom.getCheckInDate()==null?1:ChronoUnit.DAYS.between(bookedRoom.getCheckInDate(),bookedRoom.getCheckOutDate());
+        List<BillingEvent.Line> lines=new ArrayList<>();
+        for(BookingLine line:bookedRoom.getBookingLines()){
+            long count=line.getRoomCount();
+            lines.add(new BillingEvent.Line(line.getRoomType(),count,count*nights,(double) line.getPrice()*count*nights));
+        }
+        return lines;
+    }
+
+    /**
+     * Checks how many rooms of a type can be booked for every night of a stay.
+     *
+     * @param roomType The type of the room.
+     * @param roomCount The number of rooms the customer wants to book.
+     * @param checkInDate The first night of the stay.
+     * @param checkOutDate The day the guest leaves.
+     * @return The availability of the room type for the stay.
+     */
+    public RoomRangeAvailabilityDTO checkRoomAvailability(String roomType,Integer roomCount,LocalDate checkInDate,LocalDate checkOutDate){
+        String invalidStay=roomLedgerService.validateStay(checkInDate,checkOutDate);
+        if(invalidStay!=null){
+            throw new InvalidRoomException(invalidStay);
+        }
+        Room room=roomService.getRoomByType(roomType);
+        int availableCount=Math.max(roomLedgerService.getAvailableCount(room,checkInDate,checkOutDate),0);
+        int requestedCount=roomCount==null?1:roomCount;
+        return new RoomRangeAvailabilityDTO(roomType,checkInDate,checkOutDate,requestedCount,availableCount,availableCount>=requestedCount);
+    }
+
     /**
      * Validates the booked room ID. Throws an exception if the ID is invalid (less than 0).
      *
@@ -119,64 +282,82 @@ public class BookRoomService {
         } else if (roomRequestDTO.getRooms() == null || roomRequestDTO.getRooms().isEmpty()) {
             throw new InvalidRoomException("Invalid Room type, Please provide valid room type");
         }
+        for (RoomDTO roomDTO : roomRequestDTO.getRooms()) {
+            if (roomDTO.getRoomCount() == null || roomDTO.getRoomCount() <= 0) {
+                throw new InvalidRoomException("Invalid Room count for room type " + roomDTO.getRoomType() + ", Please provide room count greater than 0");
+            }
+        }
+        if (roomRequestDTO.getCheckInDate() != null || roomRequestDTO.getCheckOutDate() != null) {
+            String invalidStay = roomLedgerService.validateStay(roomRequestDTO.getCheckInDate(), roomRequestDTO.getCheckOutDate());
+            if (invalidStay != null) {
+                throw new InvalidRoomException(invalidStay);
+            }
+        }
     }
 
     /**
      * Validates the availability of the rooms present in db with requested rooms and room count by the customer
-     * Throws an exception if requested room either not available or does not exists.
+     * Returns a rejection if requested room either not available or does not exists.
+     * All requested room types are resolved with a single query, the maps of requested and available rooms
+     * sent with the rejection are only built when the rooms are not available.
      * @param roomRequestDTO contains customer name and info about room type along with room count
      *
-     * @return BookedRoom Object which has list of booked rooms with their count and bill object embedded in it
+     * @return BookedRoom Object which has list of booked rooms with their count and bill object embedded in it,
+     * or the {@link RoomNotAvailableException} describing the missing rooms
      * */
-    public BookRoom validateRoomsAvailability(BookRoomRequestDTO roomRequestDTO){
+    public ValidationResult<BookRoom> checkRoomsAvailability(BookRoomRequestDTO roomRequestDTO){
 
-        //create the hashmaps of requested rooms ad available rooms to send as a response in
-        //the case of un-availability of rooms or if requested room does not exists.
-        HashMap<String,Integer> availableRoomsMap=getAvailableRoomsMap(roomRequestDTO);
-        HashMap<String,Integer> requestedRoomsMap=getAllRequestedRoomsMap(roomRequestDTO);
+        //resolve all requested room types in one round trip
+        Set<String> requestedTypes=new HashSet<>();
+        for(RoomDTO dto:roomRequestDTO.getRooms()){
+            requestedTypes.add(dto.getRoomType());
+        }
+        Map<String,Room> roomsByType=new HashMap<>();
+        for(Room room:roomRepository.findByTypeIn(requestedTypes)){
+            roomsByType.put(room.getType(),room);
+        }
 
-        List<RoomDTO> unavailableRooms=new ArrayList<>();
+        //a type requested more than once is booked with the sum of its counts
+        Map<Room,Integer> requestedRooms=new LinkedHashMap<>();
         for(RoomDTO dto:roomRequestDTO.getRooms()){
-            Optional<Room> r=roomRepository.getRoomByType(dto.getRoomType());
-            if(r.isEmpty()){
-                unavailableRooms.add(dto);
-            }else{
-                if(r.get().getAvailableCount()<dto.getRoomCount()){
-                    unavailableRooms.add(dto);
-                }
+            Room room=roomsByType.get(dto.getRoomType());
+            if(room!=null){
+                requestedRooms.merge(room,dto.getRoomCount(),Integer::sum);
             }
         }
-        if(!unavailableRooms.isEmpty()){
-            throw new RoomNotAvailableException("Requested Number Of Rooms Are Not Available",requestedRoomsMap,availableRoomsMap);
-        }
 
+        //stays with dates are booked night by night in the room ledger, bookings without dates
+        //take all requested rooms out of the room inventory, checked by the ledger against the booked nights,
+        //the counts are written back to the database by the ledger and the inventory
+        LocalDate checkInDate=roomRequestDTO.getCheckInDate();
+        LocalDate checkOutDate=roomRequestDTO.getCheckOutDate();
+        boolean isStay=checkInDate!=null&&checkOutDate!=null;
+        boolean allRoomsExist=roomsByType.size()==requestedTypes.size();
+        if(isStay){
+            if(!allRoomsExist||!roomLedgerService.tryBook(requestedRooms,checkInDate,checkOutDate)){
+                return ValidationResult.rejected(new RoomNotAvailableException("Requested Number Of Rooms Are Not Available For The Stay",getAllRequestedRoomsMap(roomRequestDTO),getAvailableRoomsMapForStay(roomsByType.values(),checkInDate,checkOutDate)));
+            }
+        }else if(!allRoomsExist||!roomLedgerService.tryHold(requestedRooms)){
+            //create the hashmaps of requested rooms ad available rooms to send as a response in
+            //the case of un-availability of rooms or if requested room does not exists.
+            return ValidationResult.rejected(new RoomNotAvailableException("Requested Number Of Rooms Are Not Available",getAllRequestedRoomsMap(roomRequestDTO),getAvailableRoomsMap(roomRequestDTO)));
+        }
 
-        //process the available rooms
-        //update availability of existing rooms after allocation
-        //generate total bill.
-        Set<Room> rawBookedRooms=new HashSet<>();
+        //generate total bill, stays are charged per night.
+        long nights=isStay?ChronoUnit.DAYS.between(checkInDate,checkOutDate):1;
         double totalAmount=0.0;
-        for(RoomDTO roomDTO:roomRequestDTO.getRooms()){
-            Optional<Room> room=roomRepository.getRoomByType(roomDTO.getRoomType());
-            Integer availableRoomCount=room.get().getAvailableCount();
-            Integer requestedRoomCount=roomDTO.getRoomCount();
-            int newUpdatedRoomCount=availableRoomCount-requestedRoomCount;
-            room.get().setAvailableCount(newUpdatedRoomCount);
-            Boolean isRoomAvailable=newUpdatedRoomCount>0;
-            room.get().setAvailable(isRoomAvailable);
-            roomService.updateRoom(room.get().getId(),room.get());
-
-            totalAmount=totalAmount+room.get().getPrice()*roomDTO.getRoomCount();
-            rawBookedRooms.add(room.get());
+        for(Map.Entry<Room,Integer> entry:requestedRooms.entrySet()){
+            totalAmount=totalAmount+entry.getKey().getPrice()*entry.getValue()*nights;
         }
         Bill bill=new Bill(totalAmount);
-        BookRoom bookedRooms=new BookRoom(roomRequestDTO.getCustomerName(),rawBookedRooms,bill);
-        Set<BookRoom> bookRoomHashSet=new HashSet<>();
-        bookRoomHashSet.add(bookedRooms);
-        for(Room r:rawBookedRooms){
-            r.setBookRooms(bookRoomHashSet);
+        BookRoom bookedRooms=new BookRoom(roomRequestDTO.getCustomerName(),bill);
+        bookedRooms.setCheckInDate(checkInDate);
+        bookedRooms.setCheckOutDate(checkOutDate);
+        //the lines only reference the rooms, saving the booking inserts them without writing the rooms
+        for(Map.Entry<Room,Integer> entry:requestedRooms.entrySet()){
+            bookedRooms.addBookingLine(entry.getKey(),entry.getValue());
         }
-        return bookedRooms;
+        return ValidationResult.valid(bookedRooms);
 
     }
 
@@ -205,8 +386,25 @@ public class BookRoomService {
     public HashMap<String,Integer> getAvailableRoomsMap(BookRoomRequestDTO roomRequestDTO){
         List<Room> allRooms=getListOfAllAvailableRooms(roomRequestDTO);
         HashMap<String,Integer> availableRooms=new HashMap<>();
+        Map<Long,Integer> holdableCounts=roomLedgerService.getHoldableCounts(allRooms);
         for(Room r:allRooms){
-            availableRooms.put(r.getType(),r.getAvailableCount());
+            availableRooms.put(r.getType(),Math.max(holdableCounts.get(r.getId()),0));
+        }
+        return availableRooms;
+    }
+
+    /**
+     * Creates the HashMap of the requested room types with the number of rooms free on every night of a stay
+     * @param rooms the requested rooms which exist in db
+     * @param checkInDate the first night of the stay
+     * @param checkOutDate the day the guest leaves
+     *
+     * @return HashMap with room_type as key and the number of rooms bookable for the whole stay as value
+     * */
+    public HashMap<String,Integer> getAvailableRoomsMapForStay(Collection<Room> rooms,LocalDate checkInDate,LocalDate checkOutDate){
+        HashMap<String,Integer> availableRooms=new HashMap<>();
+        for(Room r:rooms){
+            availableRooms.put(r.getType(),Math.max(roomLedgerService.getAvailableCount(r,checkInDate,checkOutDate),0));
         }
         return availableRooms;
     }
@@ -224,4 +422,41 @@ public class BookRoomService {
         }
         return requestedRooms;
     }
+
+    // Summaries of the bookings of one page, whose ids were fetched with one id more than the page size
+    private CursorPageDTO<BookedRoomSummaryDTO> toSummaryPage(List<Long> ids,int pageSize){
+        CursorPageDTO<Long> idPage=CursorPageDTO.of(ids,pageSize,id->id);
+        if(idPage.getItems().isEmpty()){
+            return new CursorPageDTO<>(new ArrayList<>(),null);
+        }
+        List<BookedRoomSummaryDTO> summaries=toBookedRoomSummaries(bookRoomRepository.findSummaryRowsByIdIn(idPage.getItems()));
+        return new CursorPageDTO<>(summaries,idPage.getNextCursor());
+    }
+
+    // Summaries of the bookings of rows ordered by booking id, one row per booked room type
+    private List<BookedRoomSummaryDTO> toBookedRoomSummaries(List<BookRoomRepository.BookedRoomRow> rows){
+        Map<Long,BookedRoomSummaryDTO> summaries=new LinkedHashMap<>();
+        for(BookRoomRepository.BookedRoomRow row:rows){
+            BookedRoomSummaryDTO summary=summaries.get(row.getId());
+            if(summary==null){
+                summary=toBookedRoomSummary(row);
+                summaries.put(row.getId(),summary);
+            }
+            if(row.getRoomType()!=null){
+                summary.getRoomTypes().add(row.getRoomType());
+            }
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
+    // Summary of a booking without its room types, the total amount of a bill not written yet comes from the billing stage
+    private BookedRoomSummaryDTO toBookedRoomSummary(BookRoomRepository.BookedRoomRow row){
+        Double totalAmount=row.getTotalAmount();
+        if(totalAmount==null){
+            Bill pendingBill=billingService.getPendingBill(BillingEvent.SourceType.BOOK_ROOM,row.getId());
+            totalAmount=pendingBill==null?null:pendingBill.getTotalAmount();
+        }
+        return new BookedRoomSummaryDTO(row.getId(),row.getCustomerName(),row.getBookingDate(),
+                row.getCheckInDate(),row.getCheckOutDate(),new ArrayList<>(),totalAmount);
+    }
 }
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.models.BookRoom;
+import com.example.demo.models.BookingLine;
+import com.example.demo.models.Room;
+import com.example.demo.repository.BookRoomRepository;
+import com.example.demo.repository.BookingLineRepository;
+import com.example.demo.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the bookings saved before booking lines existed from the old {@code booking} join table into
+ * {@link BookingLine} rows. The join table kept no counts or prices, so every moved line books one room at the
+ * current price of its room. The moved rows are deleted from the join table, which is empty from then on.
+ */
+@Component
+public class BookingLineBackfill implements ApplicationRunner {
+
+    private static final String LEGACY_TABLE = "booking";
+
+    // Reads and empties the old join table
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Repository used to reference the bookings of the moved lines
+    @Autowired
+    private BookRoomRepository bookRoomRepository;
+
+    // Repository used to read the rooms of the moved lines
+    @Autowired
+    private RoomRepository roomRepository;
+
+    // Repository used to insert the moved lines
+    @Autowired
+    private BookingLineRepository bookingLineRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if(!legacyTableExists()){
+            return;
+        }
+        List<long[]> rows=jdbcTemplate.query("select bookroom_id, room_id from "+LEGACY_TABLE,
+                (resultSet,rowNum)->new long[]{resultSet.getLong(1),resultSet.getLong(2)});
+        if(rows.isEmpty()){
+            return;
+        }
+        Map<Long,Room> rooms=new HashMap<>();
+        for(Room room:roomRepository.findAll()){
+            rooms.put(room.getId(),room);
+        }
+        List<BookingLine> lines=new ArrayList<>();
+        for(long[] row:rows){
+            Room room=rooms.get(row[1]);
+            if(room!=null){
+                BookRoom bookRoom=bookRoomRepository.getReferenceById(row[0]);
+                lines.add(new BookingLine(bookRoom,room,1));
+            }
+        }
+        bookingLineRepository.saveAll(lines);
+        jdbcTemplate.update("delete from "+LEGACY_TABLE);
+    }
+
+    private boolean legacyTableExists(){
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection->{
+            for(String name:new String[]{LEGACY_TABLE,LEGACY_TABLE.toUpperCase()}){
+                try(ResultSet tables=connection.getMetaData().getTables(connection.getCatalog(),null,name,new String[]{"TABLE"})){
+                    if(tables.next()){
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.ImportReportDTO;
+import com.example.demo.dto.response_dto.MenuRowDTO;
+import com.example.demo.dto.response_dto.RoomRowDTO;
+import com.example.demo.exception_handler.menu_exceptions.InvalidMenuException;
+import com.example.demo.exception_handler.menu_exceptions.MenuAlreadyExistsException;
+import com.example.demo.exception_handler.room_exceptions.InvalidRoomException;
+import com.example.demo.exception_handler.room_exceptions.RoomAlreadyExistsException;
+import com.example.demo.models.Menu;
+import com.example.demo.models.NameNormalizer;
+import com.example.demo.models.Room;
+import com.example.demo.repository.MenuRepository;
+import com.example.demo.repository.RoomRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import and export of rooms and menu items as CSV or as a JSON array.
+ * <p>
+ * An upload is parsed row by row while it is read. Every row is validated like a single room or menu item, and
+ * duplicates are found in a set of the existing names loaded with one query instead of one query per row. Valid
+ * rows are inserted in batches of {@value #IMPORT_BATCH_SIZE}, one transaction per batch, and every row that was
+ * not imported is listed in the returned report. The export streams the same columns in the same formats, so an
+ * export can be imported into another property.
+ * </p>
+ */
+@Service
+public class CatalogTransferService {
+
+    public static final String CSV = "text/csv";
+
+    // Number of rows inserted in one transaction
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    // Number of exported rows after which the response is flushed
+    private static final int FLUSH_INTERVAL = 500;
+
+    /**
+     * Format of an import or export.
+     */
+    public enum Format {
+        CSV,
+        JSON;
+
+        /**
+         * Resolves the format of an upload from its content type.
+         *
+         * @param contentType The content type of the upload, {@value CatalogTransferService#CSV} or JSON.
+         * @return The format of the upload.
+         */
+        public static Format fromContentType(String contentType){
+            return contentType!=null&&contentType.toLowerCase(Locale.ROOT).startsWith(CatalogTransferService.CSV)?CSV:JSON;
+        }
+    }
+
+    // Repository used to insert and export menu items
+    @Autowired
+    private MenuRepository menuRepository;
+
+    // Validates imported menu items like single menu items
+    @Autowired
+    private MenuService menuService;
+
+    // Case-insensitive menu index that has to follow the imported menu items
+    @Autowired
+    private MenuIndexService menuIndexService;
+
+    // Repository used to insert and export rooms
+    @Autowired
+    private RoomRepository roomRepository;
+
+    // Validates imported rooms like single rooms
+    @Autowired
+    private RoomService roomService;
+
+    // In-memory room inventory that has to follow the imported rooms
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    // In-memory availability view that has to follow the imported rooms
+    @Autowired
+    private RoomAvailabilityViewService roomAvailabilityViewService;
+
+    // Object mapper used to read and write JSON arrays
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Transaction manager used to insert every batch and to stream the export in its own transaction
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CsvMapper csvMapper=new CsvMapper();
+
+    /**
+     * Imports menu items from an upload. Items whose name already exists, ignoring case, are rejected.
+     *
+     * @param upload The uploaded rows.
+     * @param format The format of the upload.
+     * @return The number of received, imported and rejected rows and the reason every rejected row was not imported.
+     */
+    public ImportReportDTO importMenu(InputStream upload,Format format){
+        Set<String> existingNames=normalizedSet(menuRepository.findAllItemNames());
+        ImportBatch<Menu> batch=new ImportBatch<>(menuRepository::saveAll,menuIndexService::put);
+        return importRows(upload,format,"itemName",batch,row->{
+            Menu menu=new Menu(row.get("itemName"),toInteger(row,"price",InvalidMenuException::new),
+                    toBoolean(row,"available",InvalidMenuException::new),toInteger(row,"availableCount",InvalidMenuException::new));
+            menuService.validateMenuFields(menu);
+            if(!existingNames.add(NameNormalizer.normalize(menu.getItemName()))){
+                throw new MenuAlreadyExistsException("Menu with itemName "+menu.getItemName()+" Already Exists");
+            }
+            return menu;
+        });
+    }
+
+    /**
+     * Imports rooms from an upload. Rooms whose type already exists, ignoring case, are rejected.
+     *
+     * @param upload The uploaded rows.
+     * @param format The format of the upload.
+     * @return The number of received, imported and rejected rows and the reason every rejected row was not imported.
+     */
+    public ImportReportDTO importRooms(InputStream upload,Format format){
+        Set<String> existingTypes=normalizedSet(roomRepository.findAllTypes());
+        ImportBatch<Room> batch=new ImportBatch<>(roomRepository::saveAll,room->{
+            roomInventoryService.reset(room);
+            roomAvailabilityViewService.put(room);
+        });
+        return importRows(upload,format,"type",batch,row->{
+            Room room=new Room();
+            room.setType(row.get("type"));
+            room.setAvailable(toBoolean(row,"available",InvalidRoomException::new));
+            room.setPrice(toInteger(row,"price",InvalidRoomException::new));
+            room.setAvailableCount(toInteger(row,"availableCount",InvalidRoomException::new));
+            room.setTotalCount(toInteger(row,"totalCount",InvalidRoomException::new));
+            roomService.validateRoomFields(room);
+            if(room.getAvailableCount()==null||room.getAvailableCount()<0){
+                throw new InvalidRoomException("Room availability count can't be null, and it must be >=0");
+            }
+            if(room.getTotalCount()==null){
+                room.setTotalCount(room.getAvailableCount());
+            }
+            if(!existingTypes.add(NameNormalizer.normalize(room.getType()))){
+                throw new RoomAlreadyExistsException("Room Already Exists With Type "+room.getType());
+            }
+            return room;
+        });
+    }
+
+    /**
+     * Creates a response body streaming all menu items in a read-only transaction.
+     *
+     * @param format The format of the export.
+     * @return The response body writing the menu items.
+     */
+    public StreamingResponseBody exportMenu(Format format){
+        return export(menuRepository::streamAllRows,MenuRowDTO.class,format);
+    }
+
+    /**
+     * Creates a response body streaming all rooms in a read-only transaction.
+     *
+     * @param format The format of the export.
+     * @return The response body writing the rooms.
+     */
+    public StreamingResponseBody exportRooms(Format format){
+        return export(roomRepository::streamAllRows,RoomRowDTO.class,format);
+    }
+
+    private <E> ImportReportDTO importRows(InputStream upload,Format format,String keyColumn,ImportBatch<E> batch,RowMapper<E> rowMapper){
+        ImportReportDTO report=new ImportReportDTO();
+        int rowNumber=0;
+        try(MappingIterator<Map<String,String>> rows=openRows(upload,format)){
+            while(true){
+                Map<String,String> row;
+                try{
+                    if(!rows.hasNextValue()){
+                        break;
+                    }
+                    row=rows.nextValue();
+                }catch (IOException|RuntimeJsonMappingException e){
+                    //a malformed upload can't be read past the broken row
+                    report.setReceived(++rowNumber);
+                    report.reject(rowNumber,null,"Malformed row, the rest of the upload was not read: "+e.getMessage());
+                    break;
+                }
+                report.setReceived(++rowNumber);
+                try{
+                    batch.add(rowNumber,rowMapper.map(row));
+                }catch (InvalidMenuException|MenuAlreadyExistsException|InvalidRoomException|RoomAlreadyExistsException e){
+                    report.reject(rowNumber,row.get(keyColumn),e.getMessage());
+                    continue;
+                }
+                if(batch.size()==IMPORT_BATCH_SIZE){
+                    batch.save(report);
+                }
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+        batch.save(report);
+        return report;
+    }
+
+    private MappingIterator<Map<String,String>> openRows(InputStream upload,Format format) throws IOException {
+        if(format==Format.CSV){
+            return csvMapper.readerForMapOf(String.class).with(CsvSchema.emptySchema().withHeader()).readValues(upload);
+        }
+        return objectMapper.readerForMapOf(String.class).readValues(upload);
+    }
+
+    private <T> StreamingResponseBody export(Supplier<Stream<T>> rows,Class<T> rowType,Format format){
+        ObjectWriter writer=format==Format.CSV
+                ?csvMapper.writer(csvMapper.schemaFor(rowType).withHeader())
+                :objectMapper.writerFor(rowType);
+        return outputStream->{
+            TransactionTemplate transactionTemplate=new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            try{
+                transactionTemplate.executeWithoutResult(status->{
+                    try(Stream<T> stream=rows.get()){
+                        writeRows(stream.iterator(),writer,format,outputStream);
+                    }
+                });
+            }catch (UncheckedIOException e){
+                throw e.getCause();
+            }
+        };
+    }
+
+    private <T> void writeRows(Iterator<T> rows,ObjectWriter writer,Format format,OutputStream outputStream){
+        int written=0;
+        try(SequenceWriter sequenceWriter=format==Format.CSV?writer.writeValues(outputStream):writer.writeValuesAsArray(outputStream)){
+            while(rows.hasNext()){
+                sequenceWriter.write(rows.next());
+                if(++written%FLUSH_INTERVAL==0){
+                    sequenceWriter.flush();
+                }
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<String> normalizedSet(List<String> names){
+        Set<String> normalized=new HashSet<>();
+        for(String name:names){
+            normalized.add(NameNormalizer.normalize(name));
+        }
+        return normalized;
+    }
+
+    private static Integer toInteger(Map<String,String> row,String column,Function<String,RuntimeException> invalid){
+        String value=row.get(column);
+        if(value==null||value.isBlank()){
+            return null;
+        }
+        try{
+            return Integer.valueOf(value.trim());
+        }catch (NumberFormatException e){
+            throw invalid.apply(column+" must be a whole number but was "+value);
+        }
+    }
+
+    private static Boolean toBoolean(Map<String,String> row,String column,Function<String,RuntimeException> invalid){
+        String value=row.get(column);
+        if(value==null||value.isBlank()){
+            return null;
+        }
+        if(value.trim().equalsIgnoreCase("true")||value.trim().equalsIgnoreCase("false")){
+            return Boolean.valueOf(value.trim());
+        }
+        throw invalid.apply(column+" must be true or false but was "+value);
+    }
+
+    // Maps a parsed row to the entity it imports, or throws the validation exception of the entity
+    private interface RowMapper<E> {
+        E map(Map<String,String> row);
+    }
+
+    /**
+     * Valid rows waiting to be inserted, with their row numbers for the report.
+     */
+    private class ImportBatch<E> {
+
+        // Inserts the entities of a batch
+        private final Function<List<E>,List<E>> writer;
+
+        // Updates the in-memory views with a saved entity once its batch is committed
+        private final Consumer<E> onSaved;
+
+        private final List<E> entities=new ArrayList<>();
+
+        private final List<Integer> rowNumbers=new ArrayList<>();
+
+        private ImportBatch(Function<List<E>,List<E>> writer,Consumer<E> onSaved){
+            this.writer=writer;
+            this.onSaved=onSaved;
+        }
+
+        private void add(int rowNumber,E entity){
+            rowNumbers.add(rowNumber);
+            entities.add(entity);
+        }
+
+        private int size(){
+            return entities.size();
+        }
+
+        private void save(ImportReportDTO report){
+            if(entities.isEmpty()){
+                return;
+            }
+            try{
+                List<E> savedEntities=new TransactionTemplate(transactionManager).execute(status->writer.apply(entities));
+                savedEntities.forEach(onSaved);
+                report.setImported(report.getImported()+entities.size());
+            }catch (DataAccessException e){
+                for(Integer rowNumber:rowNumbers){
+                    report.reject(rowNumber,null,"Row could not be saved: "+e.getMostSpecificCause().getMessage());
+                }
+            }
+            entities.clear();
+            rowNumbers.clear();
+        }
+    }
+}
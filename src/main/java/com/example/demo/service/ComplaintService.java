@@ -4,6 +4,10 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.function.Function;
 
 import com.example.demo.models.Complaint;
 import com.example.demo.repository.ComplaintRepository;
@@ -15,6 +19,10 @@ public class ComplaintService {
     @Autowired
     private ComplaintRepository complaintRepository;
 
+    // Service writing the streamed complaints as newline-delimited JSON
+    @Autowired
+    private NdjsonStreamService ndjsonStreamService;
+
 
     /**
      * Retrieves all complaints from the repository.
@@ -25,6 +33,28 @@ public class ComplaintService {
         return complaintRepository.findAll();
     }
 
+    /**
+     * Retrieves one page of complaints ordered by id, starting after the given cursor.
+     *
+     * @param cursor The id of the last complaint of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of complaints and the cursor of the next page.
+     */
+    public CursorPageDTO<Complaint> findComplaintPage(Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Complaint> complaints=complaintRepository.findByIdGreaterThanOrderByIdAsc(cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return CursorPageDTO.of(complaints,pageSize,Complaint::getId);
+    }
+
+    /**
+     * Streams all complaints ordered by id as newline-delimited JSON.
+     *
+     * @return The response body writing one complaint per line.
+     */
+    public StreamingResponseBody streamAllComplaints(){
+        return ndjsonStreamService.stream(complaintRepository::streamAllByOrderByIdAsc,Function.identity());
+    }
+
 
     /**
      * Saves a new or updated complaint to the repository.
@@ -8,8 +8,13 @@ import com.example.demo.exception_handler.feedback_exceptions.FeedbackNotFoundEx
 import com.example.demo.exception_handler.feedback_exceptions.InvalidFeedbackException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.function.Function;
 
 import com.example.demo.models.Feedback;
+import com.example.demo.models.NameNormalizer;
 import com.example.demo.repository.FeedbackRepository;
 
 @Service
@@ -20,6 +25,10 @@ public class FeedbackService {
     @Autowired
     private FeedbackRepository feedbackRepository;
 
+    // Service writing the streamed feedbacks as newline-delimited JSON
+    @Autowired
+    private NdjsonStreamService ndjsonStreamService;
+
     /**
      * Retrieves all feedback from the repository.
      * Throws an exception if no feedbacks are found.
@@ -35,6 +44,43 @@ public class FeedbackService {
         return feedbacks;
     }
 
+    /**
+     * Retrieves one page of feedbacks ordered by id, starting after the given cursor.
+     *
+     * @param cursor The id of the last feedback of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of feedbacks and the cursor of the next page.
+     */
+    public CursorPageDTO<Feedback> findFeedbackPage(Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Feedback> feedbacks=feedbackRepository.findByIdGreaterThanOrderByIdAsc(cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return CursorPageDTO.of(feedbacks,pageSize,Feedback::getId);
+    }
+
+    /**
+     * Retrieves one page of the feedbacks whose name starts with the given prefix, ignoring case.
+     *
+     * @param namePrefix The prefix of the name.
+     * @param cursor The id of the last feedback of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of feedbacks and the cursor of the next page.
+     */
+    public CursorPageDTO<Feedback> searchFeedbacksByName(String namePrefix,Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Feedback> feedbacks=feedbackRepository.findByNormalizedNameStartingWithAndIdGreaterThanOrderByIdAsc(
+                NameNormalizer.normalize(namePrefix),cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return CursorPageDTO.of(feedbacks,pageSize,Feedback::getId);
+    }
+
+    /**
+     * Streams all feedbacks ordered by id as newline-delimited JSON.
+     *
+     * @return The response body writing one feedback per line.
+     */
+    public StreamingResponseBody streamAllFeedbacks(){
+        return ndjsonStreamService.stream(feedbackRepository::streamAllByOrderByIdAsc,Function.identity());
+    }
+
     /**
      * Saves a new or updated feedback to the repository.
      *
@@ -49,7 +95,7 @@ public class FeedbackService {
 
     public Feedback updateFeedback(UpdateFeedbackRequestDTO feedbackRequestDTO){
         validateRequestDTO(feedbackRequestDTO);
-        Optional<Feedback> existingFeedback=feedbackRepository.getFeedbackByEmail(feedbackRequestDTO.getEmail());
+        Optional<Feedback> existingFeedback=feedbackRepository.findFirstByEmailOrderByIdDesc(feedbackRequestDTO.getEmail());
         if(existingFeedback.isEmpty()){
             throw new FeedbackNotFoundException("No feedback found with email provided");
         }
@@ -69,7 +115,7 @@ public class FeedbackService {
         if(email.trim().isEmpty()){
             throw new FeedbackNotFoundException("Invalid Customer email provided, Please Enter Valid Customer email");
         }
-        Optional<Feedback> feedback=feedbackRepository.getFeedbackByEmail(email);
+        Optional<Feedback> feedback=feedbackRepository.findFirstByEmailOrderByIdDesc(email);
         return feedback.orElseThrow(()->new FeedbackNotFoundException("No Feedback found with Id "+email));
     }
 
@@ -82,7 +128,7 @@ public class FeedbackService {
         if(email==null||email.trim().isEmpty()){
             throw new FeedbackNotFoundException("Invalid Email Provided");
         }
-        Optional<Feedback> feedback=feedbackRepository.getFeedbackByEmail(email);
+        Optional<Feedback> feedback=feedbackRepository.findFirstByEmailOrderByIdDesc(email);
         if(feedback.isEmpty()){
             throw new FeedbackNotFoundException("No Feedback Found for email "+email);
         }
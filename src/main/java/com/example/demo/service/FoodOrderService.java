@@ -1,26 +1,37 @@
 package com.example.demo.service;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.Collection;
 import java.util.Optional;
 
 import com.example.demo.dto.response_dto.FoodItemDTO;
 import com.example.demo.dto.response_dto.FoodOrderAcceptedDTO;
+import com.example.demo.exception_handler.ValidationResult;
 import com.example.demo.exception_handler.food_exceptions.FoodItemNotAvailableException;
 import com.example.demo.exception_handler.food_exceptions.FoodNotFoundException;
+import com.example.demo.exception_handler.food_order_exceptions.FoodOrderConflictException;
 import com.example.demo.exception_handler.food_order_exceptions.FoodOrderNotFoundException;
 import com.example.demo.exception_handler.food_order_exceptions.InvalidFoodOrderException;
-import com.example.demo.models.Bill;
+import com.example.demo.models.BillingEvent;
 import com.example.demo.models.Food;
 import com.example.demo.models.FoodOrder;
 import com.example.demo.models.Menu;
-import com.example.demo.repository.BillRepository;
+import com.example.demo.models.NameNormalizer;
 import com.example.demo.repository.FoodOrderRepository;
 import com.example.demo.repository.MenuRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 public class FoodOrderService {
@@ -29,84 +40,140 @@ public class FoodOrderService {
     @Autowired
     private FoodOrderRepository foodRepository;
 
-    // Repository to retrieve food items from the Menu.
+    // Service writing the streamed food orders as newline-delimited JSON
+    @Autowired
+    private NdjsonStreamService ndjsonStreamService;
+
+    // Repository to decrement the stock of the ordered food items and read it when an order is rejected.
     @Autowired
     private MenuRepository menuRepository;
 
 
-    // Service to update the menu items availability when food order is made
+
+    // Case-insensitive menu index used to price the ordered food items
+    @Autowired
+    private MenuIndexService menuIndexService;
+
+    // Billing stage writing the bills of food orders after they are committed
+    @Autowired
+    private BillingService billingService;
+
+    // Pushes the stock left after every order to connected screens
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
+
+    // Runs an order again when its transaction lost against a concurrent write
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    // Transaction manager of the order transactions
     @Autowired
-    private MenuService menuService;
+    private PlatformTransactionManager transactionManager;
 
 
     /**
      * Retrieves all food orders from the repository.
+     * The orders and their food items are read with one projection query, ordered by order,
+     * so every order is built from its consecutive rows without loading entities.
      * Throws an exception if no food orders are found.
      *
      * @return List of all food orders.
      * @throws FoodOrderNotFoundException If no food orders are found.
      */
     public List<FoodOrderAcceptedDTO> findAllFoods() {
-        List<FoodOrder> foodOrders=foodRepository.findAll();
-        if(foodOrders.isEmpty()){
+        List<FoodOrderAcceptedDTO> foodOrderAcceptedDTOList=toFoodOrderAcceptedDTOs(foodRepository.findAllItemRows());
+        if(foodOrderAcceptedDTOList.isEmpty()){
             throw new FoodOrderNotFoundException("No Food Orders Found");
         }
-        List<FoodOrderAcceptedDTO> foodOrderAcceptedDTOList=new ArrayList<>();
-        for(FoodOrder foodOrder:foodOrders){
-            List<FoodItemDTO> foodItemDTOList=new ArrayList<>();
-            for(Food f: foodOrder.getFoodItems()){
-                foodItemDTOList.add(new FoodItemDTO(f.getFoodName(),f.getQuantity().intValue()));
-            }
-            foodOrderAcceptedDTOList.add(new FoodOrderAcceptedDTO(foodOrder.getId(), foodOrder.getCustomerName(), LocalDateTime.now(),foodItemDTOList));
-        }
         return foodOrderAcceptedDTOList;
     }
 
+    /**
+     * Retrieves one page of food orders ordered by id, starting after the given cursor.
+     * The ids of the page are selected first and their food items with the projection of {@link #findAllFoods()},
+     * so neither the orders nor their food items are loaded as entities.
+     *
+     * @param cursor The id of the last food order of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of food orders and the cursor of the next page.
+     */
+    public CursorPageDTO<FoodOrderAcceptedDTO> findFoodOrderPage(Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Long> ids=foodRepository.findIdsAfter(cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return toFoodOrderPage(ids,pageSize);
+    }
+
+    /**
+     * Retrieves one page of the food orders whose customer name starts with the given prefix, ignoring case.
+     *
+     * @param namePrefix The prefix of the customer name.
+     * @param cursor The id of the last food order of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of food orders and the cursor of the next page.
+     */
+    public CursorPageDTO<FoodOrderAcceptedDTO> searchFoodOrdersByCustomerName(String namePrefix,Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Long> ids=foodRepository.findIdsByCustomerNamePrefix(
+                NameNormalizer.normalize(namePrefix),cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return toFoodOrderPage(ids,pageSize);
+    }
+
+    /**
+     * Streams all food orders ordered by id as newline-delimited JSON.
+     * The orders and their food items are read with the projection of {@link #findAllFoods()},
+     * so neither the orders nor their food items are loaded as entities.
+     *
+     * @return The response body writing one food order per line.
+     */
+    public StreamingResponseBody streamAllFoodOrders(){
+        return ndjsonStreamService.streamGroups(foodRepository::streamAllItemRows,FoodOrderRepository.FoodOrderItemRow::getId,rows->{
+            FoodOrderRepository.FoodOrderItemRow first=rows.get(0);
+            FoodOrderAcceptedDTO foodOrder=new FoodOrderAcceptedDTO(first.getId(),first.getCustomerName(),first.getOrderDate(),new ArrayList<>());
+            for(FoodOrderRepository.FoodOrderItemRow row:rows){
+                addFoodItem(foodOrder,row);
+            }
+            return foodOrder;
+        });
+    }
+
     /**
      * Saves a new food order to the repository after validating the order.
-     * It calculates the total price of the order and creates a bill.
+     * It calculates the total price of the order and records its bill with the billing stage.
      *
      * @param rawFoodOrder The food order to be saved.
      * @return The saved food order with the processed food items and bill.
      * @throws InvalidFoodOrderException If the order is invalid (e.g., missing customer name or food items).
      * @throws FoodItemNotAvailableException If any food items are not available in the menu.
+     * @throws FoodOrderConflictException If every attempt lost against a concurrent write.
      */
     public FoodOrderAcceptedDTO saveFood(FoodOrder rawFoodOrder) {
-        List<Food> foods=rawFoodOrder.getFoodItems();
-        List<Food> processedFoods=new ArrayList<>();
         // Validate the food order's general properties.
         validateFoodOrder(rawFoodOrder);
-        // Validate that the food items are available in the menu.
-        validateFoodItems(rawFoodOrder);
+        //an order whose transaction loses a stock row lock, e.g. in a deadlock, is rolled back and run again
+        TransactionTemplate transactionTemplate=new TransactionTemplate(transactionManager);
+        return optimisticRetryService.execute(()->transactionTemplate.execute(status->saveOrder(rawFoodOrder)),
+                ()->new FoodOrderConflictException("Food items are being ordered concurrently, try again"));
+    }
+
+    private FoodOrderAcceptedDTO saveOrder(FoodOrder rawFoodOrder){
+        List<Food> processedFoods=new ArrayList<>();
+        // Validate that the food items are available in the menu and take them out of the stock.
+        //a rejected order is thrown here so that the transaction rolls back
+        Map<String,Menu> menus=checkFoodItems(rawFoodOrder).orElseThrow();
         double totalAmount=0;
+        List<BillingEvent.Line> billLines=new ArrayList<>();
         // Process each food item and calculate the total amount.
-        for(Food f:foods){
-            List<Menu> menus=menuRepository.findAll();
-            for(Menu m:menus){
-                if(m.getItemName().equalsIgnoreCase(f.getFoodName())){
-                    totalAmount=m.getPrice()*f.getQuantity()+totalAmount;
-                    Food food1=new Food(m,f.getFoodName(),f.getQuantity());
-                    processedFoods.add(food1);
-                }
-            }
-
+        for(Food f:rawFoodOrder.getFoodItems()){
+            Menu m=menus.get(NameNormalizer.normalize(f.getFoodName()));
+            totalAmount=m.getPrice()*f.getQuantity()+totalAmount;
+            processedFoods.add(new Food(m,f.getFoodName(),f.getQuantity()));
+            billLines.add(new BillingEvent.Line(m.getItemName(),f.getQuantity(),f.getQuantity(),(double) m.getPrice()*f.getQuantity()));
         }
-        // Create a bill with the total amount and associate it with the food order.
-        Bill bill=new Bill(totalAmount);
-        FoodOrder processedFoodOrder=new FoodOrder(processedFoods,rawFoodOrder.getCustomerName(),bill);
-        bill.setFoodOrder(processedFoodOrder);
+        // Save the food order, its bill with the total amount is written by the billing stage once the order is committed.
+        FoodOrder processedFoodOrder=new FoodOrder(processedFoods,rawFoodOrder.getCustomerName(),null);
         foodRepository.save(processedFoodOrder);
-
-        FoodOrderAcceptedDTO foodOrderAcceptedDTO=new FoodOrderAcceptedDTO();
-        foodOrderAcceptedDTO.setId(processedFoodOrder.getId());
-        foodOrderAcceptedDTO.setOrderDate(LocalDateTime.now());
-        foodOrderAcceptedDTO.setCustomerName(processedFoodOrder.getCustomerName());
-        List<FoodItemDTO> foodItemDTOList=new ArrayList<>();
-        for(Food f: processedFoodOrder.getFoodItems()){
-            foodItemDTOList.add(new FoodItemDTO(f.getFoodName(),f.getQuantity().intValue()));
-        }
-        foodOrderAcceptedDTO.setFoodItems(foodItemDTOList);
-        return foodOrderAcceptedDTO;
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,processedFoodOrder.getId(),totalAmount,billLines);
+        return toFoodOrderAcceptedDTO(processedFoodOrder);
     }
 
     /**
@@ -121,20 +188,11 @@ public class FoodOrderService {
         if(name==null||name.trim().isEmpty()){
             throw new FoodOrderNotFoundException("No Food Order Found, Invalid Customer Name "+name);
         }
-        Optional<FoodOrder> order=foodRepository.getFoodOrderByCustomerName(name);
+        Optional<FoodOrder> order=foodRepository.findFirstByNormalizedNameOrderByIdDesc(NameNormalizer.normalize(name));
         if(order.isEmpty()){
             throw new FoodOrderNotFoundException("No Food Order Found, Invalid Customer Name "+name);
         }
-        FoodOrderAcceptedDTO foodOrderAcceptedDTO=new FoodOrderAcceptedDTO();
-        foodOrderAcceptedDTO.setId(order.get().getId());
-        foodOrderAcceptedDTO.setCustomerName(order.get().getCustomerName());
-        foodOrderAcceptedDTO.setOrderDate(LocalDateTime.now());
-        List<FoodItemDTO> foodItemDTOList=new ArrayList<>();
-        for (Food f:order.get().getFoodItems()){
-            foodItemDTOList.add(new FoodItemDTO(f.getFoodName(),f.getQuantity().intValue()));
-        }
-        foodOrderAcceptedDTO.setFoodItems(foodItemDTOList);
-        return foodOrderAcceptedDTO;
+        return toFoodOrderAcceptedDTO(order.get());
     }
 
 
@@ -179,46 +237,154 @@ public class FoodOrderService {
         }else if(foodOrder.getFoodItems()==null||foodOrder.getFoodItems().isEmpty()){
             throw new InvalidFoodOrderException("Food Items Can't be null for Food Order");
         }
+        for(Food f:foodOrder.getFoodItems()){
+            if(f.getFoodName()==null||f.getFoodName().trim().isEmpty()){
+                throw new InvalidFoodOrderException("Food Name can't be null for Food Order");
+            }else if(f.getQuantity()==null||f.getQuantity()<=0){
+                throw new InvalidFoodOrderException("Invalid quantity for food item "+f.getFoodName()+", Please provide quantity greater than 0");
+            }
+        }
     }
 
     /**
-     * Validates that the food items in the order are available in the menu.
-     * Throws an exception if any food items are not available.
+     * Validates that the food items in the order are available in the menu and takes the ordered quantities
+     * out of the menu stock. The menu items are looked up and priced from the in-memory menu index, the stock
+     * is only checked by one guarded JDBC batch decrementing all of them, which is the authority on the stock
+     * because the indexed counts may be behind concurrent orders. The stock left in the database after the
+     * decrement is read back and published to the menu index once the surrounding transaction commits.
+     * Returns a rejection if any food items are not available, the caller must then roll back the stock
+     * taken by the guarded batch.
      *
      * @param foodOrder The food order containing the items to validate.
-     * @throws FoodItemNotAvailableException If any food items are not available in the menu.
+     * @return The ordered menu items keyed by their normalized item name,
+     * or the {@link FoodItemNotAvailableException} listing the ordered and available quantities.
      */
-    public void validateFoodItems(FoodOrder foodOrder){
-        List<Food> foods=foodOrder.getFoodItems();
-        List<String> unavailableFoods=new ArrayList<>();
-        HashMap<String,Integer> availableFoods=new HashMap<>();
+    public ValidationResult<Map<String,Menu>> checkFoodItems(FoodOrder foodOrder){
         HashMap<String,Integer> orderedFoods=new HashMap<>();
-        for(Food f:foods) {
-            orderedFoods.put(f.getFoodName(),f.getQuantity().intValue());
-            Optional<Menu> m = menuRepository.getMenuByItemName(f.getFoodName());
-            if (m.isEmpty()) {
-                unavailableFoods.add(f.getFoodName());
-            }else{
-                if(m.get().getAvailableCount()<f.getQuantity()){
-                    unavailableFoods.add(f.getFoodName());
-                }
-                availableFoods.put(m.get().getItemName(),m.get().getAvailableCount());
+        Map<String,Long> orderedQuantities=new LinkedHashMap<>();
+        for(Food f:foodOrder.getFoodItems()){
+            orderedFoods.merge(f.getFoodName(),f.getQuantity().intValue(),Integer::sum);
+            orderedQuantities.merge(NameNormalizer.normalize(f.getFoodName()),f.getQuantity(),Long::sum);
+        }
+        Map<String,Menu> menus=new HashMap<>();
+        Map<Long,Long> quantitiesByMenuId=new LinkedHashMap<>();
+        for(Map.Entry<String,Long> ordered:orderedQuantities.entrySet()){
+            Menu m=menuIndexService.getMenu(ordered.getKey());
+            if(m!=null){
+                menus.put(ordered.getKey(),m);
+                quantitiesByMenuId.put(m.getId(),ordered.getValue());
             }
         }
-        if(!unavailableFoods.isEmpty()){
-            throw new FoodItemNotAvailableException("Sorry for Inconvenience, Requested Food Items are not available in Full Quantity",orderedFoods,availableFoods);
+        boolean allExist=menus.size()==orderedQuantities.size();
+        List<Long> outOfStock=allExist?menuRepository.decrementAvailableCounts(quantitiesByMenuId):List.of();
+        if(!allExist||!outOfStock.isEmpty()){
+            return ValidationResult.rejected(new FoodItemNotAvailableException("Sorry for Inconvenience, Requested Food Items are not available in Full Quantity",orderedFoods,getAvailableFoods(menus.values(),quantitiesByMenuId,allExist,outOfStock)));
         }
+        updateMenuIndexAfterCommit(menus.values(),quantitiesByMenuId.keySet());
+        return ValidationResult.valid(menus);
+    }
 
-        for(Food f:foods){
-            Optional<Menu> m=menuRepository.getMenuByItemName(f.getFoodName());
-            long newMenuAvailableCount=m.get().getAvailableCount()-f.getQuantity();
-            m.get().setAvailableCount(Math.toIntExact(newMenuAvailableCount));
-            Boolean isMenuItemsAvailable=newMenuAvailableCount>0;
-            m.get().setAvailable(isMenuItemsAvailable);
-            availableFoods.put(m.get().getItemName(),m.get().getAvailableCount());
-            menuService.updateMenu(m.get().getId(),m.get());
+    /**
+     * Reads the stock of the ordered menu items for the rejection of an order, only when the order is rejected.
+     *
+     * @param menus The ordered menu items that exist.
+     * @param quantitiesByMenuId The ordered quantities keyed by menu item id.
+     * @param decremented Whether the guarded batch ran for the order.
+     * @param outOfStock The ids of the menu items the guarded batch could not decrement.
+     * @return The available quantities keyed by item name, as they were before the order.
+     */
+    private HashMap<String,Integer> getAvailableFoods(Collection<Menu> menus,Map<Long,Long> quantitiesByMenuId,boolean decremented,List<Long> outOfStock){
+        HashMap<String,Integer> availableFoods=new HashMap<>();
+        if(menus.isEmpty()){
+            return availableFoods;
+        }
+        Map<Long,Integer> availableCounts=new HashMap<>();
+        for(MenuRepository.MenuStockRow row:menuRepository.findStockRowsByIdIn(quantitiesByMenuId.keySet())){
+            availableCounts.put(row.getId(),row.getAvailableCount());
+        }
+        for(Menu m:menus){
+            Integer availableCount=availableCounts.get(m.getId());
+            if(availableCount==null){
+                continue;
+            }
+            if(decremented&&!outOfStock.contains(m.getId())){
+                //taken by this order and given back when it rolls back
+                availableCount=Math.toIntExact(availableCount+quantitiesByMenuId.get(m.getId()));
+            }
+            availableFoods.put(m.getItemName(),availableCount);
         }
+        return availableFoods;
+    }
 
+    private void updateMenuIndexAfterCommit(Collection<Menu> menus,Collection<Long> menuIds){
+        //the decremented rows stay locked until the commit, so the stock read now is the stock once the order commits
+        Map<Long,MenuRepository.MenuStockRow> stockRows=new HashMap<>();
+        for(MenuRepository.MenuStockRow row:menuRepository.findStockRowsByIdIn(menuIds)){
+            stockRows.put(row.getId(),row);
+        }
+        List<Menu> updatedMenus=new ArrayList<>();
+        for(Menu m:menus){
+            MenuRepository.MenuStockRow row=stockRows.get(m.getId());
+            Menu updatedMenu=new Menu(m.getItemName(),m.getPrice(),row.getAvailable(),row.getAvailableCount());
+            updatedMenu.setId(m.getId());
+            updatedMenus.add(updatedMenu);
+        }
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            updateMenuIndex(updatedMenus);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                updateMenuIndex(updatedMenus);
+            }
+        });
+    }
+
+    private void updateMenuIndex(List<Menu> updatedMenus){
+        for(Menu menu:updatedMenus){
+            menuIndexService.put(menu);
+            availabilityStreamService.publish(AvailabilityStreamService.MENU,menu.getItemName(),menu.getAvailableCount(),menu.getAvailable());
+        }
+    }
+
+    // An order without food items is selected as one row without a food item
+    private void addFoodItem(FoodOrderAcceptedDTO foodOrder,FoodOrderRepository.FoodOrderItemRow row){
+        if(row.getFoodName()!=null){
+            foodOrder.getFoodItems().add(new FoodItemDTO(row.getFoodName(),row.getQuantity().intValue()));
+        }
+    }
+
+    // Food orders of one page, whose ids were fetched with one id more than the page size
+    private CursorPageDTO<FoodOrderAcceptedDTO> toFoodOrderPage(List<Long> ids,int pageSize){
+        CursorPageDTO<Long> idPage=CursorPageDTO.of(ids,pageSize,id->id);
+        if(idPage.getItems().isEmpty()){
+            return new CursorPageDTO<>(new ArrayList<>(),null);
+        }
+        List<FoodOrderAcceptedDTO> foodOrders=toFoodOrderAcceptedDTOs(foodRepository.findItemRowsByIdIn(idPage.getItems()));
+        return new CursorPageDTO<>(foodOrders,idPage.getNextCursor());
+    }
+
+    // Food orders of rows ordered by order id, one row per ordered food item
+    private List<FoodOrderAcceptedDTO> toFoodOrderAcceptedDTOs(List<FoodOrderRepository.FoodOrderItemRow> rows){
+        List<FoodOrderAcceptedDTO> foodOrders=new ArrayList<>();
+        FoodOrderAcceptedDTO current=null;
+        for(FoodOrderRepository.FoodOrderItemRow row:rows){
+            if(current==null||!current.getId().equals(row.getId())){
+                current=new FoodOrderAcceptedDTO(row.getId(),row.getCustomerName(),row.getOrderDate(),new ArrayList<>());
+                foodOrders.add(current);
+            }
+            addFoodItem(current,row);
+        }
+        return foodOrders;
+    }
+
+    private FoodOrderAcceptedDTO toFoodOrderAcceptedDTO(FoodOrder foodOrder){
+        List<FoodItemDTO> foodItemDTOList=new ArrayList<>();
+        for(Food f:foodOrder.getFoodItems()){
+            foodItemDTOList.add(new FoodItemDTO(f.getFoodName(),f.getQuantity().intValue()));
+        }
+        return new FoodOrderAcceptedDTO(foodOrder.getId(),foodOrder.getCustomerName(),foodOrder.getOrderDate(),foodItemDTOList);
     }
 
 }
@@ -0,0 +1,167 @@
+package com.example.demo.service;
+
+import com.example.demo.exception_handler.idempotency_exceptions.IdempotencyKeyReusedException;
+import com.example.demo.exception_handler.idempotency_exceptions.IdempotentRequestInProgressException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of requests sent with an idempotency key, so that a client retrying a request
+ * gets the original response back instead of creating the booking or order a second time.
+ * <p>
+ * The store is bounded by {@code hotel.idempotency.max-entries} and every response is evicted
+ * {@code hotel.idempotency.ttl-seconds} after it was first requested, only once it is complete so that a retry of a
+ * request still running never runs it a second time. A retry that arrives while the original request is still
+ * running waits for its result at most {@code hotel.idempotency.wait-ms}. Every key remembers a fingerprint of its
+ * request body, a key reused with a different body is rejected. Failed requests are not remembered.
+ * </p>
+ */
+@Service
+public class IdempotencyService {
+
+    // How long a response is remembered for its idempotency key
+    @Value("${hotel.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    // Maximum number of remembered responses, the oldest complete ones are evicted first
+    @Value("${hotel.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    // Maximum time a retry waits for the original request before it is rejected
+    @Value("${hotel.idempotency.wait-ms:30000}")
+    private long waitMs;
+
+    // Serializes the request bodies that are fingerprinted
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Responses keyed by scope and idempotency key, in the order they were first requested
+    private final LinkedHashMap<String,StoredResponse> responses=new LinkedHashMap<>();
+
+    /**
+     * Runs the action once per scope and idempotency key and returns its remembered result for every retry.
+     *
+     * @param scope The endpoint the key belongs to, so the same key can be used for different endpoints.
+     * @param idempotencyKey The key sent by the client, the action is simply run if it is null or blank.
+     * @param request The request body, a retry must send the same body as the first request.
+     * @param action The action creating the response.
+     * @return The response of the first request sent with this key.
+     * @throws IdempotencyKeyReusedException if the key was first sent with a different request body.
+     * @throws IdempotentRequestInProgressException if the first request sent with the key did not complete in time.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope,String idempotencyKey,Object request,Supplier<T> action){
+        if(idempotencyKey==null||idempotencyKey.isBlank()){
+            return action.get();
+        }
+        String key=scope+":"+idempotencyKey;
+        byte[] fingerprint=fingerprint(request);
+        StoredResponse storedResponse;
+        boolean firstRequest=false;
+        synchronized (responses){
+            long now=System.currentTimeMillis();
+            evictExpired(now);
+            storedResponse=responses.get(key);
+            if(storedResponse==null){
+                storedResponse=new StoredResponse(now+ttlSeconds*1000,fingerprint);
+                responses.put(key,storedResponse);
+                firstRequest=true;
+                if(responses.size()>maxEntries){
+                    evictEldestComplete();
+                }
+            }
+        }
+        if(!Arrays.equals(storedResponse.fingerprint,fingerprint)){
+            throw new IdempotencyKeyReusedException("Idempotency Key "+idempotencyKey+" was already used for a different request");
+        }
+        if(!firstRequest){
+            try{
+                return (T) storedResponse.response.get(waitMs,TimeUnit.MILLISECONDS);
+            }catch (ExecutionException e){
+                throw e.getCause() instanceof RuntimeException?(RuntimeException) e.getCause():new IllegalStateException(e.getCause());
+            }catch (TimeoutException e){
+                throw new IdempotentRequestInProgressException("Request with Idempotency Key "+idempotencyKey+" is still in progress, Please try again later");
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IdempotentRequestInProgressException("Request with Idempotency Key "+idempotencyKey+" is still in progress, Please try again later");
+            }
+        }
+        try{
+            T response=action.get();
+            storedResponse.response.complete(response);
+            return response;
+        }catch (RuntimeException e){
+            synchronized (responses){
+                responses.remove(key,storedResponse);
+            }
+            storedResponse.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evictExpired(long now){
+        Iterator<Map.Entry<String,StoredResponse>> iterator=responses.entrySet().iterator();
+        while(iterator.hasNext()){
+            StoredResponse storedResponse=iterator.next().getValue();
+            if(storedResponse.expiresAt>now){
+                return;
+            }
+            if(storedResponse.response.isDone()){
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evictEldestComplete(){
+        Iterator<StoredResponse> iterator=responses.values().iterator();
+        while(iterator.hasNext()){
+            if(iterator.next().response.isDone()){
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    private byte[] fingerprint(Object request){
+        try{
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        }catch (JsonProcessingException e){
+            throw new IllegalArgumentException("Request can't be fingerprinted",e);
+        }catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The response remembered for one idempotency key.
+     */
+    private static class StoredResponse {
+
+        private final long expiresAt;
+
+        // SHA-256 digest of the request body sent with the key
+        private final byte[] fingerprint;
+
+        private final CompletableFuture<Object> response=new CompletableFuture<>();
+
+        private StoredResponse(long expiresAt,byte[] fingerprint){
+            this.expiresAt=expiresAt;
+            this.fingerprint=fingerprint;
+        }
+    }
+}
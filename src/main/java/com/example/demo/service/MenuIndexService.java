@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import com.example.demo.models.Menu;
+import com.example.demo.repository.MenuRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory, case-insensitive index of all menu items keyed by their normalized item name.
+ * <p>
+ * The index is loaded with a single query on first use and kept in sync by {@link MenuService}
+ * whenever a menu item is created, updated or deleted, so lookups don't hit the database.
+ * </p>
+ */
+@Service
+public class MenuIndexService {
+
+    // Repository used to load all menu items into the index
+    @Autowired
+    private MenuRepository menuRepository;
+
+    // Menu items keyed by normalized item name
+    private final ConcurrentHashMap<String,Menu> menusByName=new ConcurrentHashMap<>();
+
+    // Whether the index has been loaded from the database
+    private volatile boolean loaded;
+
+    // Number of lookups that found a menu item, and that found none
+    private final LongAdder hits=new LongAdder();
+
+    private final LongAdder misses=new LongAdder();
+
+    /**
+     * Retrieves a menu item by its name, ignoring case and surrounding whitespace.
+     *
+     * @param itemName The name of the menu item.
+     * @return The menu item, or null if no menu item with this name exists.
+     */
+    public Menu getMenu(String itemName){
+        if(itemName==null){
+            return null;
+        }
+        if(!loaded){
+            load();
+        }
+        Menu menu=menusByName.get(normalize(itemName));
+        if(menu==null){
+            misses.increment();
+        }else{
+            hits.increment();
+        }
+        return menu;
+    }
+
+    /**
+     * Adds a created menu item to the index or replaces the indexed copy of an updated one.
+     *
+     * @param menu The saved menu item.
+     */
+    public synchronized void put(Menu menu){
+        if(loaded){
+            menusByName.put(normalize(menu.getItemName()),menu);
+        }
+    }
+
+    /**
+     * Removes a menu item from the index.
+     *
+     * @param itemName The name of the menu item.
+     */
+    public synchronized void remove(String itemName){
+        if(itemName!=null){
+            menusByName.remove(normalize(itemName));
+        }
+    }
+
+    /**
+     * Drops all indexed menu items, the index is reloaded on the next lookup.
+     */
+    public synchronized void invalidate(){
+        loaded=false;
+        menusByName.clear();
+    }
+
+    /**
+     * Returns the number of lookups that found a menu item.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount(){
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no menu item.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount(){
+        return misses.sum();
+    }
+
+    /**
+     * Normalizes a menu item name into the key used by the index.
+     *
+     * @param itemName The name of the menu item.
+     * @return The trimmed, lower case item name.
+     */
+    public static String normalize(String itemName){
+        return itemName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private synchronized void load(){
+        if(loaded){
+            return;
+        }
+        for(Menu menu:menuRepository.findAll()){
+            if(menu.getItemName()!=null){
+                menusByName.put(normalize(menu.getItemName()),menu);
+            }
+        }
+        loaded=true;
+    }
+}
@@ -4,12 +4,14 @@ import com.example.demo.dto.response_dto.MenuAvailabilityDTO;
 import com.example.demo.exception_handler.menu_exceptions.InvalidMenuException;
 import com.example.demo.exception_handler.menu_exceptions.MenuAlreadyExistsException;
 import com.example.demo.exception_handler.menu_exceptions.MenuNotFoundException;
+import com.example.demo.exception_handler.menu_exceptions.MenuUpdateConflictException;
 import com.example.demo.models.Menu;
 import com.example.demo.repository.MenuRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,6 +21,18 @@ public class MenuService {
     @Autowired
     private MenuRepository menuRepository;
 
+    // Case-insensitive menu index that has to follow every change of the menu
+    @Autowired
+    private MenuIndexService menuIndexService;
+
+    // Pushes changes of menu availability to connected screens
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
+
+    // Retries updates that lost against a concurrent order of the same menu item
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     /**
      * Retrieves a menu item by its ID.
      * Throws an exception if the ID is invalid or the menu item is not found.
@@ -77,7 +91,25 @@ public class MenuService {
      */
     public Menu createMenu(Menu menu){
         validateCreateMenu(menu);
-        return menuRepository.save(menu);
+        //the id of a new menu item is generated, and a menu item with an id but no version can't be inserted
+        menu.setId(null);
+        menu.setVersion(null);
+        Menu savedMenu=menuRepository.save(menu);
+        menuIndexService.put(savedMenu);
+        publishAvailability(savedMenu);
+        return savedMenu;
+    }
+
+    // Copy of the read menu item with the fields set in the modified menu, the read menu item is kept for the index
+    private Menu applyChanges(Menu existingMenu,Menu modifiedMenu){
+        Menu menu=new Menu();
+        menu.setId(existingMenu.getId());
+        menu.setVersion(existingMenu.getVersion());
+        menu.setItemName(modifiedMenu.getItemName()!=null?modifiedMenu.getItemName():existingMenu.getItemName());
+        menu.setPrice(modifiedMenu.getPrice()!=null?modifiedMenu.getPrice():existingMenu.getPrice());
+        menu.setAvailable(modifiedMenu.getAvailable()!=null?modifiedMenu.getAvailable():existingMenu.getAvailable());
+        menu.setAvailableCount(modifiedMenu.getAvailableCount()!=null?modifiedMenu.getAvailableCount():existingMenu.getAvailableCount());
+        return menu;
     }
 
     /**
@@ -94,22 +126,44 @@ public class MenuService {
             throw new MenuNotFoundException("No Menu Found with Id "+id);
         }
         menuRepository.deleteById(id);
+        menuIndexService.remove(menu.get().getItemName());
+        availabilityStreamService.publish(AvailabilityStreamService.MENU,menu.get().getItemName(),null,false);
     }
 
     /**
      * Updates an existing menu item with modified details.
-     * The existing menu is overridden by the modified menu.
+     * The fields set in the modified menu are applied to the menu item as it is read now, fields left out keep
+     * their value. A modified menu carrying a version is rejected when an order took the item out of the stock
+     * since it was read, so that a stale copy can't override the stock. A modified menu without a version is
+     * applied again to the menu item read once more when a concurrent write wins between the read and the write.
      *
      * @param oldId The ID of the menu item to update.
      * @param modifiedMenu The modified menu details.
      * @return The updated menu item.
+     * @throws MenuUpdateConflictException If the menu item was changed since the modified menu was read.
      */
     public Menu updateMenu(Long oldId,Menu modifiedMenu){
 
-        Menu existingMenu=getMenuById(oldId);
-        modifiedMenu.setId(oldId);
-        //over-rides old menu
-        return menuRepository.save(modifiedMenu);
+        Menu[] existing=new Menu[1];
+        Menu savedMenu=optimisticRetryService.execute(()->{
+            //over-rides old menu, unless an order changed it since it was read
+            existing[0]=getMenuById(oldId);
+            if(modifiedMenu.getVersion()!=null&&!modifiedMenu.getVersion().equals(existing[0].getVersion())){
+                throw new MenuUpdateConflictException("Menu with Id "+oldId+" was changed since it was read, read it again and retry");
+            }
+            return menuRepository.save(applyChanges(existing[0],modifiedMenu));
+        },()->new MenuUpdateConflictException("Menu with Id "+oldId+" is being changed concurrently, try again"));
+        Menu existingMenu=existing[0];
+        menuIndexService.remove(existingMenu.getItemName());
+        menuIndexService.put(savedMenu);
+        if(!existingMenu.getItemName().equals(savedMenu.getItemName())){
+            availabilityStreamService.publish(AvailabilityStreamService.MENU,existingMenu.getItemName(),null,false);
+            publishAvailability(savedMenu);
+        }else if(!Objects.equals(existingMenu.getAvailableCount(),savedMenu.getAvailableCount())
+                ||!Objects.equals(existingMenu.getAvailable(),savedMenu.getAvailable())){
+            publishAvailability(savedMenu);
+        }
+        return savedMenu;
     }
 
 
@@ -133,6 +187,15 @@ public class MenuService {
         return menuAvailabilityDTO;
     }
 
+    /**
+     * Pushes the availability of a saved menu item to connected screens.
+     *
+     * @param menu The saved menu item.
+     */
+    public void publishAvailability(Menu menu){
+        availabilityStreamService.publish(AvailabilityStreamService.MENU,menu.getItemName(),menu.getAvailableCount(),menu.getAvailable());
+    }
+
     /**
      * Validates the data for creating a new menu item.
      * Ensures that the item name, price, and availability are not null and that the price is within a valid range.
@@ -143,6 +206,20 @@ public class MenuService {
      * @throws MenuAlreadyExistsException If the menu item already exists.
      */
     public void validateCreateMenu(Menu menu){
+        validateMenuFields(menu);
+        Optional<Menu> existingMenu=menuRepository.getMenuByItemName(menu.getItemName());
+        if(existingMenu.isPresent()){
+            throw new MenuAlreadyExistsException("Menu with itemName "+menu.getItemName()+" Already Exists");
+        }
+    }
+
+    /**
+     * Validates the fields of a new menu item without checking whether it already exists.
+     *
+     * @param menu The menu item to validate.
+     * @throws InvalidMenuException If the menu data is invalid.
+     */
+    public void validateMenuFields(Menu menu){
         if(menu.getItemName()==null&&menu.getPrice()==null&&menu.getAvailable()==null&&menu.getAvailableCount()==null){
             throw new InvalidMenuException("ItemName ,Price and availability can;t be null to create menu");
         }else if(menu.getItemName()==null||menu.getItemName().trim().isEmpty()){
@@ -154,10 +231,6 @@ public class MenuService {
         }else if(menu.getAvailableCount()==null||menu.getAvailableCount()<0){
             throw new InvalidMenuException("Menu availability count can't be null,And it must be >=0");
         }
-        Optional<Menu> existingMenu=menuRepository.getMenuByItemName(menu.getItemName());
-        if(existingMenu.isPresent()){
-            throw new MenuAlreadyExistsException("Menu with itemName "+menu.getItemName()+" Already Exists");
-        }
     }
 
 
@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Writes the rows of a JPA {@link Stream} as newline-delimited JSON while they are read from the database.
+ * <p>
+ * Every row is written as soon as it is read and the persistence context is cleared every
+ * {@value #CLEAR_INTERVAL} rows, so together with the bounded fetch size of the repository stream
+ * the memory used stays flat however many rows the table has. Projections joining a collection are streamed with
+ * {@link #streamGroups}, which writes one document per run of consecutive rows of the same parent.
+ * </p>
+ */
+@Service
+public class NdjsonStreamService {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    // Number of rows after which the persistence context is cleared
+    private static final int CLEAR_INTERVAL = 500;
+
+    // Persistence context of the streaming transaction, cleared periodically to release streamed entities
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Transaction manager used to keep the connection and cursor open while the rows are written
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Object mapper used to serialize every row
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Creates a response body streaming the rows of a repository stream as NDJSON in a read-only transaction.
+     *
+     * @param rows Supplier opening the repository stream.
+     * @param mapper Function mapping a row to the object written for it.
+     * @return The response body writing one JSON document per line.
+     */
+    public <E,T> StreamingResponseBody stream(Supplier<Stream<E>> rows,Function<E,T> mapper){
+        return outputStream->{
+            TransactionTemplate transactionTemplate=new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            try{
+                transactionTemplate.executeWithoutResult(status->{
+                    try(Stream<E> stream=rows.get()){
+                        writeRows(stream.iterator(),mapper,outputStream);
+                    }
+                });
+            }catch (UncheckedIOException e){
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * Creates a response body streaming the rows of a repository stream as NDJSON in a read-only transaction,
+     * writing one document for every run of consecutive rows with the same key.
+     *
+     * @param rows Supplier opening the repository stream, ordered by the key.
+     * @param key Function returning the key of the parent a row belongs to.
+     * @param mapper Function mapping the rows of one parent to the object written for it.
+     * @return The response body writing one JSON document per line.
+     */
+    public <E,T> StreamingResponseBody streamGroups(Supplier<Stream<E>> rows,Function<E,?> key,Function<List<E>,T> mapper){
+        return stream(()->{
+            Stream<E> stream=rows.get();
+            Iterator<List<E>> groups=new GroupIterator<>(stream.iterator(),key);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(groups,Spliterator.ORDERED),false).onClose(stream::close);
+        },mapper);
+    }
+
+    private <E,T> void writeRows(Iterator<E> rows,Function<E,T> mapper,OutputStream outputStream){
+        int written=0;
+        try{
+            while(rows.hasNext()){
+                outputStream.write(objectMapper.writeValueAsBytes(mapper.apply(rows.next())));
+                outputStream.write('\n');
+                if(++written%CLEAR_INTERVAL==0){
+                    entityManager.clear();
+                    outputStream.flush();
+                }
+            }
+            outputStream.flush();
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Iterates over the runs of consecutive rows with the same key, reading one row ahead.
+     */
+    private static class GroupIterator<E> implements Iterator<List<E>> {
+
+        private final Iterator<E> rows;
+
+        private final Function<E,?> key;
+
+        // First row of the next group, read while the previous group was collected
+        private E next;
+
+        private GroupIterator(Iterator<E> rows,Function<E,?> key){
+            this.rows=rows;
+            this.key=key;
+            this.next=rows.hasNext()?rows.next():null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next!=null;
+        }
+
+        @Override
+        public List<E> next() {
+            if(next==null){
+                throw new NoSuchElementException();
+            }
+            List<E> group=new ArrayList<>();
+            Object groupKey=key.apply(next);
+            group.add(next);
+            next=null;
+            while(rows.hasNext()){
+                E row=rows.next();
+                if(!Objects.equals(groupKey,key.apply(row))){
+                    next=row;
+                    break;
+                }
+                group.add(row);
+            }
+            return group;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.BookRoomRepository;
+import com.example.demo.repository.FeedbackRepository;
+import com.example.demo.repository.FoodOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills the normalized name column of bookings, food orders and feedbacks saved before the column existed,
+ * so that the indexed name lookups also find them. New rows get their normalized name when they are saved.
+ */
+@Component
+public class NormalizedNameBackfill implements ApplicationRunner {
+
+    // Repository used to backfill the booked rooms
+    @Autowired
+    private BookRoomRepository bookRoomRepository;
+
+    // Repository used to backfill the food orders
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    // Repository used to backfill the feedbacks
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        bookRoomRepository.backfillNormalizedNames();
+        foodOrderRepository.backfillNormalizedNames();
+        feedbackRepository.backfillNormalizedNames();
+    }
+}
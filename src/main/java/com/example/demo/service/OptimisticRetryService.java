@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-modify-write updates of versioned entities again when a concurrent write changed the row
+ * between the read and the write, and write transactions again when they lost a row lock, e.g. as the
+ * victim of a deadlock.
+ * <p>
+ * An attempt is retried at most {@code hotel.retry.max-attempts} times with an exponential backoff starting at
+ * {@code hotel.retry.initial-backoff-ms}, capped at {@code hotel.retry.max-backoff-ms} and randomised so that
+ * writers colliding on the same row do not collide again. Every attempt has to read the row again. Inside an
+ * enclosing transaction the persistence context of a failed attempt cannot be reused, the attempt then runs once
+ * and the conflict is left to the caller.
+ * </p>
+ */
+@Service
+public class OptimisticRetryService {
+
+    // Maximum number of attempts of one update
+    @Value("${hotel.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    // Backoff before the first retry, doubled for every further retry
+    @Value("${hotel.retry.initial-backoff-ms:10}")
+    private long initialBackoffMs;
+
+    // Upper bound of the backoff before a retry
+    @Value("${hotel.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    // Number of attempts that lost against a concurrent write
+    private final LongAdder conflicts=new LongAdder();
+
+    // Number of attempts started again after a conflict
+    private final LongAdder retries=new LongAdder();
+
+    // Number of updates given up after the last attempt lost as well
+    private final LongAdder exhausted=new LongAdder();
+
+    /**
+     * Runs an update and retries it while it fails with an optimistic locking conflict or a lost row lock.
+     *
+     * @param attempt The update, reading the entity again on every call, or a whole write transaction.
+     * @param onExhausted Creates the exception thrown when every attempt failed.
+     * @return The result of the first successful attempt.
+     */
+    public <T> T execute(Supplier<T> attempt,Supplier<? extends RuntimeException> onExhausted){
+        int attempts=TransactionSynchronizationManager.isActualTransactionActive()?1:Math.max(1,maxAttempts);
+        long backoffMs=initialBackoffMs;
+        for(int i=1;;i++){
+            try{
+                return attempt.get();
+            }catch (ConcurrencyFailureException e){
+                conflicts.increment();
+                if(i>=attempts){
+                    exhausted.increment();
+                    RuntimeException exception=onExhausted.get();
+                    exception.initCause(e);
+                    throw exception;
+                }
+            }
+            retries.increment();
+            sleep(ThreadLocalRandom.current().nextLong(backoffMs+1));
+            backoffMs=Math.min(backoffMs*2,maxBackoffMs);
+        }
+    }
+
+    /**
+     * Returns the number of attempts that lost against a concurrent write.
+     *
+     * @return The conflict count.
+     */
+    public long getConflictCount(){
+        return conflicts.sum();
+    }
+
+    /**
+     * Returns the number of attempts started again after a conflict.
+     *
+     * @return The retry count.
+     */
+    public long getRetryCount(){
+        return retries.sum();
+    }
+
+    /**
+     * Returns the number of updates that failed because every attempt lost against a concurrent write.
+     *
+     * @return The exhausted count.
+     */
+    public long getExhaustedCount(){
+        return exhausted.sum();
+    }
+
+    private static void sleep(long millis){
+        try{
+            Thread.sleep(millis);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry a conflicting update",e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.FoodOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills the order date of food orders saved before the column existed with the date of their bill,
+ * which is written right after the order. New orders get their order date when they are created.
+ */
+@Component
+public class OrderDateBackfill implements ApplicationRunner {
+
+    // Repository used to backfill the food orders
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        foodOrderRepository.backfillOrderDates();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.RoomAvailabilityDTO;
+import com.example.demo.dto.response_dto.RoomSummaryDTO;
+import com.example.demo.models.Room;
+import com.example.demo.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-memory materialized view of the availability of every room type, served to polling clients with ETags.
+ * <p>
+ * The view is loaded with a single query on first use and then updated incrementally by {@link RoomService}
+ * when rooms are saved, updated or deleted and by {@link BookRoomService} when a booking takes rooms out of the
+ * room inventory. Every change publishes a new immutable {@link Snapshot} with a higher version, so reads never
+ * lock and an unchanged version lets a poll be answered with 304 Not Modified without touching the database.
+ * Every change is also pushed to the subscribers of the {@link AvailabilityStreamService}, loaded or not.
+ * </p>
+ */
+@Service
+public class RoomAvailabilityViewService {
+
+    // Repository used to load the view
+    @Autowired
+    private RoomRepository roomRepository;
+
+    // Room inventory holding the authoritative counts of the room types booked since startup
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    // Pushes the changes of the view to connected screens
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
+
+    // Current snapshot, replaced as a whole on every change
+    private volatile Snapshot snapshot;
+
+    /**
+     * Returns the current availability of all room types, loading the view on first use.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot getSnapshot(){
+        Snapshot current=snapshot;
+        return current!=null?current:load();
+    }
+
+    /**
+     * Adds a saved room to the view or replaces the availability of its type.
+     *
+     * @param room The saved room.
+     */
+    public void put(Room room){
+        Integer inventoryCount=roomInventoryService.getAvailableCount(room.getType());
+        int count=inventoryCount!=null?inventoryCount:room.getAvailableCount()==null?0:room.getAvailableCount();
+        apply(rooms->rooms.put(room.getType(),new RoomAvailabilityDTO(room.getType(),count,room.getPrice(),room.getAvailable())));
+        availabilityStreamService.publish(AvailabilityStreamService.ROOM,room.getType(),count,room.getAvailable());
+    }
+
+    /**
+     * Removes a deleted or renamed room type from the view.
+     *
+     * @param type The type of the room.
+     */
+    public void remove(String type){
+        apply(rooms->rooms.remove(type));
+        availabilityStreamService.publish(AvailabilityStreamService.ROOM,type,null,false);
+    }
+
+    /**
+     * Copies the inventory counts of booked room types into the view once the booking commits,
+     * or right away when no transaction is active.
+     *
+     * @param types The booked room types.
+     */
+    public void refreshCountsAfterCommit(Collection<String> types){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            refreshCounts(types);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshCounts(types);
+            }
+        });
+    }
+
+    private void refreshCounts(Collection<String> types){
+        Map<String,Integer> counts=new LinkedHashMap<>();
+        for(String type:types){
+            Integer count=roomInventoryService.getAvailableCount(type);
+            if(count!=null){
+                counts.put(type,count);
+            }
+        }
+        Map<String,Boolean> available=new LinkedHashMap<>();
+        //a room type the admin marked unavailable stays unavailable whatever its count
+        apply(rooms->{
+            for(Map.Entry<String,Integer> count:counts.entrySet()){
+                RoomAvailabilityDTO current=rooms.get(count.getKey());
+                if(current!=null){
+                    boolean roomAvailable=Boolean.TRUE.equals(current.getAvailable())&&count.getValue()>0;
+                    rooms.put(count.getKey(),new RoomAvailabilityDTO(count.getKey(),count.getValue(),current.getPrice(),roomAvailable));
+                    available.put(count.getKey(),roomAvailable);
+                }
+            }
+        });
+        for(Map.Entry<String,Integer> count:counts.entrySet()){
+            availabilityStreamService.publish(AvailabilityStreamService.ROOM,count.getKey(),count.getValue(),available.getOrDefault(count.getKey(),count.getValue()>0));
+        }
+    }
+
+    private synchronized Snapshot load(){
+        if(snapshot!=null){
+            return snapshot;
+        }
+        Map<String,RoomAvailabilityDTO> rooms=new LinkedHashMap<>();
+        for(RoomSummaryDTO room:roomRepository.findAllSummaries()){
+            Integer inventoryCount=roomInventoryService.getAvailableCount(room.getType());
+            int count=inventoryCount!=null?inventoryCount:room.getAvailableCount()==null?0:room.getAvailableCount();
+            rooms.put(room.getType(),new RoomAvailabilityDTO(room.getType(),count,room.getPrice(),room.getAvailable()));
+        }
+        snapshot=new Snapshot(System.currentTimeMillis(),1,rooms,new HashMap<>());
+        return snapshot;
+    }
+
+    // A change is only applied to a loaded view, the load itself reads the current state
+    private synchronized void apply(Consumer<Map<String,RoomAvailabilityDTO>> change){
+        Snapshot current=snapshot;
+        if(current==null){
+            return;
+        }
+        Map<String,RoomAvailabilityDTO> rooms=new LinkedHashMap<>(current.rooms);
+        change.accept(rooms);
+        long version=current.version+1;
+        Map<String,Long> versionsByType=new HashMap<>(current.versionsByType);
+        for(Map.Entry<String,RoomAvailabilityDTO> entry:rooms.entrySet()){
+            if(entry.getValue()!=current.rooms.get(entry.getKey())){
+                versionsByType.put(entry.getKey(),version);
+            }
+        }
+        versionsByType.keySet().retainAll(rooms.keySet());
+        snapshot=new Snapshot(current.epoch,version,rooms,versionsByType);
+    }
+
+    /**
+     * Immutable availability of all room types at one version of the view.
+     */
+    public static class Snapshot {
+
+        // Time the view was loaded, keeps the entity tags of a reloaded view apart from the old ones
+        private final long epoch;
+
+        private final long version;
+
+        private final Map<String,RoomAvailabilityDTO> rooms;
+
+        // Version at which each room type last changed, types unchanged since the load are missing
+        private final Map<String,Long> versionsByType;
+
+        private final List<RoomAvailabilityDTO> roomList;
+
+        public Snapshot(long epoch,long version,Map<String,RoomAvailabilityDTO> rooms,Map<String,Long> versionsByType){
+            this.epoch=epoch;
+            this.version=version;
+            this.rooms=Collections.unmodifiableMap(rooms);
+            this.versionsByType=versionsByType;
+            this.roomList=Collections.unmodifiableList(new ArrayList<>(rooms.values()));
+        }
+
+        /**
+         * Returns the availability of all room types.
+         *
+         * @return The room types in the order they were loaded or added.
+         */
+        public List<RoomAvailabilityDTO> getRooms(){
+            return roomList;
+        }
+
+        /**
+         * Returns the availability of a room type.
+         *
+         * @param type The type of the room.
+         * @return The availability, or null if there is no room of this type.
+         */
+        public RoomAvailabilityDTO getRoom(String type){
+            return rooms.get(type);
+        }
+
+        /**
+         * Returns the entity tag of the whole view, it changes whenever any room type changes.
+         *
+         * @return The quoted version of the view.
+         */
+        public String getETag(){
+            return "\""+epoch+"-"+version+"\"";
+        }
+
+        /**
+         * Returns the entity tag of one room type, it only changes when that room type changes.
+         *
+         * @param type The type of the room.
+         * @return The quoted version at which the room type last changed.
+         */
+        public String getETag(String type){
+            return "\""+epoch+"-"+versionsByType.getOrDefault(type,1L)+"\"";
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.demo.service;
+
+import com.example.demo.models.Room;
+import com.example.demo.repository.RoomRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the availability count of every room type in memory so that concurrent bookings
+ * can reserve rooms with an atomic compare-and-decrement instead of a read-modify-write on the database.
+ * <p>
+ * Counters are seeded from the {@link Room} rows the first time a type is booked and are authoritative
+ * from then on. Reserved counts are written back to the Room table in batches by {@link #flush()}.
+ * Loading, resetting and flushing of a type are serialized on a lock stripe chosen by the type name,
+ * the reservation itself never takes a lock. Bookings reserve through {@link RoomLedgerService#tryHold},
+ * which checks the reservation against the nights booked by stays under the lock of the room's ledger.
+ * </p>
+ * <p>
+ * Since the counters and not the Room rows decide whether a room can be reserved, only one instance of the
+ * application may book rooms against a database. A second instance would keep its own counters and both would
+ * reserve the same rooms, their write-backs overwriting each other.
+ * </p>
+ */
+@Service
+public class RoomInventoryService {
+
+    // Number of lock stripes guarding counter (re)initialisation and write-back per room type
+    private static final int LOCK_STRIPES = 64;
+
+    // Repository used to write reserved counts back to the Room table
+    @Autowired
+    private RoomRepository roomRepository;
+
+    // Transaction manager used to write a whole batch of counters in one transaction
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // In-memory availability counters keyed by room type
+    private final ConcurrentHashMap<String,AtomicInteger> counters=new ConcurrentHashMap<>();
+
+    // Room types whose counter changed since the last write-back
+    private final Set<String> dirtyTypes=ConcurrentHashMap.newKeySet();
+
+    // Number of compare-and-set attempts lost to a concurrent reservation of the same room type
+    private final LongAdder casRetries=new LongAdder();
+
+    // Number of reservations rejected because a room type had not enough rooms left
+    private final LongAdder rejections=new LongAdder();
+
+    private final Object[] locks=new Object[LOCK_STRIPES];
+
+    public RoomInventoryService(){
+        for(int i=0;i<LOCK_STRIPES;i++){
+            locks[i]=new Object();
+        }
+    }
+
+    /**
+     * Atomically reserves the requested number of rooms for every room type, or none of them.
+     * If the call runs inside a transaction the reservation is released again when that transaction rolls back.
+     *
+     * @param requestedRooms the rooms to reserve mapped to the requested count of each room.
+     * @return true if all rooms were reserved, false if at least one room type had not enough rooms left.
+     */
+    public boolean tryReserve(Map<Room,Integer> requestedRooms){
+        Map<String,Integer> reserved=new HashMap<>();
+        for(Map.Entry<Room,Integer> entry:requestedRooms.entrySet()){
+            String type=entry.getKey().getType();
+            int requestedCount=entry.getValue();
+            if(!tryDecrement(counterFor(entry.getKey()),requestedCount)){
+                release(reserved);
+                return false;
+            }
+            reserved.put(type,requestedCount);
+            dirtyTypes.add(type);
+        }
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if(status!=STATUS_COMMITTED){
+                        release(reserved);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Gives previously reserved rooms back to the inventory.
+     *
+     * @param reservedRooms room types mapped to the number of rooms to give back.
+     */
+    public void release(Map<String,Integer> reservedRooms){
+        for(Map.Entry<String,Integer> entry:reservedRooms.entrySet()){
+            AtomicInteger counter=counters.get(entry.getKey());
+            if(counter!=null){
+                counter.addAndGet(entry.getValue());
+                dirtyTypes.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Returns the current in-memory availability count of a room type.
+     *
+     * @param type the type of the room.
+     * @return the availability count, or null if the type has not been loaded into the inventory yet.
+     */
+    public Integer getAvailableCount(String type){
+        AtomicInteger counter=counters.get(type);
+        return counter==null?null:counter.get();
+    }
+
+    /**
+     * Returns the current in-memory availability count of a room, loading it from the room if its type is not in the inventory yet.
+     *
+     * @param room the room.
+     * @return the availability count.
+     */
+    public int getAvailableCount(Room room){
+        return counterFor(room).get();
+    }
+
+    /**
+     * Returns the number of compare-and-set attempts that had to be retried because of a concurrent reservation.
+     *
+     * @return the retry count.
+     */
+    public long getCasRetryCount(){
+        return casRetries.sum();
+    }
+
+    /**
+     * Returns the number of reservations rejected because a room type had not enough rooms left.
+     *
+     * @return the rejection count.
+     */
+    public long getRejectionCount(){
+        return rejections.sum();
+    }
+
+    /**
+     * Replaces the counter of a room type with the count of a new room that was saved by an administrator.
+     *
+     * @param room the saved room.
+     */
+    public void reset(Room room){
+        synchronized (lockFor(room.getType())){
+            int count=countOf(room);
+            counters.put(room.getType(),new AtomicInteger(count));
+            dirtyTypes.remove(room.getType());
+        }
+    }
+
+    /**
+     * Applies an administrator's change of a room to the counter of its type. The counter moves by the difference
+     * between the saved count and the count the change was based on, so rooms reserved since the last write-back
+     * stay reserved. A renamed room takes its counter along. A counter lowered below the rooms reserved since the
+     * last write-back stops at 0, the saved room is then written back with the count of the counter.
+     *
+     * @param existingRoom the room as it was read before the change.
+     * @param savedRoom the saved room.
+     */
+    public void update(Room existingRoom,Room savedRoom){
+        int change=countOf(savedRoom)-countOf(existingRoom);
+        if(existingRoom.getType().equals(savedRoom.getType())){
+            AtomicInteger counter=counters.get(savedRoom.getType());
+            if(counter!=null&&!applyChange(counter,change)){
+                dirtyTypes.add(savedRoom.getType());
+            }
+            return;
+        }
+        AtomicInteger counter;
+        boolean dirty;
+        synchronized (lockFor(existingRoom.getType())){
+            counter=counters.remove(existingRoom.getType());
+            dirty=dirtyTypes.remove(existingRoom.getType());
+        }
+        if(counter==null){
+            //not loaded yet, the counter is seeded from the saved room on first use
+            return;
+        }
+        synchronized (lockFor(savedRoom.getType())){
+            //the same counter object is moved, reservations holding it are not lost
+            dirty|=!applyChange(counter,change);
+            counters.put(savedRoom.getType(),counter);
+            if(dirty){
+                dirtyTypes.add(savedRoom.getType());
+            }
+        }
+    }
+
+    /**
+     * Drops the counter of a room type, e.g. after the room was deleted.
+     *
+     * @param type the type of the room.
+     */
+    public void evict(String type){
+        synchronized (lockFor(type)){
+            counters.remove(type);
+            dirtyTypes.remove(type);
+        }
+    }
+
+    /**
+     * Writes the counters of all room types reserved since the last run back to the Room table in a single transaction.
+     */
+    @Scheduled(fixedDelayString = "${hotel.inventory.flush-interval-ms:200}")
+    public void flush(){
+        if(dirtyTypes.isEmpty()){
+            return;
+        }
+        List<String> batch=new ArrayList<>();
+        for(String type:dirtyTypes){
+            if(dirtyTypes.remove(type)){
+                batch.add(type);
+            }
+        }
+        try{
+            new TransactionTemplate(transactionManager).executeWithoutResult(status->{
+                for(String type:batch){
+                    synchronized (lockFor(type)){
+                        AtomicInteger counter=counters.get(type);
+                        if(counter!=null){
+                            int count=counter.get();
+                            roomRepository.updateAvailabilityByType(type,count,count>0);
+                        }
+                    }
+                }
+            });
+        }catch (RuntimeException e){
+            dirtyTypes.addAll(batch);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes outstanding reservations back before the application shuts down.
+     */
+    @PreDestroy
+    public void flushOnShutdown(){
+        flush();
+    }
+
+    // Moves the counter by the change without going below 0, returns false if it stopped at 0
+    private static boolean applyChange(AtomicInteger counter,int change){
+        int previous=counter.getAndUpdate(current->Math.max(0,current+change));
+        return previous+change>=0;
+    }
+
+    private static int countOf(Room room){
+        return room.getAvailableCount()==null?0:room.getAvailableCount();
+    }
+
+    private AtomicInteger counterFor(Room room){
+        AtomicInteger counter=counters.get(room.getType());
+        if(counter!=null){
+            return counter;
+        }
+        synchronized (lockFor(room.getType())){
+            int count=countOf(room);
+            return counters.computeIfAbsent(room.getType(),type->new AtomicInteger(count));
+        }
+    }
+
+    private boolean tryDecrement(AtomicInteger counter,int count){
+        while(true){
+            int current=counter.get();
+            if(current<count){
+                rejections.increment();
+                return false;
+            }
+            if(counter.compareAndSet(current,current-count)){
+                return true;
+            }
+            casRetries.increment();
+        }
+    }
+
+    private Object lockFor(String type){
+        return locks[(type.hashCode()&0x7fffffff)%LOCK_STRIPES];
+    }
+}
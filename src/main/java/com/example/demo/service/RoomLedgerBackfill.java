@@ -0,0 +1,33 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.RoomNightRepository;
+import com.example.demo.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills the columns the room ledger relies on for rows written before they existed: the total count of rooms,
+ * and the room id of the booked nights, which were keyed by room type before.
+ * New rooms get their total count when they are saved and new nights their room id when the ledger writes them.
+ */
+@Component
+public class RoomLedgerBackfill implements ApplicationRunner {
+
+    // Repository used to backfill the total counts of the rooms
+    @Autowired
+    private RoomRepository roomRepository;
+
+    // Repository used to backfill the room ids of the booked nights
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        roomRepository.backfillTotalCounts();
+        roomNightRepository.backfillRoomIds();
+    }
+}
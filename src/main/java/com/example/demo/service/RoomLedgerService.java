@@ -0,0 +1,467 @@
+package com.example.demo.service;
+
+import com.example.demo.models.Room;
+import com.example.demo.models.RoomNight;
+import com.example.demo.repository.RoomNightRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nightly inventory ledger of booked rooms per room and night.
+ * <p>
+ * Every room keeps an {@code int[]} of booked rooms with one slot per night over a rolling
+ * {@link #HORIZON_DAYS}-day horizon starting today, so checking a stay is a scan over at most that many ints.
+ * The arrays are keyed by room id so that renaming a room keeps its booked nights, are loaded from
+ * {@link RoomNight} rows on first use, are authoritative from then on and are written back to the database
+ * in batches by {@link #flush()}, like the room inventory.
+ * </p>
+ * <p>
+ * Bookings without dates take their rooms out of the {@link RoomInventoryService} for good, so the rooms left
+ * in the inventory are the capacity of every night. Both kinds of booking are checked under the lock of the
+ * room's ledger: a stay must fit below the inventory count on each of its nights, and a booking without dates
+ * must leave the inventory count at or above the most rooms booked on any night.
+ * </p>
+ */
+@Service
+public class RoomLedgerService {
+
+    // Number of nights, starting today, that can be booked in advance
+    public static final int HORIZON_DAYS = 365;
+
+    // Repository used to load and write back the nightly ledger
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    // Transaction manager used to write a whole batch of ledger entries in one transaction
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Room inventory holding the rooms not taken by bookings without dates, the capacity of every night
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    // Ledgers keyed by room id
+    private final ConcurrentHashMap<Long,NightLedger> ledgers=new ConcurrentHashMap<>();
+
+    // Rooms whose ledger changed since the last write-back
+    private final Set<Long> dirtyRooms=ConcurrentHashMap.newKeySet();
+
+    // Number of times a ledger lock was held by another thread when it was requested
+    private final LongAdder lockContentions=new LongAdder();
+
+    /**
+     * Returns the lowest number of rooms of the given room that are free on every night of a stay.
+     *
+     * @param room the room to check.
+     * @param checkInDate the first night of the stay.
+     * @param checkOutDate the day the guest leaves.
+     * @return the number of rooms that can be booked for the whole stay.
+     */
+    public int getAvailableCount(Room room,LocalDate checkInDate,LocalDate checkOutDate){
+        NightLedger ledger=ledgerFor(room.getId());
+        lock(ledger);
+        try{
+            ledger.rollTo(today());
+            return capacityOf(room)-ledger.maxBooked(ledger.offsetOf(checkInDate),ledger.offsetOf(checkOutDate));
+        }finally {
+            ledger.lock.unlock();
+        }
+    }
+
+    /**
+     * Books the requested number of rooms for every night of a stay for all room types, or for none of them.
+     * If the call runs inside a transaction the nights are freed again when that transaction rolls back.
+     *
+     * @param requestedRooms the rooms to book mapped to the requested count of each room.
+     * @param checkInDate the first night of the stay.
+     * @param checkOutDate the day the guest leaves.
+     * @return true if the rooms were booked, false if at least one night had not enough rooms left.
+     */
+    public boolean tryBook(Map<Room,Integer> requestedRooms,LocalDate checkInDate,LocalDate checkOutDate){
+        List<Map.Entry<Room,Integer>> entries=new ArrayList<>(requestedRooms.entrySet());
+        List<NightLedger> locked=lockAll(entries);
+        try{
+            for(int i=0;i<entries.size();i++){
+                NightLedger ledger=locked.get(i);
+                int booked=ledger.maxBooked(ledger.offsetOf(checkInDate),ledger.offsetOf(checkOutDate));
+                if(capacityOf(entries.get(i).getKey())-booked<entries.get(i).getValue()){
+                    return false;
+                }
+            }
+            Map<Long,Integer> bookedRooms=new HashMap<>();
+            for(int i=0;i<entries.size();i++){
+                NightLedger ledger=locked.get(i);
+                ledger.add(ledger.offsetOf(checkInDate),ledger.offsetOf(checkOutDate),entries.get(i).getValue());
+                bookedRooms.put(entries.get(i).getKey().getId(),entries.get(i).getValue());
+                dirtyRooms.add(entries.get(i).getKey().getId());
+            }
+            registerRollback(bookedRooms,checkInDate,checkOutDate);
+            return true;
+        }finally {
+            unlockAll(locked);
+        }
+    }
+
+    /**
+     * Takes the requested number of rooms out of the room inventory for a booking without dates, for all rooms
+     * or for none of them. The rooms left in the inventory must still cover the most rooms booked on any night.
+     * If the call runs inside a transaction the rooms are given back when that transaction rolls back.
+     *
+     * @param requestedRooms the rooms to take mapped to the requested count of each room.
+     * @return true if the rooms were taken, false if at least one room had not enough rooms left.
+     */
+    public boolean tryHold(Map<Room,Integer> requestedRooms){
+        List<Map.Entry<Room,Integer>> entries=new ArrayList<>(requestedRooms.entrySet());
+        List<NightLedger> locked=lockAll(entries);
+        try{
+            for(int i=0;i<entries.size();i++){
+                if(capacityOf(entries.get(i).getKey())-locked.get(i).maxBooked(0,HORIZON_DAYS)<entries.get(i).getValue()){
+                    return false;
+                }
+            }
+            //still under the ledger locks, so no stay can be booked against the count being taken
+            return roomInventoryService.tryReserve(requestedRooms);
+        }finally {
+            unlockAll(locked);
+        }
+    }
+
+    /**
+     * Returns the number of rooms of the given room a booking without dates can take.
+     *
+     * @param room the room to check.
+     * @return the rooms left in the inventory less the most rooms booked on any night.
+     */
+    public int getHoldableCount(Room room){
+        NightLedger ledger=ledgerFor(room.getId());
+        lock(ledger);
+        try{
+            ledger.rollTo(today());
+            return capacityOf(room)-ledger.maxBooked(0,HORIZON_DAYS);
+        }finally {
+            ledger.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of rooms a booking without dates can take for every given room,
+     * loading the ledgers of the rooms not used before with one query.
+     *
+     * @param rooms the rooms to check.
+     * @return the room ids mapped to the rooms left in the inventory less the most rooms booked on any night.
+     */
+    public Map<Long,Integer> getHoldableCounts(Collection<Room> rooms){
+        List<Long> roomIds=new ArrayList<>();
+        for(Room room:rooms){
+            roomIds.add(room.getId());
+        }
+        loadLedgers(roomIds);
+        Map<Long,Integer> holdableCounts=new HashMap<>();
+        for(Room room:rooms){
+            holdableCounts.put(room.getId(),getHoldableCount(room));
+        }
+        return holdableCounts;
+    }
+
+    /**
+     * Frees previously booked rooms for every night of a stay.
+     *
+     * @param bookedRooms room ids mapped to the number of rooms to free.
+     * @param checkInDate the first night of the stay.
+     * @param checkOutDate the day the guest leaves.
+     */
+    public void release(Map<Long,Integer> bookedRooms,LocalDate checkInDate,LocalDate checkOutDate){
+        for(Map.Entry<Long,Integer> entry:bookedRooms.entrySet()){
+            NightLedger ledger=ledgers.get(entry.getKey());
+            if(ledger==null){
+                continue;
+            }
+            lock(ledger);
+            try{
+                ledger.rollTo(today());
+                ledger.add(ledger.offsetOf(checkInDate),ledger.offsetOf(checkOutDate),-entry.getValue());
+                dirtyRooms.add(entry.getKey());
+            }finally {
+                ledger.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drops the ledger of a deleted room, the nights of a room that no longer exists are not written back.
+     *
+     * @param roomId the id of the room.
+     */
+    public void evict(Long roomId){
+        ledgers.remove(roomId);
+        dirtyRooms.remove(roomId);
+    }
+
+    /**
+     * Checks that a stay starts today or later, ends after it starts and lies within the booking horizon.
+     *
+     * @param checkInDate the first night of the stay.
+     * @param checkOutDate the day the guest leaves.
+     * @return null if the stay is valid, otherwise a message describing why it is not.
+     */
+    public String validateStay(LocalDate checkInDate,LocalDate checkOutDate){
+        LocalDate today=today();
+        if(checkInDate==null||checkOutDate==null){
+            return "Check-in and check-out date must be provided together";
+        }else if(checkInDate.isBefore(today)){
+            return "Check-in date can't be in the past";
+        }else if(!checkOutDate.isAfter(checkInDate)){
+            return "Check-out date must be after check-in date";
+        }else if(checkOutDate.isAfter(today.plusDays(HORIZON_DAYS))){
+            return "Rooms can only be booked up to "+HORIZON_DAYS+" days in advance";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of times a ledger lock was held by another thread when it was requested.
+     *
+     * @return the contention count.
+     */
+    public long getLockContentionCount(){
+        return lockContentions.sum();
+    }
+
+    /**
+     * Writes the nights of all rooms booked since the last run back to the RoomNight table in a single transaction.
+     */
+    @Scheduled(fixedDelayString = "${hotel.inventory.flush-interval-ms:200}")
+    public void flush(){
+        if(dirtyRooms.isEmpty()){
+            return;
+        }
+        List<Long> batch=new ArrayList<>();
+        for(Long roomId:dirtyRooms){
+            if(dirtyRooms.remove(roomId)){
+                batch.add(roomId);
+            }
+        }
+        try{
+            new TransactionTemplate(transactionManager).executeWithoutResult(status->{
+                for(Long roomId:batch){
+                    writeBack(roomId);
+                }
+            });
+        }catch (RuntimeException e){
+            dirtyRooms.addAll(batch);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes outstanding bookings back before the application shuts down.
+     */
+    @PreDestroy
+    public void flushOnShutdown(){
+        flush();
+    }
+
+    private void writeBack(Long roomId){
+        NightLedger ledger=ledgers.get(roomId);
+        if(ledger==null){
+            return;
+        }
+        int[] booked;
+        LocalDate baseDate;
+        String type;
+        lock(ledger);
+        try{
+            booked=ledger.booked.clone();
+            baseDate=ledger.baseDate;
+            type=ledger.roomType;
+        }finally {
+            ledger.lock.unlock();
+        }
+        Map<LocalDate,RoomNight> existingNights=new HashMap<>();
+        for(RoomNight night:roomNightRepository.findByRoomIdAndNightGreaterThanEqual(roomId,baseDate)){
+            existingNights.put(night.getNight(),night);
+        }
+        List<RoomNight> changedNights=new ArrayList<>();
+        for(int i=0;i<booked.length;i++){
+            LocalDate date=baseDate.plusDays(i);
+            RoomNight night=existingNights.get(date);
+            if(night==null&&booked[i]!=0){
+                changedNights.add(new RoomNight(roomId,type,date,booked[i]));
+            }else if(night!=null&&night.getBookedCount()!=booked[i]){
+                night.setBookedCount(booked[i]);
+                changedNights.add(night);
+            }
+        }
+        roomNightRepository.saveAll(changedNights);
+    }
+
+    private void registerRollback(Map<Long,Integer> bookedRooms,LocalDate checkInDate,LocalDate checkOutDate){
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if(status!=STATUS_COMMITTED){
+                        release(bookedRooms,checkInDate,checkOutDate);
+                    }
+                }
+            });
+        }
+    }
+
+    //locks the ledgers of the rooms in a fixed order so that concurrent multi-room bookings can't deadlock,
+    //the ledgers are returned in the order of the entries
+    private List<NightLedger> lockAll(List<Map.Entry<Room,Integer>> entries){
+        entries.sort(Comparator.comparing(entry->entry.getKey().getId()));
+        List<Long> roomIds=new ArrayList<>();
+        for(Map.Entry<Room,Integer> entry:entries){
+            roomIds.add(entry.getKey().getId());
+        }
+        loadLedgers(roomIds);
+        List<NightLedger> locked=new ArrayList<>();
+        for(Map.Entry<Room,Integer> entry:entries){
+            NightLedger ledger=ledgerFor(entry.getKey().getId());
+            lock(ledger);
+            locked.add(ledger);
+            ledger.rollTo(today());
+            ledger.roomType=entry.getKey().getType();
+        }
+        return locked;
+    }
+
+    private void unlockAll(List<NightLedger> locked){
+        for(NightLedger ledger:locked){
+            ledger.lock.unlock();
+        }
+    }
+
+    private void lock(NightLedger ledger){
+        if(!ledger.lock.tryLock()){
+            lockContentions.increment();
+            ledger.lock.lock();
+        }
+    }
+
+    private NightLedger ledgerFor(Long roomId){
+        NightLedger ledger=ledgers.get(roomId);
+        if(ledger!=null){
+            return ledger;
+        }
+        return ledgers.computeIfAbsent(roomId,this::loadLedger);
+    }
+
+    private NightLedger loadLedger(Long roomId){
+        NightLedger ledger=new NightLedger(today());
+        for(RoomNight night:roomNightRepository.findByRoomIdAndNightGreaterThanEqual(roomId,ledger.baseDate)){
+            ledger.put(night);
+        }
+        return ledger;
+    }
+
+    //loads the ledgers of all given rooms not used before with one query instead of one query per room
+    private void loadLedgers(Collection<Long> roomIds){
+        Map<Long,NightLedger> loaded=new HashMap<>();
+        for(Long roomId:roomIds){
+            if(!ledgers.containsKey(roomId)){
+                loaded.put(roomId,new NightLedger(today()));
+            }
+        }
+        if(loaded.size()<2){
+            //a single ledger is loaded on first use
+            return;
+        }
+        for(RoomNight night:roomNightRepository.findByRoomIdInAndNightGreaterThanEqual(loaded.keySet(),today())){
+            loaded.get(night.getRoomId()).put(night);
+        }
+        for(Map.Entry<Long,NightLedger> entry:loaded.entrySet()){
+            ledgers.putIfAbsent(entry.getKey(),entry.getValue());
+        }
+    }
+
+    private int capacityOf(Room room){
+        return roomInventoryService.getAvailableCount(room);
+    }
+
+    private LocalDate today(){
+        return LocalDate.now();
+    }
+
+    /**
+     * Booked rooms of one room for every night of the horizon, guarded by its own lock.
+     */
+    private static class NightLedger {
+
+        private final ReentrantLock lock=new ReentrantLock();
+
+        // First night of the horizon, the night stored at index 0
+        private LocalDate baseDate;
+
+        // Type of the room when it was last booked, written to new RoomNight rows
+        private String roomType;
+
+        private int[] booked=new int[HORIZON_DAYS];
+
+        private NightLedger(LocalDate baseDate){
+            this.baseDate=baseDate;
+        }
+
+        // Moves the horizon forward so that it starts today, dropping the nights that have passed
+        private void rollTo(LocalDate today){
+            int days=(int) ChronoUnit.DAYS.between(baseDate,today);
+            if(days<=0){
+                return;
+            }
+            int[] rolled=new int[HORIZON_DAYS];
+            if(days<HORIZON_DAYS){
+                System.arraycopy(booked,days,rolled,0,HORIZON_DAYS-days);
+            }
+            booked=rolled;
+            baseDate=today;
+        }
+
+        private void put(RoomNight night){
+            int offset=offsetOf(night.getNight());
+            if(offset>=0&&offset<HORIZON_DAYS){
+                booked[offset]=night.getBookedCount();
+            }
+        }
+
+        private int offsetOf(LocalDate date){
+            return (int) ChronoUnit.DAYS.between(baseDate,date);
+        }
+
+        private int maxBooked(int from,int to){
+            int max=0;
+            for(int i=Math.max(from,0);i<Math.min(to,HORIZON_DAYS);i++){
+                if(booked[i]>max){
+                    max=booked[i];
+                }
+            }
+            return max;
+        }
+
+        private void add(int from,int to,int count){
+            for(int i=Math.max(from,0);i<Math.min(to,HORIZON_DAYS);i++){
+                booked[i]+=count;
+            }
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.example.demo.service;
 import java.util.List;
 import java.util.Optional;
 
+import com.example.demo.dto.response_dto.RoomSummaryDTO;
 import com.example.demo.exception_handler.room_exceptions.InvalidRoomException;
 import com.example.demo.exception_handler.room_exceptions.RoomAlreadyExistsException;
 import com.example.demo.exception_handler.room_exceptions.RoomNotFoundException;
+import com.example.demo.exception_handler.room_exceptions.RoomUpdateConflictException;
 import com.example.demo.models.Menu;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -20,6 +22,22 @@ public class RoomService {
     @Autowired
     private RoomRepository roomRepository;
 
+    // In-memory room inventory that has to follow administrative changes of room counts
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    // Nightly room ledger, dropped when its room is deleted
+    @Autowired
+    private RoomLedgerService roomLedgerService;
+
+    // In-memory availability view served to polling clients, follows every change of a room
+    @Autowired
+    private RoomAvailabilityViewService roomAvailabilityViewService;
+
+    // Retries updates that lost against a concurrent write of the same room
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
 
     /**
      * Retrieves all rooms from the repository.
@@ -34,6 +52,19 @@ public class RoomService {
         return allRooms;
     }
 
+    /**
+     * Retrieves the summaries of all rooms, selecting only the columns shown by the room list.
+     *
+     * @return A list of all room summaries.
+     */
+    public List<RoomSummaryDTO> findAllRoomSummaries(){
+        List<RoomSummaryDTO> allRooms=roomRepository.findAllSummaries();
+        if(allRooms.isEmpty()){
+            throw new RoomNotFoundException("No Rooms Found");
+        }
+        return allRooms;
+    }
+
     /**
      * Saves a new room in the repository.
      * Validates the room data and throws an exception if it is invalid or if a room with the same type already exists.
@@ -45,7 +76,16 @@ public class RoomService {
      */
     public Room saveRoom(Room room){
         validateSaveRoom(room);
-        return roomRepository.save(room);
+        if(room.getTotalCount()==null){
+            room.setTotalCount(room.getAvailableCount());
+        }
+        //the id of a new room is generated, and a room with an id but no version can't be inserted
+        room.setId(null);
+        room.setVersion(null);
+        Room savedRoom=roomRepository.save(room);
+        roomInventoryService.reset(savedRoom);
+        roomAvailabilityViewService.put(savedRoom);
+        return savedRoom;
     }
 
     /**
@@ -73,6 +113,9 @@ public class RoomService {
         Optional<Room> room= roomRepository.findById(id);
         validateDeleteRoom(room,id);
         roomRepository.deleteById(id);
+        roomInventoryService.evict(room.get().getType());
+        roomLedgerService.evict(id);
+        roomAvailabilityViewService.remove(room.get().getType());
     }
 
     /**
@@ -99,6 +142,20 @@ public class RoomService {
      * @throws InvalidRoomException If the room data is invalid.
      */
     private void validateSaveRoom(Room room) {
+        validateRoomFields(room);
+        Optional<Room> existingRoom=roomRepository.getRoomByType(room.getType());
+        if(existingRoom.isPresent()){
+            throw new RoomAlreadyExistsException("Room Already Exists With Type "+ existingRoom.get().getType());
+        }
+    }
+
+    /**
+     * Validates the fields of a new room without checking whether a room with the same type already exists.
+     *
+     * @param room The room to validate.
+     * @throws InvalidRoomException If the room data is invalid.
+     */
+    public void validateRoomFields(Room room) {
        if(room.getType()==null&&room.getAvailable()==null&&room.getPrice()==null){
             throw new InvalidRoomException("Room type,availability and price can't be null");
         } else if(room.getType()==null||room.getType().trim().isEmpty()){
@@ -108,11 +165,6 @@ public class RoomService {
         }else if(room.getPrice()==null||room.getPrice()<0||room.getPrice()>1000000){
             throw  new InvalidRoomException("Room price can't be null, and must be in range 0-10L");
         }
-
-        Optional<Room> existingRoom=roomRepository.getRoomByType(room.getType());
-        if(existingRoom.isPresent()){
-            throw new RoomAlreadyExistsException("Room Already Exists With Type "+ existingRoom.get().getType());
-        }
     }
 
     /**
@@ -129,15 +181,44 @@ public class RoomService {
     }
 
 
-    /** Updates the room based on oldId and new Room data
+    /** Updates the room based on oldId and new Room data.
+     * The fields set in the new data are applied to the room as it is read now, fields left out keep their value.
+     * New data carrying a version is rejected when the room was written since it was read, e.g. by the write-back
+     * of booked rooms, so that a stale copy can't override it. New data without a version is applied again to the
+     * room read once more when a concurrent write wins between the read and the write.
      *
      * @param id the old id for which room data will be overridden
      * @param modifiedRoom new room data to replace old date corresponding to id
+     * @throws RoomUpdateConflictException If the room was changed since the new data was read.
      * */
     public Room updateRoom(Long id,Room modifiedRoom){
-          Room existingRoom=findRoomById(id);
-          modifiedRoom.setId(id);
-          return roomRepository.save(modifiedRoom);
+          Room[] existing=new Room[1];
+          Room savedRoom=optimisticRetryService.execute(()->{
+              existing[0]=findRoomById(id);
+              if(modifiedRoom.getVersion()!=null&&!modifiedRoom.getVersion().equals(existing[0].getVersion())){
+                  throw new RoomUpdateConflictException("Room with Id "+id+" was changed since it was read, read it again and retry");
+              }
+              //the version is checked again when the room is written
+              return roomRepository.save(applyChanges(existing[0],modifiedRoom));
+          },()->new RoomUpdateConflictException("Room with Id "+id+" is being changed concurrently, try again"));
+          Room existingRoom=existing[0];
+          roomInventoryService.update(existingRoom,savedRoom);
+          roomAvailabilityViewService.remove(existingRoom.getType());
+          roomAvailabilityViewService.put(savedRoom);
+          return savedRoom;
+    }
+
+    // Copy of the read room with the fields set in the new data, the read room is kept for the inventory
+    private Room applyChanges(Room existingRoom,Room modifiedRoom){
+        Room room=new Room();
+        room.setId(existingRoom.getId());
+        room.setVersion(existingRoom.getVersion());
+        room.setType(modifiedRoom.getType()!=null?modifiedRoom.getType():existingRoom.getType());
+        room.setAvailable(modifiedRoom.getAvailable()!=null?modifiedRoom.getAvailable():existingRoom.getAvailable());
+        room.setPrice(modifiedRoom.getPrice()!=null?modifiedRoom.getPrice():existingRoom.getPrice());
+        room.setAvailableCount(modifiedRoom.getAvailableCount()!=null?modifiedRoom.getAvailableCount():existingRoom.getAvailableCount());
+        room.setTotalCount(modifiedRoom.getTotalCount()!=null?modifiedRoom.getTotalCount():existingRoom.getTotalCount());
+        return room;
     }
 
     /**
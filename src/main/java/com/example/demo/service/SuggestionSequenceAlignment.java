@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+
+/**
+ * Moves the id sequence of suggestions above the ids of the suggestions saved while their ids were still
+ * generated by the auto increment column. On MySQL the sequence is the {@code suggestion_seq} table, whose
+ * {@code next_val} is the first id of the next block handed out by the pooled-lo optimizer.
+ */
+@Component
+public class SuggestionSequenceAlignment implements ApplicationRunner {
+
+    private static final String SEQUENCE_TABLE = "suggestion_seq";
+
+    // Reads the highest suggestion id and moves the sequence table
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        Long maxId=jdbcTemplate.queryForObject("select max(id) from suggestion",Long.class);
+        if(maxId==null||!sequenceTableExists()){
+            return;
+        }
+        jdbcTemplate.update("update "+SEQUENCE_TABLE+" set next_val=? where next_val<=?",maxId+1,maxId);
+    }
+
+    private boolean sequenceTableExists(){
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection->{
+            for(String name:new String[]{SEQUENCE_TABLE,SEQUENCE_TABLE.toUpperCase()}){
+                try(ResultSet tables=connection.getMetaData().getTables(connection.getCatalog(),null,name,new String[]{"TABLE"})){
+                    if(tables.next()){
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -4,6 +4,10 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.function.Function;
 import com.example.demo.models.Suggestion;
 import com.example.demo.repository.SuggestionRepository;
 
@@ -14,6 +18,10 @@ public class SuggestionService {
     @Autowired
     private SuggestionRepository suggestionRepository;
 
+    // Service writing the streamed suggestions as newline-delimited JSON
+    @Autowired
+    private NdjsonStreamService ndjsonStreamService;
+
     /**
      * Retrieves all suggestions from the repository.
      *
@@ -23,6 +31,28 @@ public class SuggestionService {
          return suggestionRepository.findAll();
     }
 
+    /**
+     * Retrieves one page of suggestions ordered by id, starting after the given cursor.
+     *
+     * @param cursor The id of the last suggestion of the previous page, null for the first page.
+     * @param size The requested page size, at most {@link CursorPageDTO#MAX_PAGE_SIZE}.
+     * @return The page of suggestions and the cursor of the next page.
+     */
+    public CursorPageDTO<Suggestion> findSuggestionPage(Long cursor,Integer size){
+        int pageSize=CursorPageDTO.pageSize(size);
+        List<Suggestion> suggestions=suggestionRepository.findByIdGreaterThanOrderByIdAsc(cursor==null?0L:cursor,Limit.of(pageSize+1));
+        return CursorPageDTO.of(suggestions,pageSize,Suggestion::getId);
+    }
+
+    /**
+     * Streams all suggestions ordered by id as newline-delimited JSON.
+     *
+     * @return The response body writing one suggestion per line.
+     */
+    public StreamingResponseBody streamAllSuggestions(){
+        return ndjsonStreamService.stream(suggestionRepository::streamAllByOrderByIdAsc,Function.identity());
+    }
+
     /**
      * Adds a new suggestion to the repository.
      *
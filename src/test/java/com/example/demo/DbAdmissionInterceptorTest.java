@@ -0,0 +1,96 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DbAdmissionInterceptorTest {
+
+    private DbAdmissionInterceptor interceptor;
+
+    private final HandlerMethod databaseHandler=handler("findRooms");
+
+    private final HandlerMethod inMemoryHandler=handler("getAvailability");
+
+
+    @BeforeEach
+    public void setUp(){
+        interceptor=new DbAdmissionInterceptor(1);
+        ReflectionTestUtils.setField(interceptor,"waitMs",10L);
+        ReflectionTestUtils.setField(interceptor,"objectMapper",new ObjectMapper());
+    }
+
+
+    @Test
+    public void testRequestBeyondLimitIsRejectedWithServiceUnavailable() throws Exception{
+        MockHttpServletRequest first=new MockHttpServletRequest("GET","/rooms");
+        MockHttpServletResponse rejected=new MockHttpServletResponse();
+
+        //the first request holds the only permit while the second one arrives
+        assertTrue(interceptor.preHandle(first,new MockHttpServletResponse(),databaseHandler));
+        assertEquals(1,interceptor.getInFlightCount());
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("GET","/bills"),rejected,databaseHandler));
+        interceptor.afterCompletion(first,new MockHttpServletResponse(),databaseHandler,null);
+
+        assertEquals(503,rejected.getStatus());
+        assertEquals("1",rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Server is busy"));
+        assertEquals(1,interceptor.getRejectionCount());
+        assertEquals(0,interceptor.getInFlightCount());
+    }
+
+
+    @Test
+    public void testHandlersAnsweringFromMemoryAreNotGated() throws Exception{
+        MockHttpServletRequest first=new MockHttpServletRequest("GET","/rooms");
+        MockHttpServletRequest availability=new MockHttpServletRequest("GET","/rooms/availability");
+        interceptor.preHandle(first,new MockHttpServletResponse(),databaseHandler);
+
+        assertTrue(interceptor.preHandle(availability,new MockHttpServletResponse(),inMemoryHandler));
+        interceptor.afterCompletion(availability,new MockHttpServletResponse(),inMemoryHandler,null);
+
+        assertEquals(1,interceptor.getInFlightCount());
+        assertEquals(0,interceptor.getRejectionCount());
+    }
+
+
+    @Test
+    public void testStreamedResponseHoldsItsPermitUntilTheAsyncProcessingCompletes() throws Exception{
+        MockHttpServletRequest request=new MockHttpServletRequest("GET","/bills/stream");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response=new MockHttpServletResponse();
+
+        interceptor.preHandle(request,response,databaseHandler);
+        request.startAsync();
+        interceptor.afterConcurrentHandlingStarted(request,response,databaseHandler);
+
+        assertEquals(1,interceptor.getInFlightCount());
+        request.getAsyncContext().complete();
+        assertEquals(0,interceptor.getInFlightCount());
+    }
+
+
+    private static HandlerMethod handler(String name){
+        try{
+            return new HandlerMethod(new StubController(),StubController.class.getMethod(name));
+        }catch (NoSuchMethodException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class StubController {
+
+        public void findRooms(){
+        }
+
+        @SkipDbAdmission
+        public void getAvailability(){
+        }
+    }
+}
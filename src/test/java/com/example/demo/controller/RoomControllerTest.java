@@ -1,6 +1,9 @@
 package com.example.demo.controller;
 import static org.mockito.Mockito.*;
+import com.example.demo.dto.response_dto.RoomAvailabilityDTO;
+import com.example.demo.dto.response_dto.RoomSummaryDTO;
 import com.example.demo.models.Room;
+import com.example.demo.service.RoomAvailabilityViewService;
 import com.example.demo.service.RoomService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,7 +18,9 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -27,6 +32,9 @@ public class RoomControllerTest {
     @Mock
     private RoomService roomService;
 
+    @Mock
+    private RoomAvailabilityViewService roomAvailabilityViewService;
+
 
     @InjectMocks
     private RoomController roomController;
@@ -43,11 +51,11 @@ public class RoomControllerTest {
     public void testGetAllRooms() throws Exception {
 
 
-        List<Room> expectedResult=List.of(new Room(1L,"D",true,2000,10),
-                new Room(2L,"E",false,1000,10));
+        List<RoomSummaryDTO> expectedResult=List.of(new RoomSummaryDTO(1L,"D",true,2000,10,10),
+                new RoomSummaryDTO(2L,"E",false,1000,10,10));
 
 
-        when(roomService.findAllRooms()).thenReturn(expectedResult);
+        when(roomService.findAllRoomSummaries()).thenReturn(expectedResult);
 
         ResultActions actualResult= mockMvc.perform(get("/rooms"))
                 .andExpect(status().isOk());
@@ -60,7 +68,7 @@ public class RoomControllerTest {
                 .andExpect(jsonPath("$[1].available").value(false))
                 .andExpect(jsonPath("$[1].price").value(1000));
 
-        verify(roomService,times(1)).findAllRooms();
+        verify(roomService,times(1)).findAllRoomSummaries();
     }
 
 
@@ -116,4 +124,27 @@ public class RoomControllerTest {
 
       verify(roomService,times(1)).deleteRoom(1L);
     }
+
+
+    @Test
+    public void testRoomAvailabilityIsNotModifiedWhileTheETagMatches() throws Exception {
+        Map<String,RoomAvailabilityDTO> rooms=new LinkedHashMap<>();
+        rooms.put("A",new RoomAvailabilityDTO("A",3,2000,true));
+        when(roomAvailabilityViewService.getSnapshot()).thenReturn(new RoomAvailabilityViewService.Snapshot(1L,4L,rooms,Map.of()));
+
+        mockMvc.perform(get("/rooms/availability"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag","\"1-4\""))
+                .andExpect(jsonPath("$[0].type").value("A"))
+                .andExpect(jsonPath("$[0].availableCount").value(3));
+
+        mockMvc.perform(get("/rooms/availability").header("If-None-Match","\"1-4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/rooms/availability/A").header("If-None-Match","\"1-4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag","\"1-1\""))
+                .andExpect(jsonPath("$.price").value(2000));
+    }
 }
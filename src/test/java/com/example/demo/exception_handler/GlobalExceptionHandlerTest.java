@@ -0,0 +1,40 @@
+package com.example.demo.exception_handler;
+
+import com.example.demo.dto.response_dto.ExceptionDTO;
+import com.example.demo.exception_handler.menu_exceptions.MenuNotFoundException;
+import com.example.demo.exception_handler.room_exceptions.RoomNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler globalExceptionHandler=new GlobalExceptionHandler();
+
+
+    @Test
+    public void testDomainExceptionsAreStacklessAndShareTheirErrorBody(){
+        MenuNotFoundException exception=new MenuNotFoundException("No Menus Found");
+
+        ResponseEntity<Object> first=globalExceptionHandler.handleMenuNotFoundException(exception);
+        ResponseEntity<Object> second=globalExceptionHandler.handleMenuNotFoundException(new MenuNotFoundException("No Menus Found"));
+
+        assertEquals(0,exception.getStackTrace().length);
+        assertEquals(HttpStatus.NOT_FOUND,first.getStatusCode());
+        assertEquals("No Menus Found",((ExceptionDTO) first.getBody()).getMessage());
+        assertSame(first.getBody(),second.getBody());
+    }
+
+
+    @Test
+    public void testBodiesOfMessagesFromTheRequestAreNotShared(){
+        ResponseEntity<Object> first=globalExceptionHandler.handleRoomNotFoundException(new RoomNotFoundException("Room Not Found with Id 5"));
+        ResponseEntity<Object> second=globalExceptionHandler.handleRoomNotFoundException(new RoomNotFoundException("Room Not Found with Id 5"));
+
+        assertEquals("Room Not Found with Id 5",((ExceptionDTO) first.getBody()).getMessage());
+        assertNotSame(first.getBody(),second.getBody());
+        assertNull(globalExceptionHandler.errorBody(null).getMessage());
+    }
+}
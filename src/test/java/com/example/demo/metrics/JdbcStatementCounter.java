@@ -0,0 +1,80 @@
+package com.example.demo.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Counts the JDBC statements executed on the current thread, whether they are run by Hibernate or through plain JDBC.
+ * <p>
+ * Imported by a test, it wraps the data source so that every {@code execute} call of a statement is counted,
+ * a whole batch counting once. Unlike the {@link QueryCountInspector} it also sees the statements of
+ * {@link org.springframework.jdbc.core.JdbcTemplate}.
+ * </p>
+ */
+public class JdbcStatementCounter implements BeanPostProcessor {
+
+    private static final ThreadLocal<int[]> STATEMENT_COUNT=ThreadLocal.withInitial(()->new int[1]);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource?proxy(bean,(target,method,args)->wrap(invoke(target,method,args))):bean;
+    }
+
+    /**
+     * Resets the statement count of the current thread.
+     */
+    public static void reset(){
+        STATEMENT_COUNT.get()[0]=0;
+    }
+
+    /**
+     * Returns the number of statements executed on the current thread since the last reset.
+     *
+     * @return The statement count.
+     */
+    public static int getStatementCount(){
+        return STATEMENT_COUNT.get()[0];
+    }
+
+    private static Object wrap(Object result){
+        if(result instanceof Connection){
+            return proxy(result,(target,method,args)->wrap(invoke(target,method,args)));
+        }
+        if(result instanceof Statement){
+            return proxy(result,(target,method,args)->{
+                if(method.getName().startsWith("execute")){
+                    STATEMENT_COUNT.get()[0]++;
+                }
+                return invoke(target,method,args);
+            });
+        }
+        return result;
+    }
+
+    private static Object invoke(Object target,Method method,Object[] args) throws Throwable{
+        try{
+            return method.invoke(target,args);
+        }catch (InvocationTargetException e){
+            throw e.getCause();
+        }
+    }
+
+    private static Object proxy(Object target,TargetHandler handler){
+        InvocationHandler invocationHandler=(proxy,method,args)->handler.invoke(target,method,args);
+        return Proxy.newProxyInstance(JdbcStatementCounter.class.getClassLoader(),
+                ClassUtils.getAllInterfacesForClass(target.getClass()),invocationHandler);
+    }
+
+    private interface TargetHandler {
+
+        Object invoke(Object target,Method method,Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.metrics;
+
+import com.example.demo.models.Menu;
+import com.example.demo.repository.MenuRepository;
+import com.example.demo.service.MenuIndexService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ServiceTimingAspectTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MenuIndexService menuIndexService;
+
+
+    @BeforeEach
+    public void setUp(){
+        meterRegistry=new SimpleMeterRegistry();
+        ServiceTimingAspect aspect=new ServiceTimingAspect();
+        ReflectionTestUtils.setField(aspect,"meterRegistry",meterRegistry);
+
+        MenuRepository menuRepository=mock(MenuRepository.class);
+        when(menuRepository.findAll()).thenReturn(List.of(new Menu("Coffee",30,true,100)));
+        MenuIndexService target=new MenuIndexService();
+        ReflectionTestUtils.setField(target,"menuRepository",menuRepository);
+
+        AspectJProxyFactory proxyFactory=new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        menuIndexService=proxyFactory.getProxy();
+    }
+
+
+    @Test
+    public void testServiceCallsAreTimedByMethodAndOutcome(){
+        menuIndexService.getMenu("coffee");
+        menuIndexService.getMenu("tea");
+        assertThrows(NullPointerException.class,()->menuIndexService.put(null));
+
+        Timer getMenu=meterRegistry.get(ServiceTimingAspect.SERVICE_TIMER)
+                .tags("class","MenuIndexService","method","getMenu","outcome","success").timer();
+        Timer put=meterRegistry.get(ServiceTimingAspect.SERVICE_TIMER)
+                .tags("class","MenuIndexService","method","put","outcome","error").timer();
+        assertEquals(2,getMenu.count());
+        assertEquals(1,put.count());
+    }
+
+
+    @Test
+    public void testCounterGettersAreNotTimed(){
+        menuIndexService.getHitCount();
+
+        assertNull(meterRegistry.find(ServiceTimingAspect.SERVICE_TIMER).tag("method","getHitCount").timer());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.repository;
+
+import com.example.demo.models.Bill;
+import com.example.demo.models.BookRoom;
+import com.example.demo.models.FoodOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class BookRoomRepositoryTest {
+
+    @Autowired
+    private BookRoomRepository bookRoomRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    private BookRoom secondAliceBooking;
+
+
+    @BeforeEach
+    public void setUp(){
+        bookRoomRepository.save(new BookRoom("Alice Smith",new Bill(1000)));
+        bookRoomRepository.save(new BookRoom("ALICE JONES",new Bill(2000)));
+        bookRoomRepository.save(new BookRoom("Bob",new Bill(3000)));
+        secondAliceBooking=bookRoomRepository.save(new BookRoom(" alice smith ",new Bill(4000)));
+    }
+
+
+    @Test
+    public void testNameLookupIgnoresCaseAndReturnsLatestBooking(){
+        Optional<BookRoom> bookedRoom=bookRoomRepository.findFirstByNormalizedNameOrderByIdDesc("alice smith");
+
+        assertTrue(bookedRoom.isPresent());
+        assertEquals(secondAliceBooking.getId(),bookedRoom.get().getId());
+    }
+
+
+    @Test
+    public void testPrefixSearchPagesThroughMatchingBookings(){
+        List<Long> firstPage=bookRoomRepository.findIdsByCustomerNamePrefix("alice",0L,Limit.of(2));
+        List<Long> secondPage=bookRoomRepository.findIdsByCustomerNamePrefix("alice",firstPage.get(1),Limit.of(2));
+
+        assertEquals(List.of("Alice Smith","ALICE JONES"),firstPage.stream().map(id->bookRoomRepository.findById(id).orElseThrow().getCustomerName()).toList());
+        assertEquals(List.of(secondAliceBooking.getId()),secondPage);
+        assertTrue(bookRoomRepository.findIdsByCustomerNamePrefix("%",0L,Limit.of(10)).isEmpty());
+    }
+
+
+    @Test
+    public void testBillPrefixSearchTreatsWildcardsLiterally(){
+        List<Bill> bills=billRepository.findBookedRoomBillsByCustomerNamePrefix("alice s",0L,Limit.of(10));
+
+        assertEquals(List.of(1000.0,4000.0),bills.stream().map(Bill::getTotalAmount).toList());
+        assertTrue(billRepository.findBookedRoomBillsByCustomerNamePrefix("%",0L,Limit.of(10)).isEmpty());
+    }
+
+
+    @Test
+    public void testFolioTotalsAreSummedPerSource(){
+        foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"Alice smith",new Bill(250)));
+
+        Map<String,BillRepository.FolioTotal> totals=new HashMap<>();
+        for(BillRepository.FolioTotal total:billRepository.findFolioTotalsByNormalizedName("alice smith")){
+            totals.put(total.getSource(),total);
+        }
+
+        assertEquals(2,totals.get("BOOK_ROOM").getBillCount());
+        assertEquals(5000.0,totals.get("BOOK_ROOM").getTotalAmount());
+        assertEquals(1,totals.get("FOOD_ORDER").getBillCount());
+        assertEquals(250.0,totals.get("FOOD_ORDER").getTotalAmount());
+    }
+}
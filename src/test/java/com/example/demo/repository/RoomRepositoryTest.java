@@ -27,15 +27,13 @@ public class RoomRepositoryTest {
 
     @Test
     public void testSaveAndFindRoomById(){
-        Room expectedResult=new Room(1L,"A",true,1000,10);
+        Room savedResult=roomRepository.save(new Room(null,"A",true,1000,10));
 
-        roomRepository.save(expectedResult);
-
-        Optional<Room> actualResult=roomRepository.findById(1L);
+        Optional<Room> actualResult=roomRepository.findById(savedResult.getId());
 
         assertNotNull(actualResult);
         assertFalse(actualResult.isEmpty());
-        assertEquals(1L,actualResult.get().getId());
+        assertEquals(savedResult.getId(),actualResult.get().getId());
         assertEquals("A",actualResult.get().getType());
         assertTrue(actualResult.get().getAvailable());
         assertEquals(1000,actualResult.get().getPrice());
@@ -46,21 +44,19 @@ public class RoomRepositoryTest {
     public void testFindAllRooms(){
 
 
-        List<Room> expectedResult=List.of(new Room(1L,"D",true,2000,10),
-                new Room(2L,"E",false,1000,10));
-
-        roomRepository.saveAll(expectedResult);
+        List<Room> savedResult=roomRepository.saveAll(List.of(new Room(null,"D",true,2000,10),
+                new Room(null,"E",false,1000,10)));
 
         List<Room> actualResult=roomRepository.findAll();
 
         assertFalse(actualResult.isEmpty());
 
         assertEquals(2,actualResult.size());
-        assertEquals(1L,actualResult.get(0).getId());
+        assertEquals(savedResult.get(0).getId(),actualResult.get(0).getId());
         assertEquals("D",actualResult.get(0).getType());
         assertTrue(actualResult.get(0).getAvailable());
         assertEquals(2000,actualResult.get(0).getPrice());
-        assertEquals(2L,actualResult.get(1).getId());
+        assertEquals(savedResult.get(1).getId(),actualResult.get(1).getId());
         assertEquals("E",actualResult.get(1).getType());
         assertFalse(actualResult.get(1).getAvailable());
         assertEquals(1000,actualResult.get(1).getPrice());
@@ -73,7 +69,7 @@ public class RoomRepositoryTest {
 
     @Test
     public void testDeleteRoom(){
-        Room expectedResult=new Room(1L,"A",true,1000,10);
+        Room expectedResult=new Room(null,"A",true,1000,10);
 
         Room savedResult=roomRepository.save(expectedResult);
         roomRepository.deleteById(savedResult.getId());
@@ -0,0 +1,104 @@
+package com.example.demo.repository;
+
+import com.example.demo.models.Menu;
+import com.example.demo.models.Room;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=hibernate-cache.conf",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+
+    @BeforeEach
+    public void setUp(){
+        statistics=entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        roomRepository.deleteAll();
+        menuRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+
+    @Test
+    public void testRoomLookupIsServedFromTheCacheAfterTheFirstRead(){
+        roomRepository.save(new Room(null,"Suite",true,5000,3));
+        roomRepository.getRoomByType("Suite").orElseThrow();
+        statistics.clear();
+
+        Room room=roomRepository.getRoomByType("Suite").orElseThrow();
+        Room roomById=roomRepository.findById(room.getId()).orElseThrow();
+
+        assertEquals(3,room.getAvailableCount());
+        assertEquals(3,roomById.getAvailableCount());
+        assertEquals(0,statistics.getPrepareStatementCount());
+        assertEquals(1,statistics.getQueryCacheHitCount());
+        assertEquals(1,statistics.getDomainDataRegionStatistics("room").getHitCount());
+    }
+
+
+    @Test
+    public void testUpdatedRoomInvalidatesTheCachedLookup(){
+        Room saved=roomRepository.save(new Room(null,"Suite",true,5000,3));
+        roomRepository.getRoomByType("Suite").orElseThrow();
+
+        saved.setPrice(6000);
+        roomRepository.save(saved);
+
+        assertEquals(6000,roomRepository.getRoomByType("Suite").orElseThrow().getPrice());
+    }
+
+
+    @Test
+    public void testStockDecrementEvictsTheMenuItemAfterCommit(){
+        Menu menu=menuRepository.save(new Menu("Pasta",250,true,5));
+        assertEquals(5,menuRepository.findById(menu.getId()).orElseThrow().getAvailableCount());
+        assertTrue(entityManagerFactory.getCache().contains(Menu.class,menu.getId()));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status->
+                assertTrue(menuRepository.decrementAvailableCounts(Map.of(menu.getId(),2L)).isEmpty()));
+
+        assertFalse(entityManagerFactory.getCache().contains(Menu.class,menu.getId()));
+        assertEquals(3,menuRepository.findById(menu.getId()).orElseThrow().getAvailableCount());
+        assertEquals(List.of(menu.getId()),menuRepository.decrementAvailableCounts(Map.of(menu.getId(),4L)));
+    }
+}
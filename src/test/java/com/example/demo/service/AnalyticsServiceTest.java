@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.DailyRevenueDTO;
+import com.example.demo.dto.response_dto.ItemSalesDTO;
+import com.example.demo.exception_handler.analytics_exceptions.InvalidDateRangeException;
+import com.example.demo.models.BillingEvent;
+import com.example.demo.models.BookRoom;
+import com.example.demo.models.FoodOrder;
+import com.example.demo.repository.BillRepository;
+import com.example.demo.repository.BookRoomRepository;
+import com.example.demo.repository.DailyItemSalesRepository;
+import com.example.demo.repository.DailyRevenueRepository;
+import com.example.demo.repository.FoodOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({BillingService.class, BillingJournal.class, AnalyticsService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AnalyticsServiceTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private BookRoomRepository bookRoomRepository;
+
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    @Autowired
+    private DailyRevenueRepository dailyRevenueRepository;
+
+    @Autowired
+    private DailyItemSalesRepository dailyItemSalesRepository;
+
+
+    @DynamicPropertySource
+    static void billingProperties(DynamicPropertyRegistry registry){
+        registry.add("hotel.billing.journal-file",()->journalDir.resolve("billing-journal.log").toString());
+        //bills are only written when the tests flush
+        registry.add("hotel.billing.flush-interval-ms",()->"3600000");
+    }
+
+
+    @AfterEach
+    public void tearDown(){
+        foodOrderRepository.deleteAll();
+        bookRoomRepository.deleteAll();
+        billRepository.deleteAll();
+        dailyRevenueRepository.deleteAll();
+        dailyItemSalesRepository.deleteAll();
+    }
+
+
+    @Test
+    public void testWrittenBillsAreAddedToTheRollupsOfTheirDay(){
+        BookRoom stay=bookRoomRepository.save(new BookRoom("Guest",null));
+        BookRoom booking=bookRoomRepository.save(new BookRoom("Other Guest",null));
+        FoodOrder order=foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"Diner",null));
+
+        billingService.recordBill(BillingEvent.SourceType.BOOK_ROOM,stay.getId(),6000,
+                List.of(new BillingEvent.Line("Suite",1,3,6000)));
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,order.getId(),450,
+                List.of(new BillingEvent.Line("Pasta",1,1,250),new BillingEvent.Line("Tea",10,10,200)));
+        billingService.flush();
+        //a later batch adds to the rows of the same day
+        billingService.recordBill(BillingEvent.SourceType.BOOK_ROOM,booking.getId(),4000,
+                List.of(new BillingEvent.Line("Suite",2,2,4000)));
+        billingService.flush();
+
+        List<DailyRevenueDTO> revenue=analyticsService.getDailyRevenue(null,null);
+        assertEquals(1,revenue.size());
+        assertEquals(LocalDate.now(),revenue.get(0).getDate());
+        assertEquals(10000,revenue.get(0).getRoomRevenue());
+        assertEquals(450,revenue.get(0).getFoodRevenue());
+        assertEquals(10450,revenue.get(0).getTotalRevenue());
+        assertEquals(2,revenue.get(0).getRoomBills());
+        assertEquals(1,revenue.get(0).getFoodBills());
+
+        List<ItemSalesDTO> rooms=analyticsService.getRoomTypeSales(LocalDate.now(),LocalDate.now());
+        assertEquals(1,rooms.size());
+        assertEquals(3,rooms.get(0).getQuantity());
+        assertEquals(5,rooms.get(0).getUnits());
+        assertEquals(10000,rooms.get(0).getRevenue());
+
+        List<ItemSalesDTO> menu=analyticsService.getMenuItemSales(null,null);
+        assertEquals(List.of("Pasta","Tea"),menu.stream().map(ItemSalesDTO::getName).toList());
+        assertEquals(10,menu.get(1).getQuantity());
+        assertTrue(analyticsService.getDailyRevenue(LocalDate.now().minusDays(10),LocalDate.now().minusDays(1)).isEmpty());
+    }
+
+
+    @Test
+    public void testInvalidRangesAreRejected(){
+        LocalDate today=LocalDate.now();
+
+        assertThrows(InvalidDateRangeException.class,()->analyticsService.getDailyRevenue(today,today.minusDays(1)));
+        assertThrows(InvalidDateRangeException.class,()->analyticsService.getMenuItemSales(today.minusYears(2),today));
+    }
+}
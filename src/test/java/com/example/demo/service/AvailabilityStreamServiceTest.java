@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvailabilityStreamServiceTest {
+
+    private AvailabilityStreamService availabilityStreamService;
+
+
+    @BeforeEach
+    public void setUp(){
+        availabilityStreamService=new AvailabilityStreamService(1);
+        ReflectionTestUtils.setField(availabilityStreamService,"bufferSize",2);
+        ReflectionTestUtils.setField(availabilityStreamService,"timeoutMs",60000L);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        availabilityStreamService.shutdown();
+    }
+
+
+    @Test
+    public void testRapidChangesOfOneItemAreCoalesced(){
+        availabilityStreamService.subscribe();
+
+        for(int count=100;count>0;count--){
+            availabilityStreamService.publish(AvailabilityStreamService.MENU,"Pasta",count,true);
+        }
+        availabilityStreamService.publish(AvailabilityStreamService.ROOM,"Pasta",3,true);
+
+        assertEquals(1,availabilityStreamService.getSubscriberCount());
+        assertEquals(0,availabilityStreamService.getOverflowCount());
+    }
+
+
+    @Test
+    public void testSubscriberFallingBehindIsDisconnectedWithoutAffectingOthers(){
+        availabilityStreamService.subscribe();
+        availabilityStreamService.publish(AvailabilityStreamService.ROOM,"Single",5,true);
+        availabilityStreamService.publish(AvailabilityStreamService.ROOM,"Double",5,true);
+        availabilityStreamService.subscribe();
+
+        availabilityStreamService.publish(AvailabilityStreamService.ROOM,"Suite",1,true);
+
+        assertEquals(1,availabilityStreamService.getSubscriberCount());
+        assertEquals(1,availabilityStreamService.getOverflowCount());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.models.BillingEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BillingJournalTest {
+
+    @TempDir
+    private Path directory;
+
+
+    @Test
+    public void testDoneLinesNeverInterleaveWithConcurrentBatches() throws Exception{
+        Path file=directory.resolve("billing-journal.log");
+        BillingJournal journal=journal(file);
+        journal.open();
+        int threads=16;
+        int eventsPerThread=200;
+        ExecutorService executor=Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures=new ArrayList<>();
+        for(int t=0;t<threads;t++){
+            long first=(long) t*eventsPerThread+1;
+            futures.add(executor.submit(()->{
+                for(long sequence=first;sequence<first+eventsPerThread;sequence++){
+                    journal.append(new BillingEvent(sequence,BillingEvent.SourceType.FOOD_ORDER,sequence,100,LocalDateTime.now(),List.of()));
+                    //every event but the last of each thread is done, the journal is truncated whenever none is outstanding
+                    if(sequence<first+eventsPerThread-1){
+                        journal.markDone(List.of(sequence));
+                    }
+                }
+            }));
+        }
+        for(Future<?> future:futures){
+            future.get();
+        }
+        executor.shutdown();
+        journal.close();
+
+        Set<Long> outstanding=new HashSet<>();
+        for(BillingEvent event:journal(file).open()){
+            outstanding.add(event.getSequence());
+        }
+        Set<Long> expected=new HashSet<>();
+        for(int t=1;t<=threads;t++){
+            expected.add((long) t*eventsPerThread);
+        }
+        assertEquals(expected,outstanding);
+    }
+
+
+    private static BillingJournal journal(Path file){
+        BillingJournal journal=new BillingJournal();
+        ReflectionTestUtils.setField(journal,"journalFile",file.toString());
+        ReflectionTestUtils.setField(journal,"fsync",false);
+        return journal;
+    }
+}
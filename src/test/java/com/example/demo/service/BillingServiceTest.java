@@ -0,0 +1,239 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.GuestFolioDTO;
+import com.example.demo.models.Bill;
+import com.example.demo.models.BillingEvent;
+import com.example.demo.models.BookRoom;
+import com.example.demo.models.FoodOrder;
+import com.example.demo.repository.BillRepository;
+import com.example.demo.repository.BookRoomRepository;
+import com.example.demo.repository.FoodOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({BillingService.class, BillingJournal.class, AnalyticsService.class, BillService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BillingServiceTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private BillService billService;
+
+    @MockBean
+    private NdjsonStreamService ndjsonStreamService;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private BookRoomRepository bookRoomRepository;
+
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+
+    @DynamicPropertySource
+    static void billingProperties(DynamicPropertyRegistry registry){
+        registry.add("hotel.billing.journal-file",()->journalDir.resolve("billing-journal.log").toString());
+        //bills are only written when the tests flush
+        registry.add("hotel.billing.flush-interval-ms",()->"3600000");
+    }
+
+
+    @AfterEach
+    public void tearDown(){
+        foodOrderRepository.deleteAll();
+        bookRoomRepository.deleteAll();
+        billRepository.deleteAll();
+    }
+
+
+    @Test
+    public void testFlushWritesPendingBillsAndLinksThemToTheirSource(){
+        BookRoom bookRoom=bookRoomRepository.save(new BookRoom("Guest",null));
+        FoodOrder foodOrder=foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"Diner",null));
+
+        billingService.recordBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId(),3000);
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,foodOrder.getId(),450);
+
+        assertEquals(3000,billingService.getPendingBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId()).getTotalAmount());
+        assertEquals(0,billRepository.count());
+
+        billingService.flush();
+
+        assertEquals(0,billingService.getPendingCount());
+        assertEquals(2,billRepository.count());
+        assertEquals(3000,bookRoomRepository.findById(bookRoom.getId()).orElseThrow().getBill().getTotalAmount());
+        assertEquals(450,foodOrderRepository.findById(foodOrder.getId()).orElseThrow().getBill().getTotalAmount());
+    }
+
+
+    @Test
+    public void testWrittenBillsCarryTheirSourceAndAreListedWithoutLoadingIt(){
+        BookRoom bookRoom=bookRoomRepository.save(new BookRoom("Guest",null));
+        FoodOrder foodOrder=foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"Diner",null));
+        billingService.recordBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId(),3000);
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,foodOrder.getId(),450);
+        billingService.flush();
+        Statistics statistics=entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Bill> bills=billRepository.findAll();
+
+        assertEquals(2,bills.size());
+        assertEquals(1,statistics.getPrepareStatementCount());
+        Bill foodOrderBill=billRepository.findFirstBySourceTypeAndSourceId(BillingEvent.SourceType.FOOD_ORDER,foodOrder.getId()).orElseThrow();
+        assertEquals(450,foodOrderBill.getTotalAmount());
+        assertEquals(foodOrder.getId(),foodOrderBill.getSourceId());
+        assertTrue(billRepository.findFirstBySourceTypeAndSourceId(BillingEvent.SourceType.FOOD_ORDER,bookRoom.getId()).isEmpty());
+    }
+
+
+    @Test
+    public void testFolioCountsBillsStillPendingInTheBillingStage(){
+        BookRoom bookRoom=bookRoomRepository.save(new BookRoom("Guest",null));
+        FoodOrder foodOrder=foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"guest",null));
+        FoodOrder otherOrder=foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"Diner",null));
+        billingService.recordBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId(),3000);
+        billingService.flush();
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,foodOrder.getId(),450);
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,otherOrder.getId(),120);
+
+        GuestFolioDTO folio=billService.getGuestFolioByCustomerName("GUEST");
+
+        assertEquals(1,folio.getRoomBillCount());
+        assertEquals(3000,folio.getRoomTotal());
+        assertEquals(1,folio.getFoodBillCount());
+        assertEquals(450,folio.getFoodTotal());
+        assertEquals(3450,folio.getTotal());
+        //the only bill of the diner is pending
+        assertEquals(120,billService.getGuestFolioByCustomerName("Diner").getTotal());
+        billingService.flush();
+    }
+
+
+    @Test
+    public void testRolledBackBookingIsNotBilled(){
+        BookRoom bookRoom=bookRoomRepository.save(new BookRoom("Guest",null));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status->{
+            billingService.recordBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId(),3000);
+            assertNull(billingService.getPendingBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId()));
+            status.setRollbackOnly();
+        });
+        billingService.flush();
+
+        assertNull(billingService.getPendingBill(BillingEvent.SourceType.BOOK_ROOM,bookRoom.getId()));
+        assertEquals(0,billRepository.count());
+    }
+
+
+    @Test
+    @DirtiesContext
+    public void testBillThatCantBeWrittenIsParkedWithoutHoldingBackItsBatch(){
+        List<FoodOrder> foodOrders=new ArrayList<>();
+        for(int i=0;i<3;i++){
+            foodOrders.add(foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"Diner "+i,null)));
+        }
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,foodOrders.get(0).getId(),100);
+        //the item name does not fit the sales rollup, so the bill can never be written
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,foodOrders.get(1).getId(),200,
+                List.of(new BillingEvent.Line("x".repeat(300),1,1,200)));
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,foodOrders.get(2).getId(),300);
+
+        billingService.flush();
+
+        assertEquals(2,billRepository.count());
+        assertEquals(1,billingService.getParkedCount());
+        assertEquals(200,billingService.getPendingBill(BillingEvent.SourceType.FOOD_ORDER,foodOrders.get(1).getId()).getTotalAmount());
+        assertNull(billingService.getPendingBill(BillingEvent.SourceType.FOOD_ORDER,foodOrders.get(2).getId()));
+    }
+
+
+    @Test
+    public void testUnwrittenBillsAreReplayedFromTheJournal(){
+        FoodOrder foodOrder=foodOrderRepository.save(new FoodOrder(new ArrayList<>(),"Diner",null));
+        billingService.recordBill(BillingEvent.SourceType.FOOD_ORDER,foodOrder.getId(),450,
+                List.of(new BillingEvent.Line("Tea, Masala: 50% off",3,3,450)));
+
+        //a second journal on the same file sees what a restart after a crash would see
+        BillingJournal restartedJournal=new BillingJournal();
+        ReflectionTestUtils.setField(restartedJournal,"journalFile",journalDir.resolve("billing-journal.log").toString());
+        List<BillingEvent> replayed=restartedJournal.open();
+
+        assertEquals(1,replayed.size());
+        assertEquals(foodOrder.getId(),replayed.get(0).getSourceId());
+        assertEquals(450,replayed.get(0).getTotalAmount());
+        assertEquals("Tea, Masala: 50% off",replayed.get(0).getLines().get(0).getName());
+        assertEquals(3,replayed.get(0).getLines().get(0).getQuantity());
+
+        billingService.flush();
+        Bill bill=foodOrderRepository.findById(foodOrder.getId()).orElseThrow().getBill();
+        assertEquals(450,bill.getTotalAmount());
+    }
+
+
+    @Test
+    public void testConcurrentAppendsAreGroupCommitted() throws Exception {
+        Path file=journalDir.resolve("group-commit-journal.log");
+        BillingJournal journal=new BillingJournal();
+        ReflectionTestUtils.setField(journal,"journalFile",file.toString());
+        ReflectionTestUtils.setField(journal,"fsync",true);
+        journal.open();
+        ExecutorService executor=Executors.newFixedThreadPool(8);
+        List<Future<?>> appends=new ArrayList<>();
+        for(int i=1;i<=400;i++){
+            long sequence=i;
+            appends.add(executor.submit(()->journal.append(new BillingEvent(sequence,BillingEvent.SourceType.FOOD_ORDER,sequence,10,LocalDateTime.now(),List.of()))));
+        }
+        for(Future<?> append:appends){
+            append.get();
+        }
+        executor.shutdown();
+        journal.close();
+
+        assertTrue(journal.getBatchWriteCount()>0&&journal.getBatchWriteCount()<=400);
+        BillingJournal restartedJournal=new BillingJournal();
+        ReflectionTestUtils.setField(restartedJournal,"journalFile",file.toString());
+        assertEquals(400,restartedJournal.open().size());
+        restartedJournal.close();
+    }
+}
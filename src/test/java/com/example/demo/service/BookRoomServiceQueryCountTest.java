@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.request_dto.BookRoomRequestDTO;
+import com.example.demo.dto.response_dto.BookedRoomSummaryDTO;
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.dto.response_dto.RoomDTO;
+import com.example.demo.exception_handler.book_room_exceptions.RoomNotAvailableException;
+import com.example.demo.models.BookRoom;
+import com.example.demo.models.BookingLine;
+import com.example.demo.models.Room;
+import com.example.demo.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//the background write-backs would prepare statements while the tests count them
+@DataJpaTest(properties = {"hotel.inventory.flush-interval-ms=3600000","hotel.billing.flush-interval-ms=3600000"})
+@Import({BookRoomService.class,RoomService.class,RoomInventoryService.class,RoomAvailabilityViewService.class,AvailabilityStreamService.class,OptimisticRetryService.class,RoomLedgerService.class,BillingService.class,BillingJournal.class,AnalyticsService.class,NdjsonStreamService.class,JacksonAutoConfiguration.class})
+public class BookRoomServiceQueryCountTest {
+
+    @Autowired
+    private BookRoomService bookRoomService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Statistics statistics;
+
+
+    @BeforeEach
+    public void setUp(){
+        roomRepository.deleteAll();
+        roomRepository.saveAll(List.of(new Room(null,"Single",true,1000,10),
+                new Room(null,"Double",true,2000,10),
+                new Room(null,"Suite",true,5000,10),
+                new Room(null,"Deluxe",true,8000,10)));
+        statistics=entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+
+    @Test
+    public void testBookingResolvesAllRoomTypesInOneQuery(){
+        BookRoomRequestDTO request=new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Single",1),
+                new RoomDTO("Double",2),new RoomDTO("Suite",1),new RoomDTO("Single",1)));
+
+        bookRoomService.bookRoom(request);
+
+        //the rooms, and the booked nights of the rooms loaded into the room ledger on first use
+        assertEquals(2,statistics.getQueryExecutionCount());
+    }
+
+
+    @Test
+    public void testBookingInsertsItsLinesWithoutWritingTheRooms(){
+        BookRoomRequestDTO request=new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Single",1),
+                new RoomDTO("Suite",3),new RoomDTO("Single",1)));
+        testEntityManager.flush();
+        statistics.clear();
+
+        Long id=bookRoomService.bookRoom(request).getId();
+        testEntityManager.flush();
+
+        assertEquals(3,statistics.getEntityInsertCount());
+        assertEquals(0,statistics.getEntityUpdateCount());
+        testEntityManager.clear();
+        List<BookingLine> lines=testEntityManager.find(BookRoom.class,id).getBookingLines();
+        assertEquals(Map.of("Single",2,"Suite",3),lines.stream().collect(Collectors.toMap(BookingLine::getRoomType,BookingLine::getRoomCount)));
+        assertEquals(5000,lines.stream().filter(line->line.getRoomType().equals("Suite")).findFirst().orElseThrow().getPrice());
+    }
+
+
+    @Test
+    public void testAvailableRoomsAreOnlyLoadedWhenBookingFails(){
+        BookRoomRequestDTO request=new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Single",1),
+                new RoomDTO("Suite",11)));
+
+        RoomNotAvailableException exception=assertThrows(RoomNotAvailableException.class,()->bookRoomService.bookRoom(request));
+
+        //the requested rooms and all rooms, each with the booked nights of the rooms new to the room ledger
+        assertEquals(4,statistics.getQueryExecutionCount());
+        assertEquals(10,exception.getAvailableRooms().get("Suite"));
+        assertEquals(11,exception.getRequestedRooms().get("Suite"));
+    }
+
+
+    @Test
+    public void testBookingListIsLoadedInOneQueryWithoutRoomEntities(){
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Single",1),new RoomDTO("Suite",1))));
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Other Guest",List.of(new RoomDTO("Double",1))));
+        statistics.clear();
+
+        List<BookedRoomSummaryDTO> bookedRooms=bookRoomService.getAllBookedRoomSummaries();
+
+        assertEquals(1,statistics.getQueryExecutionCount());
+        assertEquals(0,statistics.getEntityLoadCount());
+        assertEquals(2,bookedRooms.size());
+        assertEquals(Set.of("Single","Suite"),new HashSet<>(bookedRooms.get(0).getRoomTypes()));
+        assertEquals(List.of("Double"),bookedRooms.get(1).getRoomTypes());
+        //the bookings are not committed, so their bills are not pending with the billing stage yet
+        assertNull(bookedRooms.get(1).getTotalAmount());
+    }
+
+
+    @Test
+    public void testBookingPagesAreLoadedWithoutRoomEntities(){
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Single",1),new RoomDTO("Suite",1))));
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Other Guest",List.of(new RoomDTO("Double",1))));
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Deluxe",1))));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics.clear();
+
+        CursorPageDTO<BookedRoomSummaryDTO> page=bookRoomService.getBookedRoomPage(null,2);
+        CursorPageDTO<BookedRoomSummaryDTO> guestPage=bookRoomService.searchBookedRoomsByCustomerName("guest",page.getNextCursor(),2);
+
+        //the ids of each page and the rows of its bookings
+        assertEquals(4,statistics.getQueryExecutionCount());
+        assertEquals(0,statistics.getEntityLoadCount());
+        assertEquals(2,page.getItems().size());
+        assertEquals(Set.of("Single","Suite"),new HashSet<>(page.getItems().get(0).getRoomTypes()));
+        assertEquals(page.getItems().get(1).getId(),page.getNextCursor());
+        assertEquals(List.of("Deluxe"),guestPage.getItems().get(0).getRoomTypes());
+        assertNull(guestPage.getNextCursor());
+    }
+
+
+    @Test
+    public void testBookingStreamIsReadInOneQueryWithoutRoomEntities() throws Exception{
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Single",1),new RoomDTO("Suite",1))));
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Other Guest",List.of(new RoomDTO("Double",1))));
+        testEntityManager.flush();
+        statistics.clear();
+        ByteArrayOutputStream outputStream=new ByteArrayOutputStream();
+
+        bookRoomService.streamAllBookedRooms().writeTo(outputStream);
+
+        String[] lines=outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        //a streamed query is only counted as a prepared statement
+        assertEquals(1,statistics.getPrepareStatementCount());
+        assertEquals(0,statistics.getEntityLoadCount());
+        assertEquals(2,lines.length);
+        assertTrue(lines[0].contains("\"Single\"")&&lines[0].contains("\"Suite\""));
+        assertTrue(lines[1].contains("\"Other Guest\"")&&lines[1].contains("\"Double\""));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.ImportReportDTO;
+import com.example.demo.models.Menu;
+import com.example.demo.models.Room;
+import com.example.demo.repository.MenuRepository;
+import com.example.demo.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({CatalogTransferService.class, MenuService.class, MenuIndexService.class, RoomService.class,
+        RoomInventoryService.class, RoomLedgerService.class, RoomAvailabilityViewService.class, AvailabilityStreamService.class, OptimisticRetryService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CatalogTransferServiceTest {
+
+    @Autowired
+    private CatalogTransferService catalogTransferService;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+
+    @AfterEach
+    public void tearDown(){
+        menuRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+
+    @Test
+    public void testCsvMenuImportInsertsValidRowsAndReportsTheOthers(){
+        menuRepository.save(new Menu("Pasta",250,true,5));
+        String csv="itemName,price,available,availableCount\n"
+                +"Pizza,300,true,10\n"
+                +" pasta ,200,true,4\n"
+                +"Soup,cheap,true,3\n"
+                +"PIZZA,300,true,10\n"
+                +"Salad,120,false,0\n";
+
+        ImportReportDTO report=catalogTransferService.importMenu(upload(csv),CatalogTransferService.Format.CSV);
+
+        assertEquals(5,report.getReceived());
+        assertEquals(2,report.getImported());
+        assertEquals(3,report.getRejected());
+        assertEquals(2,report.getErrors().get(0).getRow());
+        assertEquals(" pasta ",report.getErrors().get(0).getKey());
+        assertEquals("price must be a whole number but was cheap",report.getErrors().get(1).getMessage());
+        assertEquals(4,report.getErrors().get(2).getRow());
+        assertEquals(3,menuRepository.count());
+        assertEquals(10,menuRepository.getMenuByItemName("Pizza").orElseThrow().getAvailableCount());
+    }
+
+
+    @Test
+    public void testJsonRoomImportFillsTheInventoryAndDefaultsTheTotalCount(){
+        String json="[{\"type\":\"Suite\",\"available\":true,\"price\":5000,\"availableCount\":3},"
+                +"{\"type\":\"Single\",\"available\":true,\"price\":-1,\"availableCount\":3}]";
+
+        ImportReportDTO report=catalogTransferService.importRooms(upload(json),CatalogTransferService.Format.JSON);
+
+        assertEquals(1,report.getImported());
+        assertEquals(1,report.getRejected());
+        Room suite=roomRepository.getRoomByType("Suite").orElseThrow();
+        assertEquals(3,suite.getTotalCount());
+        assertEquals(3,roomInventoryService.getAvailableCount("Suite"));
+    }
+
+
+    @Test
+    public void testMalformedJsonStopsTheImportAndKeepsTheRowsBeforeIt(){
+        String json="[{\"itemName\":\"Tea\",\"price\":20,\"available\":true,\"availableCount\":50},{\"itemName\":";
+
+        ImportReportDTO report=catalogTransferService.importMenu(upload(json),CatalogTransferService.Format.JSON);
+
+        assertEquals(1,report.getImported());
+        assertEquals(1,report.getRejected());
+        assertEquals(2,report.getErrors().get(0).getRow());
+        assertTrue(menuRepository.getMenuByItemName("Tea").isPresent());
+    }
+
+
+    @Test
+    public void testMenuExportCanBeImportedAgain() throws Exception {
+        menuRepository.save(new Menu("Pasta",250,true,5));
+        menuRepository.save(new Menu("Soup",90,false,0));
+
+        ByteArrayOutputStream csv=new ByteArrayOutputStream();
+        catalogTransferService.exportMenu(CatalogTransferService.Format.CSV).writeTo(csv);
+        ByteArrayOutputStream json=new ByteArrayOutputStream();
+        catalogTransferService.exportMenu(CatalogTransferService.Format.JSON).writeTo(json);
+
+        assertEquals("itemName,price,available,availableCount\nPasta,250,true,5\nSoup,90,false,0\n",csv.toString(StandardCharsets.UTF_8));
+        assertEquals("[{\"itemName\":\"Pasta\",\"price\":250,\"available\":true,\"availableCount\":5},"
+                +"{\"itemName\":\"Soup\",\"price\":90,\"available\":false,\"availableCount\":0}]",json.toString(StandardCharsets.UTF_8));
+
+        menuRepository.deleteAll();
+        ImportReportDTO report=catalogTransferService.importMenu(new ByteArrayInputStream(csv.toByteArray()),CatalogTransferService.Format.CSV);
+        assertEquals(2,report.getImported());
+        assertEquals(0,report.getRejected());
+    }
+
+
+    private static ByteArrayInputStream upload(String content){
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
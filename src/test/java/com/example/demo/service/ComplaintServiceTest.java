@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.models.Complaint;
+import com.example.demo.repository.ComplaintRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ComplaintService.class, NdjsonStreamService.class, JacksonAutoConfiguration.class})
+public class ComplaintServiceTest {
+
+    @Autowired
+    private ComplaintService complaintService;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+
+    @BeforeEach
+    public void setUp(){
+        List<Complaint> complaints=new ArrayList<>();
+        for(int i=0;i<5;i++){
+            complaints.add(new Complaint(null,"Guest "+i,"guest"+i+"@hotel.com","Complaint "+i));
+        }
+        complaintRepository.saveAll(complaints);
+    }
+
+
+    @Test
+    public void testPagesFollowCursorUntilLastPage(){
+        CursorPageDTO<Complaint> first=complaintService.findComplaintPage(null,2);
+        CursorPageDTO<Complaint> second=complaintService.findComplaintPage(first.getNextCursor(),2);
+        CursorPageDTO<Complaint> last=complaintService.findComplaintPage(second.getNextCursor(),2);
+
+        assertEquals(List.of("Guest 0","Guest 1"),first.getItems().stream().map(Complaint::getName).toList());
+        assertEquals(List.of("Guest 2","Guest 3"),second.getItems().stream().map(Complaint::getName).toList());
+        assertEquals(List.of("Guest 4"),last.getItems().stream().map(Complaint::getName).toList());
+        assertNull(last.getNextCursor());
+    }
+
+
+    @Test
+    public void testStreamWritesOneComplaintPerLine() throws Exception{
+        ByteArrayOutputStream outputStream=new ByteArrayOutputStream();
+
+        complaintService.streamAllComplaints().writeTo(outputStream);
+
+        String[] lines=outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5,lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Guest 0\""));
+        assertTrue(lines[4].contains("\"name\":\"Guest 4\""));
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.response_dto.CursorPageDTO;
+import com.example.demo.dto.response_dto.FoodItemDTO;
+import com.example.demo.dto.response_dto.FoodOrderAcceptedDTO;
+import com.example.demo.exception_handler.food_exceptions.FoodItemNotAvailableException;
+import com.example.demo.metrics.JdbcStatementCounter;
+import com.example.demo.metrics.QueryCountInspector;
+import com.example.demo.models.BillingEvent;
+import com.example.demo.models.Food;
+import com.example.demo.models.FoodOrder;
+import com.example.demo.models.Menu;
+import com.example.demo.repository.MenuRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.metrics.QueryCountInspector")
+@Import({FoodOrderService.class,OptimisticRetryService.class, MenuIndexService.class, AvailabilityStreamService.class, BillingService.class, BillingJournal.class, AnalyticsService.class, NdjsonStreamService.class, JacksonAutoConfiguration.class, JdbcStatementCounter.class})
+public class FoodOrderServiceTest {
+
+    @Autowired
+    private FoodOrderService foodOrderService;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @SpyBean
+    private BillingService billingService;
+
+    @Autowired
+    private MenuIndexService menuIndexService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Menu pizza;
+
+    private Menu pasta;
+
+
+    @BeforeEach
+    public void setUp(){
+        pizza=menuRepository.save(new Menu("Pizza",200,true,5));
+        pasta=menuRepository.save(new Menu("Pasta",150,true,2));
+        menuRepository.flush();
+        //the menu items are saved without the menu service, the index is loaded again with them
+        menuIndexService.invalidate();
+    }
+
+
+    @Test
+    public void testSaveFoodDecrementsStockAndPricesOrder(){
+        FoodOrder foodOrder=new FoodOrder(List.of(new Food(null,"pizza",2L),new Food(null,"Pasta",2L)),"Guest",null);
+
+        FoodOrderAcceptedDTO accepted=foodOrderService.saveFood(foodOrder);
+
+        assertEquals(2,accepted.getFoodItems().size());
+        //the bill is only pending once the order commits
+        verify(billingService).recordBill(eq(BillingEvent.SourceType.FOOD_ORDER),eq(accepted.getId()),eq(700.0),anyList());
+        assertEquals(3,availableCount(pizza));
+        assertEquals(0,availableCount(pasta));
+        assertFalse(available(pasta));
+    }
+
+
+    @Test
+    public void testSaveFoodMergesDuplicateItems(){
+        FoodOrder foodOrder=new FoodOrder(List.of(new Food(null,"Pizza",3L),new Food(null," PIZZA ",3L)),"Guest",null);
+
+        assertThrows(FoodItemNotAvailableException.class,()->foodOrderService.saveFood(foodOrder));
+        assertEquals(5,availableCount(pizza));
+    }
+
+
+    @Test
+    public void testRejectedOrderLeavesStockUnchanged(){
+        FoodOrder foodOrder=new FoodOrder(List.of(new Food(null,"Pizza",1L),new Food(null,"Burger",1L)),"Guest",null);
+
+        assertThrows(FoodItemNotAvailableException.class,()->foodOrderService.saveFood(foodOrder));
+        assertEquals(5,availableCount(pizza));
+        assertEquals(2,availableCount(pasta));
+    }
+
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testIndexGetsTheStockLeftInTheDatabase(){
+        try{
+            assertEquals(5,menuIndexService.getMenu("Pizza").getAvailableCount());
+            //an order the menu index has not seen yet
+            jdbcTemplate.update("update menu set available_count=4 where id=?",pizza.getId());
+
+            foodOrderService.checkFoodItems(new FoodOrder(List.of(new Food(null,"Pizza",1L)),"Guest",null)).orElseThrow();
+
+            assertEquals(3,menuIndexService.getMenu("Pizza").getAvailableCount());
+            assertEquals(3,availableCount(pizza));
+        }finally {
+            menuRepository.deleteAllById(List.of(pizza.getId(),pasta.getId()));
+        }
+    }
+
+
+    @Test
+    public void testLargeOrderIsWrittenInBatches(){
+        List<Food> foods=new ArrayList<>();
+        for(int i=0;i<20;i++){
+            menuRepository.save(new Menu("Dish "+i,100,true,10));
+            foods.add(new Food(null,"Dish "+i,1L));
+        }
+        // the first order reserves the id blocks of the food orders and the food items
+        foodOrderService.saveFood(new FoodOrder(foods,"Guest",null));
+        testEntityManager.flush();
+        Statistics statistics=entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JdbcStatementCounter.reset();
+
+        foodOrderService.saveFood(new FoodOrder(foods,"Guest",null));
+        testEntityManager.flush();
+
+        assertEquals(21,statistics.getEntityInsertCount());
+        assertEquals(0,statistics.getEntityUpdateCount());
+        // one batch decrementing the stock of the 20 menu items, the stock read back after the decrement,
+        // the food order insert and one batch inserting the 20 food items, the menu items are priced from the menu index
+        assertEquals(4,JdbcStatementCounter.getStatementCount());
+    }
+
+
+    @Test
+    public void testOrderListsAreBuiltWithoutAQueryPerOrder(){
+        foodOrderService.saveFood(new FoodOrder(List.of(new Food(null,"Pizza",1L),new Food(null,"Pasta",1L)),"Guest",null));
+        foodOrderService.saveFood(new FoodOrder(List.of(new Food(null,"Pizza",2L),new Food(null,"Pasta",1L)),"Guest",null));
+        foodOrderService.saveFood(new FoodOrder(List.of(new Food(null,"Pizza",1L)),"Other Guest",null));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        QueryCountInspector.reset();
+
+        List<FoodOrderAcceptedDTO> foodOrders=foodOrderService.findAllFoods();
+
+        assertEquals(1,QueryCountInspector.getQueryCount());
+        assertEquals(3,foodOrders.size());
+        assertEquals(List.of("Pizza","Pasta"),foodOrders.get(1).getFoodItems().stream().map(FoodItemDTO::getItemName).toList());
+        assertEquals(2,foodOrders.get(1).getFoodItems().get(0).getQuantity());
+        assertEquals(1,foodOrders.get(2).getFoodItems().size());
+        assertNotNull(foodOrders.get(0).getOrderDate());
+
+        testEntityManager.clear();
+        QueryCountInspector.reset();
+        assertEquals(3,foodOrderService.findFoodOrderPage(null,10).getItems().size());
+        // the ids of the page and the food item rows of its orders
+        assertEquals(2,QueryCountInspector.getQueryCount());
+
+        QueryCountInspector.reset();
+        CursorPageDTO<FoodOrderAcceptedDTO> guestPage=foodOrderService.searchFoodOrdersByCustomerName("guest",null,1);
+        assertEquals(2,QueryCountInspector.getQueryCount());
+        assertEquals(List.of("Pizza","Pasta"),guestPage.getItems().get(0).getFoodItems().stream().map(FoodItemDTO::getItemName).toList());
+        assertEquals(guestPage.getItems().get(0).getId(),guestPage.getNextCursor());
+        //no order is loaded into the persistence context
+        assertEquals(0,testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+
+    @Test
+    public void testOrderStreamIsReadInOneQuery() throws Exception{
+        foodOrderService.saveFood(new FoodOrder(List.of(new Food(null,"Pizza",1L),new Food(null,"Pasta",1L)),"Guest",null));
+        foodOrderService.saveFood(new FoodOrder(List.of(new Food(null,"Pizza",2L)),"Other Guest",null));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        QueryCountInspector.reset();
+        ByteArrayOutputStream outputStream=new ByteArrayOutputStream();
+
+        foodOrderService.streamAllFoodOrders().writeTo(outputStream);
+
+        String[] lines=outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1,QueryCountInspector.getQueryCount());
+        assertEquals(2,lines.length);
+        assertTrue(lines[0].contains("\"Pizza\"")&&lines[0].contains("\"Pasta\""));
+        assertTrue(lines[1].contains("\"Other Guest\"")&&!lines[1].contains("\"Pasta\""));
+    }
+
+
+    private int availableCount(Menu menu){
+        return jdbcTemplate.queryForObject("select available_count from menu where id=?",Integer.class,menu.getId());
+    }
+
+    private boolean available(Menu menu){
+        return jdbcTemplate.queryForObject("select available from menu where id=?",Boolean.class,menu.getId());
+    }
+}
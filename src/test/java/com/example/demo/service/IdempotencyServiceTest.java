@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.exception_handler.idempotency_exceptions.IdempotencyKeyReusedException;
+import com.example.demo.exception_handler.idempotency_exceptions.IdempotentRequestInProgressException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyServiceTest {
+
+    private IdempotencyService idempotencyService;
+
+    private AtomicInteger calls;
+
+
+    @BeforeEach
+    public void setUp(){
+        idempotencyService=new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService,"ttlSeconds",60L);
+        ReflectionTestUtils.setField(idempotencyService,"maxEntries",2);
+        ReflectionTestUtils.setField(idempotencyService,"waitMs",100L);
+        ReflectionTestUtils.setField(idempotencyService,"objectMapper",new ObjectMapper());
+        calls=new AtomicInteger();
+    }
+
+
+    @Test
+    public void testRetryReturnsOriginalResponse(){
+        Integer first=idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet);
+        Integer retry=idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet);
+        Integer otherScope=idempotencyService.execute("food_order","key-1","request",calls::incrementAndGet);
+
+        assertEquals(1,first);
+        assertEquals(1,retry);
+        assertEquals(2,otherScope);
+        assertEquals(2,calls.get());
+    }
+
+
+    @Test
+    public void testFailedRequestIsNotRemembered(){
+        assertThrows(IllegalStateException.class,()->idempotencyService.execute("book_room","key-1","request",()->{
+            throw new IllegalStateException("Not available");
+        }));
+
+        assertEquals(1,idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet));
+    }
+
+
+    @Test
+    public void testStoreIsBounded(){
+        idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet);
+        idempotencyService.execute("book_room","key-2","request",calls::incrementAndGet);
+        idempotencyService.execute("book_room","key-3","request",calls::incrementAndGet);
+
+        assertEquals(4,idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet));
+        assertEquals(3,idempotencyService.execute("book_room","key-3","request",calls::incrementAndGet));
+    }
+
+
+    @Test
+    public void testKeyReusedForDifferentRequestIsRejected(){
+        idempotencyService.execute("book_room","key-1",Map.of("customerName","Alice"),calls::incrementAndGet);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                ()->idempotencyService.execute("book_room","key-1",Map.of("customerName","Bob"),calls::incrementAndGet));
+        assertEquals(1,idempotencyService.execute("book_room","key-1",Map.of("customerName","Alice"),calls::incrementAndGet));
+        assertEquals(1,calls.get());
+    }
+
+
+    @Test
+    public void testRetryStopsWaitingForRequestStillRunning() throws Exception{
+        CountDownLatch started=new CountDownLatch(1);
+        CountDownLatch finish=new CountDownLatch(1);
+        CompletableFuture<Integer> first=CompletableFuture.supplyAsync(()->idempotencyService.execute("book_room","key-1","request",()->{
+            started.countDown();
+            await(finish);
+            return calls.incrementAndGet();
+        }));
+        started.await(5,TimeUnit.SECONDS);
+
+        assertThrows(IdempotentRequestInProgressException.class,
+                ()->idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet));
+        finish.countDown();
+        assertEquals(1,first.get(5,TimeUnit.SECONDS));
+        assertEquals(1,idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet));
+    }
+
+
+    @Test
+    public void testRequestStillRunningIsNotEvicted() throws Exception{
+        CountDownLatch started=new CountDownLatch(1);
+        CountDownLatch finish=new CountDownLatch(1);
+        CompletableFuture<Integer> first=CompletableFuture.supplyAsync(()->idempotencyService.execute("book_room","key-1","request",()->{
+            started.countDown();
+            await(finish);
+            return calls.incrementAndGet();
+        }));
+        started.await(5,TimeUnit.SECONDS);
+
+        //the store is full with key-1 still running, key-2 is evicted instead
+        idempotencyService.execute("book_room","key-2","request",()->10);
+        idempotencyService.execute("book_room","key-3","request",()->20);
+        finish.countDown();
+
+        assertEquals(1,first.get(5,TimeUnit.SECONDS));
+        assertEquals(1,idempotencyService.execute("book_room","key-1","request",calls::incrementAndGet));
+        assertEquals(30,idempotencyService.execute("book_room","key-2","request",()->30));
+        assertEquals(1,calls.get());
+    }
+
+
+    private static void await(CountDownLatch latch){
+        try{
+            latch.await(5,TimeUnit.SECONDS);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
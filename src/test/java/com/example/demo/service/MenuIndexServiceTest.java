@@ -0,0 +1,60 @@
+package com.example.demo.service;
+
+import com.example.demo.models.Menu;
+import com.example.demo.repository.MenuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MenuIndexServiceTest {
+
+    @Mock
+    private MenuRepository menuRepository;
+
+    @InjectMocks
+    private MenuIndexService menuIndexService;
+
+    private Menu tea;
+
+
+    @BeforeEach
+    public void setUp(){
+        MockitoAnnotations.openMocks(this);
+        tea=new Menu("Masala Tea",20,true,100);
+        tea.setId(1L);
+        when(menuRepository.findAll()).thenReturn(List.of(tea,new Menu("Coffee",30,true,100)));
+    }
+
+
+    @Test
+    public void testLookupIgnoresCaseAndLoadsMenuOnce(){
+        assertSame(tea,menuIndexService.getMenu("masala tea"));
+        assertSame(tea,menuIndexService.getMenu(" MASALA TEA "));
+        assertNull(menuIndexService.getMenu("Juice"));
+
+        verify(menuRepository,times(1)).findAll();
+        assertEquals(2,menuIndexService.getHitCount());
+        assertEquals(1,menuIndexService.getMissCount());
+    }
+
+
+    @Test
+    public void testIndexFollowsMenuChanges(){
+        menuIndexService.getMenu("Coffee");
+
+        Menu juice=new Menu("Juice",50,true,10);
+        menuIndexService.put(juice);
+        menuIndexService.remove("coffee");
+
+        assertSame(juice,menuIndexService.getMenu("juice"));
+        assertNull(menuIndexService.getMenu("Coffee"));
+        verify(menuRepository,times(1)).findAll();
+    }
+}
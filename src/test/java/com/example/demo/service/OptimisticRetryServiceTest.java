@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import com.example.demo.exception_handler.room_exceptions.RoomUpdateConflictException;
+import com.example.demo.models.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OptimisticRetryServiceTest {
+
+    private OptimisticRetryService optimisticRetryService;
+
+
+    @BeforeEach
+    public void setUp(){
+        optimisticRetryService=new OptimisticRetryService();
+        ReflectionTestUtils.setField(optimisticRetryService,"maxAttempts",3);
+        ReflectionTestUtils.setField(optimisticRetryService,"initialBackoffMs",1L);
+        ReflectionTestUtils.setField(optimisticRetryService,"maxBackoffMs",2L);
+    }
+
+
+    @Test
+    public void testConflictingUpdateIsRetriedUntilItSucceeds(){
+        AtomicInteger attempts=new AtomicInteger();
+
+        String result=optimisticRetryService.execute(()->{
+            if(attempts.incrementAndGet()<3){
+                throw new ObjectOptimisticLockingFailureException(Room.class,1L);
+            }
+            return "saved";
+        },()->new RoomUpdateConflictException("conflict"));
+
+        assertEquals("saved",result);
+        assertEquals(3,attempts.get());
+        assertEquals(2,optimisticRetryService.getConflictCount());
+        assertEquals(2,optimisticRetryService.getRetryCount());
+        assertEquals(0,optimisticRetryService.getExhaustedCount());
+    }
+
+
+    @Test
+    public void testUpdateGivesUpAfterTheLastAttempt(){
+        AtomicInteger attempts=new AtomicInteger();
+
+        RoomUpdateConflictException e=assertThrows(RoomUpdateConflictException.class,()->
+                optimisticRetryService.execute(()->{
+                    attempts.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException(Room.class,1L);
+                },()->new RoomUpdateConflictException("conflict")));
+
+        assertEquals(3,attempts.get());
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class,e.getCause());
+        assertEquals(1,optimisticRetryService.getExhaustedCount());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.request_dto.BookRoomRequestDTO;
+import com.example.demo.dto.response_dto.RoomDTO;
+import com.example.demo.exception_handler.room_exceptions.RoomUpdateConflictException;
+import com.example.demo.models.Room;
+import com.example.demo.repository.BookRoomRepository;
+import com.example.demo.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//booked counts are only written back when the tests flush, the write-back changes the room versions
+@DataJpaTest(properties = "hotel.inventory.flush-interval-ms=3600000")
+@Import({BookRoomService.class,RoomService.class,RoomInventoryService.class,RoomAvailabilityViewService.class,AvailabilityStreamService.class,OptimisticRetryService.class,RoomLedgerService.class,BillingService.class,BillingJournal.class,AnalyticsService.class,NdjsonStreamService.class,JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RoomAvailabilityViewServiceTest {
+
+    @Autowired
+    private RoomAvailabilityViewService roomAvailabilityViewService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookRoomService bookRoomService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookRoomRepository bookRoomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+
+    @BeforeEach
+    public void setUp(){
+        roomService.saveRoom(new Room(null,"Single",true,1000,10));
+        roomService.saveRoom(new Room(null,"Suite",true,5000,2));
+        statistics=entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        billingService.flush();
+        roomInventoryService.flush();
+        bookRoomRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+
+    @Test
+    public void testUnchangedViewIsServedWithoutQueries(){
+        String eTag=roomAvailabilityViewService.getSnapshot().getETag();
+        statistics.clear();
+
+        RoomAvailabilityViewService.Snapshot snapshot=roomAvailabilityViewService.getSnapshot();
+
+        assertEquals(eTag,snapshot.getETag());
+        assertEquals(2,snapshot.getRooms().size());
+        assertEquals(0,statistics.getPrepareStatementCount());
+    }
+
+
+    @Test
+    public void testRoomWritesUpdateTheViewAndOnlyTheirOwnTag(){
+        RoomAvailabilityViewService.Snapshot before=roomAvailabilityViewService.getSnapshot();
+        Room suite=roomRepository.getRoomByType("Suite").orElseThrow();
+
+        suite.setPrice(6000);
+        roomService.updateRoom(suite.getId(),suite);
+        roomService.saveRoom(new Room(null,"Double",false,2000,0));
+        RoomAvailabilityViewService.Snapshot after=roomAvailabilityViewService.getSnapshot();
+
+        assertNotEquals(before.getETag(),after.getETag());
+        assertNotEquals(before.getETag("Suite"),after.getETag("Suite"));
+        assertEquals(before.getETag("Single"),after.getETag("Single"));
+        assertEquals(6000,after.getRoom("Suite").getPrice());
+        assertFalse(after.getRoom("Double").getAvailable());
+
+        roomService.deleteRoom(roomRepository.getRoomByType("Double").orElseThrow().getId());
+        assertNull(roomAvailabilityViewService.getSnapshot().getRoom("Double"));
+    }
+
+
+    @Test
+    public void testBookingKeepsRoomTypeMarkedUnavailable(){
+        roomService.saveRoom(new Room(null,"Double",false,2000,5));
+        roomAvailabilityViewService.getSnapshot();
+
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Double",1))));
+
+        assertEquals(4,roomAvailabilityViewService.getSnapshot().getRoom("Double").getAvailableCount());
+        assertFalse(roomAvailabilityViewService.getSnapshot().getRoom("Double").getAvailable());
+    }
+
+
+    @Test
+    public void testStaleRoomUpdateIsRejectedAndKeepsReservedRooms(){
+        Room suite=roomRepository.getRoomByType("Suite").orElseThrow();
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Suite",1))));
+
+        //the booking is not written back yet, the price change must not give its room back
+        suite.setPrice(6000);
+        roomService.updateRoom(suite.getId(),suite);
+        assertEquals(1,roomInventoryService.getAvailableCount("Suite"));
+        assertEquals(2,roomRepository.getRoomByType("Suite").orElseThrow().getTotalCount());
+
+        Room staleSuite=roomRepository.getRoomByType("Suite").orElseThrow();
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Other Guest",List.of(new RoomDTO("Suite",1))));
+        roomInventoryService.flush();
+        staleSuite.setAvailableCount(2);
+
+        assertThrows(RoomUpdateConflictException.class,()->roomService.updateRoom(staleSuite.getId(),staleSuite));
+        assertEquals(0,roomRepository.getRoomByType("Suite").orElseThrow().getAvailableCount());
+    }
+
+
+    @Test
+    public void testRoomUpdateWithoutVersionIsAppliedAfterTheWriteBack(){
+        Room suite=roomRepository.getRoomByType("Suite").orElseThrow();
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Suite",1))));
+        roomInventoryService.flush();
+
+        //the write-back changed the version, a change that doesn't send one is still applied
+        Room priceChange=new Room();
+        priceChange.setPrice(6000);
+        roomService.updateRoom(suite.getId(),priceChange);
+
+        Room updatedSuite=roomRepository.getRoomByType("Suite").orElseThrow();
+        assertEquals(6000,updatedSuite.getPrice());
+        assertEquals(1,updatedSuite.getAvailableCount());
+        assertEquals(2,updatedSuite.getTotalCount());
+        assertEquals(1,roomInventoryService.getAvailableCount("Suite"));
+    }
+
+
+    @Test
+    public void testCommittedBookingTakesRoomsOutOfTheView(){
+        String eTag=roomAvailabilityViewService.getSnapshot().getETag();
+
+        bookRoomService.bookRoom(new BookRoomRequestDTO("Guest",List.of(new RoomDTO("Suite",2))));
+        RoomAvailabilityViewService.Snapshot snapshot=roomAvailabilityViewService.getSnapshot();
+
+        assertNotEquals(eTag,snapshot.getETag());
+        assertEquals(0,snapshot.getRoom("Suite").getAvailableCount());
+        assertFalse(snapshot.getRoom("Suite").getAvailable());
+        assertEquals(10,snapshot.getRoom("Single").getAvailableCount());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.models.Room;
+import com.example.demo.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RoomInventoryServiceTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RoomInventoryService roomInventoryService;
+
+    private Room deluxe;
+
+    private Room suite;
+
+
+    @BeforeEach
+    public void setUp(){
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        deluxe=new Room(1L,"Deluxe",true,2000,5000);
+        suite=new Room(2L,"Suite",true,5000,2000);
+    }
+
+
+    @Test
+    public void testReserveIsAllOrNothing(){
+        assertTrue(roomInventoryService.tryReserve(Map.of(deluxe,4000,suite,1000)));
+
+        assertFalse(roomInventoryService.tryReserve(Map.of(deluxe,500,suite,1500)));
+
+        assertEquals(1000,roomInventoryService.getAvailableCount("Deluxe"));
+        assertEquals(1000,roomInventoryService.getAvailableCount("Suite"));
+        assertEquals(1,roomInventoryService.getRejectionCount());
+    }
+
+
+    @Test
+    public void testFlushWritesReservedCountsBack(){
+        roomInventoryService.tryReserve(Map.of(deluxe,5000,suite,10));
+
+        roomInventoryService.flush();
+        roomInventoryService.flush();
+
+        verify(roomRepository,times(1)).updateAvailabilityByType("Deluxe",0,false);
+        verify(roomRepository,times(1)).updateAvailabilityByType("Suite",1990,true);
+    }
+
+
+    @Test
+    public void testLoweredCountStopsAtZeroAndIsWrittenBack(){
+        roomInventoryService.tryReserve(Map.of(suite,1500));
+        roomInventoryService.flush();
+
+        //the count is lowered by more than the rooms left since the reservation
+        Room lowered=new Room(2L,"Suite",true,5000,100);
+        roomInventoryService.update(suite,lowered);
+        roomInventoryService.flush();
+
+        assertEquals(0,roomInventoryService.getAvailableCount("Suite"));
+        verify(roomRepository).updateAvailabilityByType("Suite",0,false);
+    }
+
+
+    @Test
+    public void testConcurrentBookingsNeverOversell() throws Exception {
+        int threads=32;
+        int attemptsPerThread=20_000;
+        ExecutorService executor=Executors.newFixedThreadPool(threads);
+        CountDownLatch start=new CountDownLatch(1);
+        List<Future<long[]>> results=new ArrayList<>();
+        for(int i=0;i<threads;i++){
+            results.add(executor.submit(()->{
+                long deluxeBooked=0;
+                long suiteBooked=0;
+                start.await();
+                for(int j=0;j<attemptsPerThread;j++){
+                    int deluxeCount=ThreadLocalRandom.current().nextInt(1,4);
+                    int suiteCount=ThreadLocalRandom.current().nextInt(0,3);
+                    Map<Room,Integer> request=suiteCount==0?Map.of(deluxe,deluxeCount):Map.of(deluxe,deluxeCount,suite,suiteCount);
+                    if(roomInventoryService.tryReserve(request)){
+                        deluxeBooked+=deluxeCount;
+                        suiteBooked+=suiteCount;
+                    }
+                }
+                return new long[]{deluxeBooked,suiteBooked};
+            }));
+        }
+        start.countDown();
+        long deluxeBooked=0;
+        long suiteBooked=0;
+        for(Future<long[]> result:results){
+            long[] booked=result.get(60,TimeUnit.SECONDS);
+            deluxeBooked+=booked[0];
+            suiteBooked+=booked[1];
+        }
+        executor.shutdown();
+
+        assertEquals((int)(5000-deluxeBooked),roomInventoryService.getAvailableCount("Deluxe"));
+        assertEquals((int)(2000-suiteBooked),roomInventoryService.getAvailableCount("Suite"));
+        assertTrue(roomInventoryService.getAvailableCount("Deluxe")>=0);
+        assertTrue(roomInventoryService.getAvailableCount("Suite")>=0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.models.Room;
+import com.example.demo.repository.RoomNightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RoomLedgerServiceTest {
+
+    @Mock
+    private RoomNightRepository roomNightRepository;
+
+    @Spy
+    private RoomInventoryService roomInventoryService=new RoomInventoryService();
+
+    @InjectMocks
+    private RoomLedgerService roomLedgerService;
+
+    private Room deluxe;
+
+    private Room suite;
+
+    private LocalDate today;
+
+
+    @BeforeEach
+    public void setUp(){
+        MockitoAnnotations.openMocks(this);
+        when(roomNightRepository.findByRoomIdAndNightGreaterThanEqual(any(),any())).thenReturn(List.of());
+        deluxe=new Room(1L,"Deluxe",true,2000,5);
+        suite=new Room(2L,"Suite",true,5000,1);
+        today=LocalDate.now();
+    }
+
+
+    @Test
+    public void testOverlappingStaysShareNightlyCapacity(){
+        assertTrue(roomLedgerService.tryBook(Map.of(deluxe,3),today.plusDays(10),today.plusDays(17)));
+        assertTrue(roomLedgerService.tryBook(Map.of(deluxe,2),today.plusDays(15),today.plusDays(20)));
+
+        assertFalse(roomLedgerService.tryBook(Map.of(deluxe,1),today.plusDays(16),today.plusDays(18)));
+        assertFalse(roomLedgerService.tryBook(Map.of(deluxe,4),today.plusDays(17),today.plusDays(18)));
+        assertEquals(3,roomLedgerService.getAvailableCount(deluxe,today.plusDays(17),today.plusDays(20)));
+        assertEquals(5,roomLedgerService.getAvailableCount(deluxe,today,today.plusDays(10)));
+    }
+
+
+    @Test
+    public void testMultiTypeStayIsAllOrNothing(){
+        assertFalse(roomLedgerService.tryBook(Map.of(deluxe,2,suite,2),today.plusDays(1),today.plusDays(3)));
+
+        assertEquals(5,roomLedgerService.getAvailableCount(deluxe,today.plusDays(1),today.plusDays(3)));
+        assertEquals(1,roomLedgerService.getAvailableCount(suite,today.plusDays(1),today.plusDays(3)));
+    }
+
+
+    @Test
+    public void testBookingsWithoutDatesShareCapacityWithStays(){
+        assertTrue(roomLedgerService.tryBook(Map.of(deluxe,3),today.plusDays(30),today.plusDays(32)));
+
+        assertFalse(roomLedgerService.tryHold(Map.of(deluxe,3)));
+        assertEquals(2,roomLedgerService.getHoldableCount(deluxe));
+        assertTrue(roomLedgerService.tryHold(Map.of(deluxe,2)));
+
+        assertEquals(3,roomInventoryService.getAvailableCount(deluxe));
+        assertEquals(0,roomLedgerService.getAvailableCount(deluxe,today.plusDays(30),today.plusDays(31)));
+        assertFalse(roomLedgerService.tryBook(Map.of(deluxe,1),today.plusDays(31),today.plusDays(33)));
+        assertTrue(roomLedgerService.tryBook(Map.of(deluxe,3),today.plusDays(1),today.plusDays(2)));
+    }
+
+
+    @Test
+    public void testRenamedRoomKeepsItsBookedNights(){
+        assertTrue(roomLedgerService.tryBook(Map.of(deluxe,4),today.plusDays(5),today.plusDays(6)));
+
+        Room renamed=new Room(1L,"Deluxe King",true,2000,5);
+
+        assertEquals(1,roomLedgerService.getAvailableCount(renamed,today.plusDays(5),today.plusDays(6)));
+        assertFalse(roomLedgerService.tryBook(Map.of(renamed,2),today.plusDays(5),today.plusDays(6)));
+    }
+
+
+    @Test
+    public void testStayValidation(){
+        assertNull(roomLedgerService.validateStay(today,today.plusDays(1)));
+        assertNotNull(roomLedgerService.validateStay(today.minusDays(1),today.plusDays(1)));
+        assertNotNull(roomLedgerService.validateStay(today.plusDays(2),today.plusDays(2)));
+        assertNotNull(roomLedgerService.validateStay(today,today.plusDays(RoomLedgerService.HORIZON_DAYS+1)));
+        assertNotNull(roomLedgerService.validateStay(today,null));
+    }
+}